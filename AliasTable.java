@@ -0,0 +1,87 @@
+package cs2030.simulator;
+
+/**
+ * AliasTable draws an index with probability proportional to its weight in
+ * O(1), whatever the number of weights, with the alias method of Walker as
+ * built by Vose. Each column of the table holds the probability of keeping
+ * its own index and the alias given otherwise. The 'AliasTable' class
+ * supports operators that includes: (i) Drawing an index from a uniform
+ * double. (ii) Retrieve the number of indices.
+ * AliasTable contains double[] probability and int[] alias.
+ */
+public class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Constructs an AliasTable in O(n).
+     * @param weights the weights, which are not negative and not all 0.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException(
+                        "weights must be finite and not negative");
+            }
+            total += weight;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("weights must not all be 0");
+        }
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smalls = 0;
+        int larges = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smalls++] = i;
+            } else {
+                large[larges++] = i;
+            }
+        }
+        while (smalls > 0 && larges > 0) {
+            int less = small[--smalls];
+            int more = large[--larges];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smalls++] = more;
+            } else {
+                large[larges++] = more;
+            }
+        }
+        while (larges > 0) {
+            probability[large[--larges]] = 1;
+        }
+        while (smalls > 0) {
+            probability[small[--smalls]] = 1;
+        }
+    }
+
+    /**
+     * Draw an index. The integer part of u * n picks the column and its
+     * fractional part decides between the column and its alias.
+     * @param u a uniform double between 0 inclusive and 1 exclusive.
+     * @return the index.
+     */
+    public int sample(double u) {
+        double x = u * probability.length;
+        int column = Math.min((int) x, probability.length - 1);
+        return x - column < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Retrieve the number of indices.
+     * @return number of weights.
+     */
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,26 @@
+import cs2030.simulator.AnalyticSolver;
+
+import java.util.Arrays;
+
+/**
+ * Answer a scenario analytically when it is a plain multi-server queue, and
+ * by simulation otherwise. The scenario is given as for Main, and the
+ * answer is printed as a line "analytic [wait throughput loss]" or
+ * "simulated [wait throughput loss]". With --check, an analytic answer is
+ * followed by the answer of a short simulation of the same scenario.
+ * Usage: [--check] [the arguments of Main].
+ */
+public class AnalyticRunner {
+
+    /**
+     * Main method to answer the scenario given as argument.
+     * @param args command line arguments.
+     */
+    public static void main(String[] args) {
+        boolean check = args.length > 0 && args[0].equals("--check");
+        String[] scenario = check ? Arrays.copyOfRange(args, 1, args.length)
+                : args;
+        System.out.println(AnalyticSolver.answer(Main.normalise(scenario),
+                check));
+    }
+}
@@ -0,0 +1,22 @@
+package cs2030.simulator;
+
+/**
+ * ArrivalSourceI is an interface implemented by the sources of recorded
+ * arrivals that a Simulation replays instead of drawing them. It is a cursor
+ * over records in order of arrival time: next moves to the next record, and
+ * the getters read the current one. The position can be saved and restored
+ * so that the Simulation can be rolled back.
+ */
+public interface ArrivalSourceI {
+    boolean next();
+
+    double getArrivalTime();
+
+    double getServiceTime();
+
+    CustomerType getType();
+
+    long getPosition();
+
+    void setPosition(long position);
+}
@@ -0,0 +1,67 @@
+import cs2030.simulator.ResultCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Run a batch of scenarios in one JVM. The scenarios are read one per line
+ * in the format of ScenarioPipeline, run on a fixed number of threads, and
+ * their statistics are written one per line in the order of the input. The
+ * input is streamed, so batch files of any size use a constant amount of
+ * memory.
+ * Usage: [--threads n] [--cache file] input [output]. An input or output of
+ * "-" is stdin or stdout, and the output defaults to stdout.
+ */
+public class BatchRunner {
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+    private static final int CACHE_CAPACITY = 1 << 16;
+
+    /**
+     * Main method to run the batch file given as argument.
+     * @param args command line arguments.
+     * @throws IOException if the input, the output or the cache cannot be
+     *     opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ResultCache cache = null;
+        int i = 0;
+        while (i + 1 < args.length && args[i].startsWith("--")) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--cache")) {
+                cache = new ResultCache(Paths.get(args[i + 1]), CACHE_CAPACITY);
+            } else {
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+            i += 2;
+        }
+        String input = i < args.length ? args[i] : "-";
+        String output = i + 1 < args.length ? args[i + 1] : "-";
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try (BufferedReader in = input.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in,
+                        StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(input));
+             PrintWriter out = output.equals("-")
+                ? new PrintWriter(new OutputStreamWriter(System.out,
+                        StandardCharsets.UTF_8))
+                : new PrintWriter(Files.newBufferedWriter(Paths.get(output)))) {
+            new ScenarioPipeline(workers, threads * IN_FLIGHT_PER_THREAD, cache)
+                    .run(in, out);
+        } finally {
+            workers.shutdown();
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package cs2030.simulator;
+
+/**
+ * CandidateStatus contains the states of a StaffingCandidate, or of one of
+ * its constraints, in the search of StaffingOptimiser, containing: (i)
+ * UNDECIDED. (ii) FEASIBLE. (iii) INFEASIBLE. (iv) PRUNED, for a candidate
+ * no cheaper than one already found feasible.
+ */
+public enum CandidateStatus {
+    UNDECIDED, FEASIBLE, INFEASIBLE, PRUNED
+}
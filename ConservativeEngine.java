@@ -0,0 +1,83 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ConservativeEngine runs the shops of a ShopNetwork in parallel using
+ * YAWNS-style time windows. At every barrier the mailboxes are delivered and
+ * the window [floor, floor + lookahead) is computed, where floor is the time
+ * of the earliest event of the network. No customer sent during the window
+ * can arrive inside it, so every shop executes its events in the window
+ * independently. Each shop sees exactly the events it would see under
+ * SequentialEngine, in the same order, so the results are identical.
+ * ConservativeEngine contains int threads.
+ */
+public class ConservativeEngine implements EngineI {
+    private final int threads;
+
+    /**
+     * Constructs a ConservativeEngine running the shops on the given number
+     * of threads.
+     * @param threads number of worker threads.
+     */
+    public ConservativeEngine(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Run the network until every shop is done, one time window at a time.
+     * Only shops that have an event inside the window are submitted.
+     * @param network the network to run.
+     */
+    public void run(ShopNetwork network) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            while (true) {
+                network.deliverAll();
+                double floor = network.nextEventTime();
+                if (floor == Double.POSITIVE_INFINITY) {
+                    return;
+                }
+                double horizon = floor + network.getLookahead();
+                List<Callable<Void>> windows = new ArrayList<>();
+                for (int k = 0; k < network.size(); k++) {
+                    Simulation shop = network.getShop(k);
+                    if (shop.nextEventTime() < horizon) {
+                        windows.add(() -> {
+                            shop.advanceTo(horizon);
+                            return null;
+                        });
+                    }
+                }
+                await(pool.invokeAll(windows));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Wait for every window to finish, rethrowing the first failure.
+     * @param futures the windows submitted to the pool.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void await(List<Future<Void>> futures)
+            throws InterruptedException {
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
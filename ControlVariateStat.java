@@ -0,0 +1,234 @@
+package cs2030.simulator;
+
+/**
+ * ControlVariateStat of a series of observations, each paired with controls
+ * whose true means are 0, that estimates the mean of the observations with
+ * the method of control variates. The 'ControlVariateStat' class supports
+ * operators that includes: (i) Adding an observation and its controls. (ii)
+ * Retrieve the number of observations. (iii) Retrieve the controlled mean
+ * and the variance of its estimate. (iv) Retrieve the half-width of the
+ * confidence interval of the controlled mean, also relative to the mean.
+ * The observations are regressed on the controls by least squares, and the
+ * part of their spread explained by the controls is removed from the mean,
+ * with the variance of the estimate and the degrees of freedom of Lavenberg
+ * and Welch, which account for the coefficients being estimated. The means
+ * and the matrix of cross products are computed in one pass with the
+ * multivariate form of Welford's method.
+ * ControlVariateStat contains int controls, int count, double[] means and
+ * double[][] products, where index 0 is the observation and index 1 onwards
+ * are the controls.
+ */
+public class ControlVariateStat {
+    private final int controls;
+    private int count = 0;
+    private final double[] means;
+    private final double[][] products;
+
+    /**
+     * Constructs an empty ControlVariateStat.
+     * @param controls number of controls of each observation.
+     */
+    public ControlVariateStat(int controls) {
+        this.controls = controls;
+        this.means = new double[controls + 1];
+        this.products = new double[controls + 1][controls + 1];
+    }
+
+    /**
+     * Add an observation and its controls.
+     * @param y the observation.
+     * @param c the controls, whose true means are 0.
+     */
+    public void add(double y, double... c) {
+        count++;
+        double[] delta = new double[controls + 1];
+        double[] after = new double[controls + 1];
+        for (int i = 0; i <= controls; i++) {
+            double z = i == 0 ? y : c[i - 1];
+            delta[i] = z - means[i];
+            means[i] += delta[i] / count;
+            after[i] = z - means[i];
+        }
+        for (int i = 0; i <= controls; i++) {
+            for (int j = 0; j <= controls; j++) {
+                products[i][j] += delta[i] * after[j];
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of observations.
+     * @return count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Return the coefficients of the regression of the observations on the
+     * controls.
+     * @return the coefficients, or null if the controls are collinear.
+     */
+    private double[] coefficients() {
+        double[] rhs = new double[controls];
+        for (int i = 0; i < controls; i++) {
+            rhs[i] = products[i + 1][0];
+        }
+        return solveControls(rhs);
+    }
+
+    /**
+     * Solve the system of the cross products of the controls by Gaussian
+     * elimination with partial pivoting.
+     * @param rhs the right-hand side.
+     * @return the solution, or null if the controls are collinear.
+     */
+    private double[] solveControls(double[] rhs) {
+        int q = controls;
+        double scale = 0;
+        for (int i = 1; i <= q; i++) {
+            scale = Math.max(scale, Math.abs(products[i][i]));
+        }
+        double[][] a = new double[q][q + 1];
+        for (int i = 0; i < q; i++) {
+            for (int j = 0; j < q; j++) {
+                a[i][j] = products[i + 1][j + 1];
+            }
+            a[i][q] = rhs[i];
+        }
+        for (int col = 0; col < q; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < q; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            if (!(Math.abs(a[pivot][col]) > 1e-12 * scale)) {
+                return null;
+            }
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+            for (int row = 0; row < q; row++) {
+                if (row != col) {
+                    double factor = a[row][col] / a[col][col];
+                    for (int j = col; j <= q; j++) {
+                        a[row][j] -= factor * a[col][j];
+                    }
+                }
+            }
+        }
+        double[] x = new double[q];
+        for (int i = 0; i < q; i++) {
+            x[i] = a[i][q] / a[i][i];
+        }
+        return x;
+    }
+
+    /**
+     * Return the boolean of whether the controls can be used, which needs
+     * more observations than controls plus one and controls that are not
+     * collinear.
+     * @return true if the controlled estimate is available, else false.
+     */
+    private boolean isControlled() {
+        return count > controls + 1 && coefficients() != null;
+    }
+
+    /**
+     * Retrieve the controlled mean of the observations. Without enough
+     * observations, it is the plain mean.
+     * @return the controlled mean.
+     */
+    public double getMean() {
+        if (!isControlled()) {
+            return means[0];
+        }
+        double[] beta = coefficients();
+        double mean = means[0];
+        for (int i = 0; i < controls; i++) {
+            mean -= beta[i] * means[i + 1];
+        }
+        return mean;
+    }
+
+    /**
+     * Retrieve the variance of the controlled mean.
+     * @return the variance, or positive infinity if the controls cannot be
+     *     used yet.
+     */
+    public double getMeanVariance() {
+        if (!isControlled()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double[] beta = coefficients();
+        double residual = products[0][0];
+        for (int i = 0; i < controls; i++) {
+            residual -= beta[i] * products[i + 1][0];
+        }
+        double[] centre = new double[controls];
+        for (int i = 0; i < controls; i++) {
+            centre[i] = means[i + 1];
+        }
+        double[] solved = solveControls(centre);
+        double leverage = 0;
+        for (int i = 0; i < controls; i++) {
+            leverage += centre[i] * solved[i];
+        }
+        return Math.max(0, residual) / (count - controls - 1)
+                * (1.0 / count + leverage);
+    }
+
+    /**
+     * Retrieve the variance of the plain mean of the observations, without
+     * the controls.
+     * @return the variance, or positive infinity if there are fewer than 2
+     *     observations.
+     */
+    public double getPlainMeanVariance() {
+        if (count < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return products[0][0] / (count - 1) / count;
+    }
+
+    /**
+     * Return the half-width of the confidence interval of the controlled
+     * mean.
+     * @param confidence confidence level, such as 0.95.
+     * @return half-width, or positive infinity if the controls cannot be
+     *     used yet.
+     */
+    public double halfWidth(double confidence) {
+        if (!isControlled()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return StudentT.quantile(1 - (1 - confidence) / 2,
+                count - controls - 1) * Math.sqrt(getMeanVariance());
+    }
+
+    /**
+     * Return the half-width of the confidence interval relative to the
+     * controlled mean. A mean of 0 with no spread counts as perfectly
+     * precise.
+     * @param confidence confidence level, such as 0.95.
+     * @return relative half-width.
+     */
+    public double relativeHalfWidth(double confidence) {
+        double halfWidth = halfWidth(confidence);
+        if (halfWidth == 0) {
+            return 0;
+        }
+        return halfWidth / Math.abs(getMean());
+    }
+
+    /**
+     * Return String representation of the statistics.
+     * @return the controlled mean and the half-width of its 95% confidence
+     *     interval.
+     */
+    @Override
+    public String toString() {
+        return String.format("%.3f+-%.3f", getMean(), halfWidth(0.95));
+    }
+}
@@ -3,13 +3,16 @@ package cs2030.simulator;
 /**
  * Customer contains int id, double arrivalTime and CustomerType type. The
  * Customer class supports operators that includes: (i) Retrieve id. (ii)
- * Retrieve arrivalTime. (iii) Retrieve type.
- * Customer contains int id, double arrivalTime, and CustomerType type.
+ * Retrieve arrivalTime. (iii) Retrieve type. (iv) Retrieve the recorded
+ * serviceTime, which is NaN unless the customer was replayed from a trace.
+ * Customer contains int id, double arrivalTime, CustomerType type, and
+ * double serviceTime.
  */
 public class Customer {
     private final int id;
     private final double arrivalTime;
     private final CustomerType type;
+    private final double serviceTime;
 
     /**
      * Constructs a Normal Customer containing an id, and arrival time.
@@ -20,6 +23,7 @@ public class Customer {
         this.id = id;
         this.arrivalTime = arrivalTime;
         this.type = CustomerType.NORMAL;
+        this.serviceTime = Double.NaN;
     }
 
     /**
@@ -29,9 +33,23 @@ public class Customer {
      * @param type customer type.
      */
     public Customer(int id, double arrivalTime, CustomerType type) {
+        this(id, arrivalTime, type, Double.NaN);
+    }
+
+    /**
+     * Constructs Customer containing an id, arrival time, type, and the
+     * service time recorded for it.
+     * @param id customer identifier.
+     * @param arrivalTime customer arrival time.
+     * @param type customer type.
+     * @param serviceTime recorded service time, or NaN if it is drawn.
+     */
+    public Customer(int id, double arrivalTime, CustomerType type,
+                    double serviceTime) {
         this.id = id;
         this.arrivalTime = arrivalTime;
         this.type = type;
+        this.serviceTime = serviceTime;
     }
 
     /**
@@ -58,6 +76,14 @@ public class Customer {
         return type;
     }
 
+    /**
+     * Retrieve the service time recorded for the customer.
+     * @return serviceTime, or NaN if it is drawn when the customer is served.
+     */
+    public double getServiceTime() {
+        return serviceTime;
+    }
+
     /**
      * Retrieve string representation of customer.
      * @return customer identifier, and if customer's type is GREEDY, include
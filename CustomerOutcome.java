@@ -0,0 +1,25 @@
+package cs2030.simulator;
+
+/**
+ * CustomerOutcome of a customer still in the shop, kept by an
+ * OutcomeExporter until the customer is done or leaves.
+ * CustomerOutcome contains double arrival, boolean greedy, double
+ * serveStart, int server and byte kind.
+ */
+class CustomerOutcome {
+    final double arrival;
+    final boolean greedy;
+    double serveStart = Double.NaN;
+    int server = -1;
+    byte kind = OutcomeTable.KIND_NONE;
+
+    /**
+     * Constructs a CustomerOutcome of a customer who arrived.
+     * @param arrival arrival time of the customer.
+     * @param greedy whether the customer is a greedy one.
+     */
+    CustomerOutcome(double arrival, boolean greedy) {
+        this.arrival = arrival;
+        this.greedy = greedy;
+    }
+}
@@ -0,0 +1,137 @@
+package cs2030.simulator;
+
+import java.util.Arrays;
+
+/**
+ * DigestCheck compares the events an engine handles in each shop of a
+ * ShopNetwork with those handled under SequentialEngine, using an
+ * EventDigest per shop instead of printed logs. The digest of each shop is
+ * printed with whether it is identical to that of SequentialEngine. For a
+ * shop that differs, both engines run again with a digest of interval 1 over
+ * the window of the first checkpoint that differs, which finds the first
+ * event that differs, and that event is printed for both engines.
+ * Usage: engine numShops transferDelay threads interval [the ten or eleven
+ * simulation parameters of Simulation], where engine is sequential,
+ * conservative or timewarp.
+ */
+public class DigestCheck {
+    private static final String[] DEFAULT_SHOP = new String[] {"1", "2", "1",
+        "2", "2000", "3.2", "1.0", "1.0", "0.1", "0.2"};
+
+    /**
+     * Run the check.
+     * @param args command line arguments.
+     */
+    public static void main(String[] args) {
+        String engine = args[0];
+        int numShops = Integer.parseInt(args[1]);
+        double delay = Double.parseDouble(args[2]);
+        int threads = Integer.parseInt(args[3]);
+        long interval = Long.parseLong(args[4]);
+        String[] shop = args.length >= 15
+                ? Arrays.copyOfRange(args, 5, Math.min(args.length, 16))
+                : DEFAULT_SHOP;
+        EventDigest[] reference = run(new SequentialEngine(), shop, numShops,
+                delay, interval, 0, Long.MAX_VALUE, false);
+        EventDigest[] candidate = run(engine(engine, threads), shop, numShops,
+                delay, interval, 0, Long.MAX_VALUE, false);
+        boolean identical = true;
+        for (int k = 0; k < numShops; k++) {
+            long divergence = reference[k].firstDivergence(candidate[k]);
+            System.out.println(String.format("shop %d %s %s identical %b", k,
+                    reference[k], candidate[k], divergence < 0));
+            if (divergence >= 0) {
+                identical = false;
+                locate(engine, threads, shop, numShops, delay, k, divergence,
+                        divergence + interval);
+            }
+        }
+        System.out.println(String.format("%s identical %b", engine, identical));
+    }
+
+    /**
+     * Find and print the first event of the shop that differs between the
+     * engines, within the window.
+     * @param engine name of the engine checked.
+     * @param threads number of threads of the engine.
+     * @param shop the simulation parameters of each shop.
+     * @param numShops number of shops.
+     * @param delay transfer delay.
+     * @param k index of the shop that differs.
+     * @param from index of the first event of the window.
+     * @param to index after the last event of the window.
+     */
+    private static void locate(String engine, int threads, String[] shop,
+                               int numShops, double delay, int k, long from,
+                               long to) {
+        EventDigest reference = run(new SequentialEngine(), shop, numShops,
+                delay, 1, from, to, true)[k];
+        EventDigest candidate = run(engine(engine, threads), shop, numShops,
+                delay, 1, from, to, true)[k];
+        long index = reference.firstDivergence(candidate);
+        System.out.println(String.format("shop %d first divergence at event %d",
+                k, index));
+        System.out.println("  sequential "
+                + describe(reference.getEvent(index)));
+        System.out.println("  " + engine + " "
+                + describe(candidate.getEvent(index)));
+    }
+
+    /**
+     * Run a fresh network with the engine, with a digest in every shop.
+     * @param engine the engine to run.
+     * @param shop the simulation parameters of each shop.
+     * @param numShops number of shops.
+     * @param delay transfer delay.
+     * @param interval number of events between checkpoints.
+     * @param from index of the first event of the window of the digests.
+     * @param to index after the last event of the window of the digests.
+     * @param record whether the digests record the events of the window.
+     * @return the digest of every shop.
+     */
+    private static EventDigest[] run(EngineI engine, String[] shop,
+                                     int numShops, double delay, long interval,
+                                     long from, long to, boolean record) {
+        ShopNetwork network = new ShopNetwork(shop, numShops, delay);
+        EventDigest[] digests = new EventDigest[numShops];
+        for (int k = 0; k < numShops; k++) {
+            digests[k] = new EventDigest(interval, from, to, record);
+            network.getShop(k).setDigest(digests[k]);
+        }
+        engine.run(network);
+        return digests;
+    }
+
+    /**
+     * Return a new engine of the name.
+     * @param name sequential, conservative or timewarp.
+     * @param threads number of threads of the engine.
+     * @return the engine.
+     * @throws IllegalArgumentException if there is no engine of the name.
+     */
+    private static EngineI engine(String name, int threads) {
+        switch (name) {
+            case "sequential":
+                return new SequentialEngine();
+
+            case "conservative":
+                return new ConservativeEngine(threads);
+
+            case "timewarp":
+                return new TimeWarpEngine(threads, 256);
+
+            default:
+                throw new IllegalArgumentException("unknown engine " + name);
+        }
+    }
+
+    /**
+     * Return the canonical key of the event, or "none" if the engine
+     * handled no event there.
+     * @param event the event, or null.
+     * @return description of the event.
+     */
+    private static String describe(Event event) {
+        return event == null ? "none" : EventDigest.describe(event);
+    }
+}
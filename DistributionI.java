@@ -0,0 +1,16 @@
+package cs2030.simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * DistributionI is an interface implemented by the distributions of the
+ * inter-arrival and service times. A sample is drawn from the uniform
+ * doubles between 0 inclusive and 1 exclusive of the supplier, which is a
+ * stream of the RandomGenerator, so a distribution holds no state of its
+ * own and can be shared.
+ */
+public interface DistributionI {
+    double sample(DoubleSupplier uniform);
+
+    double getMean();
+}
@@ -0,0 +1,133 @@
+package cs2030.simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DistributionParser builds a DistributionI from its specification, the name
+ * of the distribution followed by a colon and its parameters separated by
+ * commas: (i) "exponential:rate". (ii) "lognormal:mu,sigma", the mean and
+ * standard deviation of the logarithm. (iii) "gamma:shape,scale". (iv)
+ * "hyperexponential:p1,rate1,p2,rate2,...". (v) "empirical:file", a
+ * histogram read from a file with one bin per line, either "lower,upper,
+ * weight", "value,weight" or "value", where the last two are point masses
+ * and "value" has weight 1, so a file of measured values can be used as it
+ * is. Blank lines and lines starting with '#' are skipped.
+ */
+public class DistributionParser {
+    /**
+     * Return the distribution of the specification.
+     * @param spec the specification.
+     * @return the distribution.
+     * @throws IOException if the file of an empirical distribution cannot be
+     *     read.
+     * @throws IllegalArgumentException if the specification is not valid.
+     */
+    public static DistributionI parse(String spec) throws IOException {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("missing ':' in " + spec);
+        }
+        String name = spec.substring(0, colon).trim().toLowerCase();
+        String parameters = spec.substring(colon + 1).trim();
+        if (name.equals("empirical")) {
+            return readHistogram(parameters);
+        }
+        double[] values = parseNumbers(parameters);
+        switch (name) {
+            case "exponential":
+                check(spec, values.length == 1);
+                return new ExponentialDistribution(values[0]);
+
+            case "lognormal":
+                check(spec, values.length == 2);
+                return new LognormalDistribution(values[0], values[1]);
+
+            case "gamma":
+                check(spec, values.length == 2);
+                return new GammaDistribution(values[0], values[1]);
+
+            case "hyperexponential":
+                check(spec, values.length % 2 == 0);
+                double[] probabilities = new double[values.length / 2];
+                double[] rates = new double[values.length / 2];
+                for (int i = 0; i < rates.length; i++) {
+                    probabilities[i] = values[2 * i];
+                    rates[i] = values[2 * i + 1];
+                }
+                return new HyperexponentialDistribution(probabilities, rates);
+
+            default:
+                throw new IllegalArgumentException("unknown distribution "
+                        + name);
+        }
+    }
+
+    /**
+     * Read the histogram of an empirical distribution from a file.
+     * @param file path of the file.
+     * @return the distribution.
+     * @throws IOException if the file cannot be read.
+     */
+    private static EmpiricalDistribution readHistogram(String file)
+            throws IOException {
+        List<double[]> bins = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                double[] values = parseNumbers(line);
+                check(line, values.length >= 1 && values.length <= 3);
+                if (values.length == 1) {
+                    bins.add(new double[] {values[0], values[0], 1});
+                } else if (values.length == 2) {
+                    bins.add(new double[] {values[0], values[0], values[1]});
+                } else {
+                    bins.add(values);
+                }
+            }
+        }
+        double[] lower = new double[bins.size()];
+        double[] upper = new double[bins.size()];
+        double[] weights = new double[bins.size()];
+        for (int i = 0; i < bins.size(); i++) {
+            lower[i] = bins.get(i)[0];
+            upper[i] = bins.get(i)[1];
+            weights[i] = bins.get(i)[2];
+        }
+        return new EmpiricalDistribution(lower, upper, weights);
+    }
+
+    /**
+     * Parse numbers separated by commas.
+     * @param text the numbers.
+     * @return the numbers.
+     */
+    private static double[] parseNumbers(String text) {
+        String[] fields = text.split(",");
+        double[] values = new double[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = Double.parseDouble(fields[i].trim());
+        }
+        return values;
+    }
+
+    /**
+     * Throw an IllegalArgumentException if the number of parameters is wrong.
+     * @param spec the specification, for the message.
+     * @param valid whether the number of parameters is right.
+     */
+    private static void check(String spec, boolean valid) {
+        if (!valid) {
+            throw new IllegalArgumentException(
+                    "wrong number of parameters in " + spec);
+        }
+    }
+}
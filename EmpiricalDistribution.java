@@ -0,0 +1,87 @@
+package cs2030.simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * EmpiricalDistribution implements DistributionI with a histogram: a bin is
+ * drawn with probability proportional to its weight from an AliasTable, then
+ * a time uniformly within the bin, so a sample costs two uniform doubles and
+ * O(1) whatever the number of bins. The 'EmpiricalDistribution' class
+ * supports operators that includes: (i) Drawing a sample. (ii) Retrieve the
+ * mean. (iii) Retrieve the number of bins.
+ * A bin whose edges are equal is a point mass, so measured values can also
+ * be replayed exactly.
+ * EmpiricalDistribution contains double[] lower, double[] upper, double
+ * mean and AliasTable bins.
+ */
+public class EmpiricalDistribution implements DistributionI {
+    private final double[] lower;
+    private final double[] upper;
+    private final double mean;
+    private final AliasTable bins;
+
+    /**
+     * Constructs an EmpiricalDistribution from the bins of a histogram.
+     * @param lower lower edge of each bin.
+     * @param upper upper edge of each bin, which is not below its lower
+     *     edge.
+     * @param weights weight of each bin, such as its count.
+     */
+    public EmpiricalDistribution(double[] lower, double[] upper,
+                                 double[] weights) {
+        if (lower.length != upper.length || lower.length != weights.length
+                || lower.length == 0) {
+            throw new IllegalArgumentException(
+                    "there must be one weight per bin");
+        }
+        double total = 0;
+        double sum = 0;
+        for (int i = 0; i < lower.length; i++) {
+            if (!(upper[i] >= lower[i])) {
+                throw new IllegalArgumentException(
+                        "a bin must not end before it starts");
+            }
+            total += weights[i];
+            sum += weights[i] * (lower[i] + upper[i]) / 2;
+        }
+        this.bins = new AliasTable(weights);
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+        this.mean = sum / total;
+    }
+
+    /**
+     * Draw a sample.
+     * @param uniform supplier of uniform doubles.
+     * @return the sample.
+     */
+    public double sample(DoubleSupplier uniform) {
+        int bin = bins.sample(uniform.getAsDouble());
+        return lower[bin] + (upper[bin] - lower[bin]) * uniform.getAsDouble();
+    }
+
+    /**
+     * Retrieve the mean of the distribution.
+     * @return the weighted mean of the midpoints of the bins.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Retrieve the number of bins.
+     * @return number of bins.
+     */
+    public int size() {
+        return lower.length;
+    }
+
+    /**
+     * Return String representation of the distribution.
+     * @return the name, the number of bins and the mean.
+     */
+    @Override
+    public String toString() {
+        return String.format("empirical:%d bins, mean %s", lower.length, mean);
+    }
+}
@@ -0,0 +1,80 @@
+package cs2030.simulator;
+
+import java.util.Arrays;
+
+/**
+ * EngineBenchmark compares SequentialEngine, ConservativeEngine and
+ * TimeWarpEngine on the same ShopNetwork. Every engine runs the network a
+ * number of times after a warm-up, and the median wall time is printed with
+ * whether the statistics are identical to those of SequentialEngine.
+ * Usage: numShops transferDelay threads repetitions [the ten or eleven
+ * simulation parameters of Simulation].
+ */
+public class EngineBenchmark {
+    private static final String[] DEFAULT_SHOP = new String[] {"1", "2", "1",
+        "2", "2000", "3.2", "1.0", "1.0", "0.1", "0.2"};
+
+    /**
+     * Run the benchmark.
+     * @param args command line arguments.
+     */
+    public static void main(String[] args) {
+        int numShops = Integer.parseInt(args[0]);
+        double delay = Double.parseDouble(args[1]);
+        int threads = Integer.parseInt(args[2]);
+        int repetitions = Integer.parseInt(args[3]);
+        String[] shop = args.length >= 14
+                ? Arrays.copyOfRange(args, 4, Math.min(args.length, 15))
+                : DEFAULT_SHOP;
+        String reference = run(new SequentialEngine(), shop, numShops, delay);
+        report("sequential", new SequentialEngine(), shop, numShops, delay,
+                repetitions, reference);
+        report("conservative", new ConservativeEngine(threads), shop,
+                numShops, delay, repetitions, reference);
+        TimeWarpEngine timeWarp = new TimeWarpEngine(threads, 256);
+        report("timewarp", timeWarp, shop, numShops, delay, repetitions,
+                reference);
+        System.out.println(String.format("timewarp rollbacks %d undone %d",
+                timeWarp.getRollbacks(), timeWarp.getRolledBack()));
+    }
+
+    /**
+     * Run a fresh network with the engine and return its statistics.
+     * @param engine the engine to run.
+     * @param shop the simulation parameters of each shop.
+     * @param numShops number of shops.
+     * @param delay transfer delay.
+     * @return the statistics of the network.
+     */
+    private static String run(EngineI engine, String[] shop, int numShops,
+                              double delay) {
+        ShopNetwork network = new ShopNetwork(shop, numShops, delay);
+        engine.run(network);
+        return network.summary();
+    }
+
+    /**
+     * Time the engine and print its median wall time in milliseconds.
+     * @param name name of the engine.
+     * @param engine the engine to time.
+     * @param shop the simulation parameters of each shop.
+     * @param numShops number of shops.
+     * @param delay transfer delay.
+     * @param repetitions number of timed runs.
+     * @param reference statistics of SequentialEngine.
+     */
+    private static void report(String name, EngineI engine, String[] shop,
+                               int numShops, double delay, int repetitions,
+                               String reference) {
+        boolean identical = run(engine, shop, numShops, delay).equals(reference);
+        long[] times = new long[repetitions];
+        for (int i = 0; i < repetitions; i++) {
+            long start = System.nanoTime();
+            run(engine, shop, numShops, delay);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%s %.1f ms identical %b", name,
+                times[repetitions / 2] / 1e6, identical));
+    }
+}
@@ -0,0 +1,9 @@
+package cs2030.simulator;
+
+/**
+ * EngineI is an interface implemented by the engines that run a ShopNetwork.
+ * Every engine must leave the network in the same state as SequentialEngine.
+ */
+public interface EngineI {
+    void run(ShopNetwork network);
+}
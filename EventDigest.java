@@ -0,0 +1,220 @@
+package cs2030.simulator;
+
+import java.util.Arrays;
+
+/**
+ * EventDigest is a rolling 128-bit hash of the events handled by a
+ * Simulation, used to check that two engines handle the same events in the
+ * same order without printing them. The 'EventDigest' class supports
+ * operators that includes: (i) Adding an event to the hash. (ii) Rewinding
+ * the hash when the simulation is rolled back. (iii) Retrieve the number of
+ * events and the hash. (iv) Finding the first event at which two digests
+ * differ. (v) Retrieve an event recorded in the window of the digest.
+ * Each event is hashed by the key Event.compareTo orders it by, its start
+ * time, the id of its customer and its status, along with the id of its
+ * server, so no text is rendered. Both halves of the hash are chained
+ * through a bijective mixer, so they depend on the order of the events, and
+ * every interval events a checkpoint of the hash is kept. Comparing the
+ * checkpoints of two digests finds the interval of the first difference
+ * with interval times fewer values than events, and a digest with an
+ * interval of 1 over that window alone finds the exact event, so billions
+ * of events can be compared in two runs. The hash is not cryptographic.
+ * Checkpoints are only kept for the events from the start of the window
+ * to its end, and the events themselves too if the digest records them.
+ * EventDigest contains long interval, long from, long to, Event[] recorded,
+ * long events, long high, long low, long[] checkpoints, int size and long
+ * nextCheckpoint.
+ */
+public class EventDigest {
+    private static final long SEED_HIGH = 0x6a09e667f3bcc908L;
+    private static final long SEED_LOW = 0xbb67ae8584caa73bL;
+    private static final long PRIME_HIGH = 0x9e3779b97f4a7c15L;
+    private static final long PRIME_LOW = 0xc2b2ae3d27d4eb4fL;
+    private static final long SERVER_MASK = 0xffffffL;
+    private final long interval;
+    private final long from;
+    private final long to;
+    private final Event[] recorded;
+    private long events = 0;
+    private long high = SEED_HIGH;
+    private long low = SEED_LOW;
+    private long[] checkpoints = new long[32];
+    private int size = 0;
+    private long nextCheckpoint;
+
+    /**
+     * Constructs an EventDigest that keeps a checkpoint every interval
+     * events.
+     * @param interval number of events between checkpoints.
+     */
+    public EventDigest(long interval) {
+        this(interval, 0, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Constructs an EventDigest that keeps a checkpoint every interval
+     * events of the window, from event from (counted from 0) to event to
+     * exclusive, and records the events of the window if asked to.
+     * @param interval number of events between checkpoints.
+     * @param from index of the first event of the window.
+     * @param to index after the last event of the window.
+     * @param record whether the events of the window are kept, in which
+     *     case the window must hold fewer than Integer.MAX_VALUE events.
+     */
+    public EventDigest(long interval, long from, long to, boolean record) {
+        if (interval < 1 || from < 0 || to < from) {
+            throw new IllegalArgumentException("interval must be positive "
+                    + "and the window must not end before it starts");
+        }
+        this.interval = interval;
+        this.from = from;
+        this.to = to;
+        this.recorded = record ? new Event[Math.toIntExact(to - from)] : null;
+        this.nextCheckpoint = checkpointAfter(0);
+    }
+
+    /**
+     * Add the event to the hash, keeping a checkpoint if one is due.
+     * @param event the event handled.
+     */
+    void observe(Event event) {
+        ServerI server = event.getServer();
+        long key = ((long) event.getCustomer().getId() << 32)
+                | ((long) event.getStatus().ordinal() << 24)
+                | ((server == null ? -1 : server.getId()) & SERVER_MASK);
+        long time = Double.doubleToLongBits(event.getStartTime());
+        high = mix((high ^ time) * PRIME_HIGH + key);
+        low = mix((low + key) * PRIME_LOW ^ time);
+        if (recorded != null && events >= from && events < to) {
+            recorded[(int) (events - from)] = event;
+        }
+        events++;
+        if (events == nextCheckpoint) {
+            if (2 * size == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, 2 * checkpoints.length);
+            }
+            checkpoints[2 * size] = high;
+            checkpoints[2 * size + 1] = low;
+            size++;
+            nextCheckpoint = checkpointAfter(events);
+        }
+    }
+
+    /**
+     * Return the finalising mixer of MurmurHash3, which is a bijection of the
+     * longs.
+     * @param h the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Return the number of events after which the next checkpoint is kept.
+     * @param count number of events so far.
+     * @return number of events of the next checkpoint, or Long.MAX_VALUE if
+     *     there is none.
+     */
+    private long checkpointAfter(long count) {
+        long next = count < from ? from + interval
+                : from + ((count - from) / interval + 1) * interval;
+        return next > to || next < 0 ? Long.MAX_VALUE : next;
+    }
+
+    /**
+     * Return the state of the hash, to rewind it to later.
+     * @return the number of events and both halves of the hash.
+     */
+    long[] getState() {
+        return new long[] {events, high, low};
+    }
+
+    /**
+     * Rewind the hash to a state returned earlier by getState, dropping the
+     * checkpoints kept since, when the simulation is rolled back.
+     * @param state the state of the hash.
+     */
+    void setState(long[] state) {
+        events = state[0];
+        high = state[1];
+        low = state[2];
+        size = events <= from ? 0
+                : (int) ((Math.min(events, to) - from) / interval);
+        nextCheckpoint = checkpointAfter(events);
+    }
+
+    /**
+     * Retrieve the number of events hashed.
+     * @return events.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Return the first event at which the two digests, which must have the
+     * same interval and window, may differ: the first event after the last
+     * checkpoint they agree on. With an interval of 1 this is the exact
+     * event, and if one digest has fewer events but agrees with the other
+     * up to its end, it is the first event it is missing.
+     * @param other the other digest.
+     * @return index of the first event that may differ, counted from 0, or
+     *     -1 if the digests are identical.
+     * @throws IllegalArgumentException if the digests have different
+     *     intervals or windows.
+     */
+    public long firstDivergence(EventDigest other) {
+        if (interval != other.interval || from != other.from || to != other.to) {
+            throw new IllegalArgumentException(
+                    "digests must have the same interval and window");
+        }
+        int common = Math.min(size, other.size);
+        for (int i = 0; i < common; i++) {
+            if (checkpoints[2 * i] != other.checkpoints[2 * i]
+                    || checkpoints[2 * i + 1] != other.checkpoints[2 * i + 1]) {
+                return from + i * interval;
+            }
+        }
+        if (events == other.events && high == other.high && low == other.low) {
+            return -1;
+        }
+        return from + common * interval;
+    }
+
+    /**
+     * Retrieve an event recorded in the window.
+     * @param index index of the event, counted from 0.
+     * @return the event, or null if it was not recorded.
+     */
+    public Event getEvent(long index) {
+        if (recorded == null || index < from || index >= Math.min(to, events)) {
+            return null;
+        }
+        return recorded[(int) (index - from)];
+    }
+
+    /**
+     * Return the canonical key of the event that is hashed.
+     * @param event the event.
+     * @return the start time, customer id, status and server id of the
+     *     event.
+     */
+    public static String describe(Event event) {
+        ServerI server = event.getServer();
+        return String.format("%s %d %s %s", Double.toString(event.getStartTime()),
+                event.getCustomer().getId(), event.getStatus(),
+                server == null ? "-" : String.valueOf(server.getId()));
+    }
+
+    /**
+     * Return String representation of the digest.
+     * @return the number of events and the hash in hexadecimal.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d %016x%016x", events, high, low);
+    }
+}
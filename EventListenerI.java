@@ -0,0 +1,19 @@
+package cs2030.simulator;
+
+/**
+ * EventListenerI is an interface implemented by the subscribers of an
+ * EventRing. It is called on the thread of its subscription, never on the
+ * simulation thread, with the records in the order they were published.
+ * The record is reused once the call returns, so it must be copied if it is
+ * kept.
+ */
+public interface EventListenerI {
+    void onEvent(EventRecord record);
+
+    /**
+     * Called once on the thread of the subscription after the last record,
+     * when the EventRing is closed.
+     */
+    default void onClose() {
+    }
+}
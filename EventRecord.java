@@ -0,0 +1,103 @@
+package cs2030.simulator;
+
+/**
+ * EventRecord is one slot of an EventRing, describing an event handled by a
+ * Simulation. The records are allocated once with the ring and overwritten
+ * by the simulation thread, so a record is only valid during the call of
+ * EventListenerI.onEvent it is passed to.
+ * EventRecord contains long sequence, EventStatus status, double time, int
+ * customer, boolean greedy, int server and boolean selfCheckOut.
+ */
+public class EventRecord {
+    private long sequence;
+    private EventStatus status;
+    private double time;
+    private int customer;
+    private boolean greedy;
+    private int server;
+    private boolean selfCheckOut;
+
+    /**
+     * Overwrite the record with the event.
+     * @param sequence position of the event in the stream, from 0.
+     * @param event the event handled.
+     * @param time simulated time the event was handled.
+     */
+    void set(long sequence, Event event, double time) {
+        this.sequence = sequence;
+        this.status = event.getStatus();
+        this.time = time;
+        this.customer = event.getCustomer().getId();
+        this.greedy = event.getCustomer().getType() == CustomerType.GREEDY;
+        this.server = event.getServer() == null ? -1 : event.getServer().getId();
+        this.selfCheckOut = event.getServer() instanceof SelfCheckOut;
+    }
+
+    /**
+     * Retrieve the position of the event in the stream. Gaps in the
+     * sequence are events that were dropped for this subscriber.
+     * @return sequence.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retrieve the status of the event.
+     * @return status.
+     */
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieve the simulated time the event was handled.
+     * @return time.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Retrieve the identifier of the customer of the event.
+     * @return customer.
+     */
+    public int getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Retrieve whether the customer of the event is a greedy one.
+     * @return greedy.
+     */
+    public boolean isGreedy() {
+        return greedy;
+    }
+
+    /**
+     * Retrieve the identifier of the serverI of the event, or -1 if the
+     * event has none.
+     * @return server.
+     */
+    public int getServer() {
+        return server;
+    }
+
+    /**
+     * Retrieve whether the serverI of the event is a SelfCheckOut.
+     * @return selfCheckOut.
+     */
+    public boolean isSelfCheckOut() {
+        return selfCheckOut;
+    }
+
+    /**
+     * Retrieve String representation of the EventRecord.
+     * @return the sequence, time, status, customer and server of the event.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d %.3f %s %d %d", sequence, time, status,
+                customer, server);
+    }
+}
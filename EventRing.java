@@ -0,0 +1,195 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventRing that carries the events of a Simulation to subscribers running
+ * on their own threads, in the manner of the LMAX Disruptor. The
+ * 'EventRing' class supports operators that includes: (i) Subscribing an
+ * EventListenerI on a new thread. (ii) Publishing an event. (iii) Retrieve
+ * the number of events dropped. (iv) Closing the ring, which waits for the
+ * subscribers to finish.
+ * The ring is an array of EventRecords allocated once, written by the one
+ * simulation thread and read by every subscriber, so publishing allocates
+ * nothing and takes no lock: the producer fills the next record and then
+ * moves the cursor forward, and each subscriber moves its own sequence
+ * forward once it has read up to the cursor. The producer only writes a
+ * record that every subscriber has read. If the slowest subscriber is a
+ * whole ring behind, the event is dropped for all subscribers, so the
+ * simulation never waits, unless the ring was created with backpressure,
+ * in which case the producer waits for the slot to be read.
+ * EventRing contains EventRecord[] records, int mask, boolean backpressure,
+ * AtomicLong cursor, List sequences, List threads, long next, long offered,
+ * long cachedMin, long dropped and boolean closed.
+ */
+public class EventRing implements AutoCloseable {
+    private static final int SPINS = 64;
+    private static final long PARK_NANOS = 50_000;
+    private final EventRecord[] records;
+    private final int mask;
+    private final boolean backpressure;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<AtomicLong> sequences = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private long next = 0;
+    private long offered = 0;
+    private long cachedMin = -1;
+    private long dropped = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs an EventRing with a capacity rounded up to a power of two.
+     * @param capacity minimum number of records in the ring.
+     * @param backpressure whether the simulation waits for the subscribers
+     *     when the ring is full, instead of dropping events.
+     */
+    public EventRing(int capacity, boolean backpressure) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.records = new EventRecord[size];
+        for (int i = 0; i < size; i++) {
+            records[i] = new EventRecord();
+        }
+        this.mask = size - 1;
+        this.backpressure = backpressure;
+    }
+
+    /**
+     * Subscribe the listener on a new thread, which receives every event
+     * published from now on, apart from the dropped ones. Must be called
+     * before the first event is published.
+     * @param listener the subscriber.
+     */
+    public synchronized void subscribe(EventListenerI listener) {
+        if (next != 0 || closed) {
+            throw new IllegalStateException("subscribe before publishing");
+        }
+        AtomicLong sequence = new AtomicLong(-1);
+        sequences.add(sequence);
+        Thread thread = new Thread(() -> consume(listener, sequence),
+                "event-ring-" + threads.size());
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Read the records up to the cursor, until the ring is closed and every
+     * record has been read. If the listener fails, its sequence no longer
+     * holds the producer back.
+     * @param listener the subscriber.
+     * @param sequence the last record read by the subscriber.
+     */
+    private void consume(EventListenerI listener, AtomicLong sequence) {
+        try {
+            long seq = -1;
+            int idle = 0;
+            while (true) {
+                boolean done = closed;
+                long available = cursor.get();
+                if (available > seq) {
+                    for (long s = seq + 1; s <= available; s++) {
+                        listener.onEvent(records[(int) s & mask]);
+                    }
+                    seq = available;
+                    sequence.lazySet(seq);
+                    idle = 0;
+                } else if (done) {
+                    break;
+                } else {
+                    idle = pause(idle);
+                }
+            }
+            listener.onClose();
+        } finally {
+            sequence.set(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Wait a little, spinning first and then parking, as one more round of
+     * waiting.
+     * @param idle number of rounds waited so far.
+     * @return number of rounds waited, including this one.
+     */
+    private static int pause(int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else if (idle < 2 * SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return idle + 1;
+    }
+
+    /**
+     * Publish the event to the subscribers. Must only be called by the
+     * simulation thread. If the slowest subscriber has not read the record
+     * to be overwritten, the event is dropped, or the thread waits if the
+     * ring has backpressure.
+     * @param event the event handled.
+     * @param time simulated time the event was handled.
+     * @return true if the event was published, else false.
+     */
+    boolean publish(Event event, double time) {
+        long sequence = offered++;
+        long wrap = next - records.length;
+        if (cachedMin < wrap) {
+            cachedMin = minSequence();
+            int idle = 0;
+            while (cachedMin < wrap) {
+                if (!backpressure) {
+                    dropped++;
+                    return false;
+                }
+                idle = pause(idle);
+                cachedMin = minSequence();
+            }
+        }
+        records[(int) next & mask].set(sequence, event, time);
+        cursor.lazySet(next);
+        next++;
+        return true;
+    }
+
+    /**
+     * Return the last record read by the slowest subscriber.
+     * @return the smallest sequence of the subscribers.
+     */
+    private long minSequence() {
+        long min = Long.MAX_VALUE;
+        for (AtomicLong sequence : sequences) {
+            min = Math.min(min, sequence.get());
+        }
+        return min;
+    }
+
+    /**
+     * Retrieve the number of events that were dropped because the ring was
+     * full. Must only be called by the simulation thread.
+     * @return dropped.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Close the ring and wait for every subscriber to read the remaining
+     * records and return from EventListenerI.onClose.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package cs2030.simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * ExponentialDistribution implements DistributionI with the exponential
+ * distribution of a rate, drawn by inversion from one uniform double as the
+ * RandomGenerator does. The 'ExponentialDistribution' class supports
+ * operators that includes: (i) Drawing a sample. (ii) Retrieve the mean.
+ * ExponentialDistribution contains double rate.
+ */
+public class ExponentialDistribution implements DistributionI {
+    private final double rate;
+
+    /**
+     * Constructs an ExponentialDistribution.
+     * @param rate rate of the distribution, which is positive.
+     */
+    public ExponentialDistribution(double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * Draw a sample.
+     * @param uniform supplier of uniform doubles.
+     * @return the sample.
+     */
+    public double sample(DoubleSupplier uniform) {
+        return -Math.log(uniform.getAsDouble()) / rate;
+    }
+
+    /**
+     * Retrieve the mean of the distribution.
+     * @return 1 / rate.
+     */
+    public double getMean() {
+        return 1 / rate;
+    }
+
+    /**
+     * Return String representation of the distribution.
+     * @return the name and the rate.
+     */
+    @Override
+    public String toString() {
+        return String.format("exponential:%s", rate);
+    }
+}
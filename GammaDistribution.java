@@ -0,0 +1,80 @@
+package cs2030.simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * GammaDistribution implements DistributionI with the gamma distribution of
+ * a shape and a scale, drawn with the method of Marsaglia and Tsang. A
+ * shape below 1 is drawn as a sample of shape + 1 times U^(1 / shape). The
+ * 'GammaDistribution' class supports operators that includes: (i) Drawing a
+ * sample. (ii) Retrieve the mean.
+ * The method rejects fewer than 5% of its candidates for any shape, so a
+ * sample takes a few uniform doubles on average.
+ * GammaDistribution contains double shape, double scale, double d and double
+ * c.
+ */
+public class GammaDistribution implements DistributionI {
+    private final double shape;
+    private final double scale;
+    private final double d;
+    private final double c;
+
+    /**
+     * Constructs a GammaDistribution.
+     * @param shape shape of the distribution, which is positive.
+     * @param scale scale of the distribution, which is positive.
+     */
+    public GammaDistribution(double shape, double scale) {
+        if (!(shape > 0) || !(scale > 0)) {
+            throw new IllegalArgumentException(
+                    "shape and scale must be positive");
+        }
+        this.shape = shape;
+        this.scale = scale;
+        this.d = (shape < 1 ? shape + 1 : shape) - 1.0 / 3;
+        this.c = 1 / Math.sqrt(9 * d);
+    }
+
+    /**
+     * Draw a sample.
+     * @param uniform supplier of uniform doubles.
+     * @return the sample.
+     */
+    public double sample(DoubleSupplier uniform) {
+        double sample;
+        while (true) {
+            double z = LognormalDistribution.standardNormal(uniform);
+            double v = 1 + c * z;
+            if (v <= 0) {
+                continue;
+            }
+            v = v * v * v;
+            double u = 1 - uniform.getAsDouble();
+            if (Math.log(u) < z * z / 2 + d - d * v + d * Math.log(v)) {
+                sample = d * v;
+                break;
+            }
+        }
+        if (shape < 1) {
+            sample *= Math.pow(1 - uniform.getAsDouble(), 1 / shape);
+        }
+        return sample * scale;
+    }
+
+    /**
+     * Retrieve the mean of the distribution.
+     * @return shape * scale.
+     */
+    public double getMean() {
+        return shape * scale;
+    }
+
+    /**
+     * Return String representation of the distribution.
+     * @return the name and the parameters.
+     */
+    @Override
+    public String toString() {
+        return String.format("gamma:%s,%s", shape, scale);
+    }
+}
@@ -0,0 +1,231 @@
+package cs2030.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * GzipEventLog that writes the events printed by a Simulation, one line per
+ * event as they would be printed, into a gzip file. The 'GzipEventLog'
+ * class supports operators that includes: (i) Accepting an event printed by
+ * the simulation. (ii) Compressing a full block of events on a worker
+ * thread. (iii) Writing the compressed blocks in order on a writer thread.
+ * (iv) Closing the log, which writes the last block and waits for the
+ * blocks to be written.
+ * The simulation thread only stores the event in the current block, and
+ * hands the block to the workers once it holds blockEvents events. A worker
+ * formats the events of the block, which are immutable, and deflates them
+ * with a Deflater of its own into a complete gzip member, so blocks are
+ * formatted and compressed in parallel. The writer thread writes the
+ * members in the order of the blocks, and a file of concatenated members
+ * is read by zcat and GZIPInputStream as one stream. At most two blocks per
+ * worker are pending at a time, so the simulation waits for the workers if
+ * they fall behind rather than using more memory.
+ * GzipEventLog contains OutputStream out, int blockEvents, int level,
+ * ExecutorService workers, BlockingQueue blocks, Thread writer, Event[]
+ * block, int filled, long events and IOException failure.
+ */
+public class GzipEventLog implements Consumer<Event>, AutoCloseable {
+    private static final int BLOCKS_PER_THREAD = 2;
+    private static final int BUFFER = 1 << 16;
+    private static final byte[] HEADER = new byte[] {0x1f, (byte) 0x8b,
+        Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final Future<byte[]> END =
+            CompletableFuture.completedFuture(null);
+    private final OutputStream out;
+    private final int blockEvents;
+    private final int level;
+    private final ExecutorService workers;
+    private final BlockingQueue<Future<byte[]>> blocks;
+    private final Thread writer;
+    private Event[] block;
+    private int filled = 0;
+    private long events = 0;
+    private volatile IOException failure = null;
+
+    /**
+     * Constructs a GzipEventLog writing to the file, which is replaced.
+     * @param file the file to write.
+     * @param blockEvents number of events of a block.
+     * @param threads number of worker threads.
+     * @param level compression level of the Deflater, from 0 to 9, or -1
+     *     for the default level.
+     * @throws IOException if the file cannot be created.
+     * @throws IllegalArgumentException if the level is out of range.
+     */
+    public GzipEventLog(Path file, int blockEvents, int threads, int level)
+            throws IOException {
+        if (level < Deflater.DEFAULT_COMPRESSION
+                || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(
+                    "compression level must be from -1 to 9, not " + level);
+        }
+        this.out = Files.newOutputStream(file);
+        this.blockEvents = Math.max(1, blockEvents);
+        this.level = level;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        this.blocks = new ArrayBlockingQueue<>(Math.max(1, threads)
+                * BLOCKS_PER_THREAD);
+        this.block = new Event[this.blockEvents];
+        this.writer = new Thread(this::write, "gzip-event-log");
+        writer.start();
+    }
+
+    /**
+     * Add the event to the current block, and hand the block to the workers
+     * once it is full.
+     * @param event the event printed.
+     * @throws UncheckedIOException if a block could not be written.
+     */
+    @Override
+    public void accept(Event event) {
+        block[filled++] = event;
+        events++;
+        if (filled == blockEvents) {
+            submit();
+        }
+    }
+
+    /**
+     * Hand the current block to the workers and start a new block, waiting
+     * if too many blocks are pending.
+     * @throws UncheckedIOException if a block could not be written.
+     */
+    private void submit() {
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        Event[] full = block;
+        int size = filled;
+        block = new Event[blockEvents];
+        filled = 0;
+        try {
+            blocks.put(workers.submit(() -> compress(full, size)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException());
+        }
+    }
+
+    /**
+     * Format the events of the block and deflate them into a gzip member: the
+     * header, the deflated lines, and the CRC-32 and length of the lines.
+     * @param events the block of events.
+     * @param size number of events of the block.
+     * @return the gzip member.
+     */
+    private byte[] compress(Event[] events, int size) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            text.append(events[i]).append(System.lineSeparator());
+        }
+        byte[] input = text.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(input);
+        ByteArrayOutputStream member = new ByteArrayOutputStream(
+                input.length / 4 + HEADER.length + 8);
+        member.write(HEADER, 0, HEADER.length);
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[BUFFER];
+            while (!deflater.finished()) {
+                member.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+        writeInt(member, (int) crc.getValue());
+        writeInt(member, input.length);
+        return member.toByteArray();
+    }
+
+    /**
+     * Write the int in little-endian order, as gzip stores its trailer.
+     * @param member the stream written to.
+     * @param value the int.
+     */
+    private static void writeInt(ByteArrayOutputStream member, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            member.write(value >>> shift);
+        }
+    }
+
+    /**
+     * Write the compressed blocks in order until the end of the log, on the
+     * writer thread. Once a block fails, the later blocks are still taken
+     * so that the simulation never waits for a writer that has stopped.
+     */
+    private void write() {
+        try {
+            Future<byte[]> next = blocks.take();
+            while (next != END) {
+                try {
+                    byte[] member = next.get();
+                    if (failure == null) {
+                        out.write(member);
+                    }
+                } catch (ExecutionException e) {
+                    failure = new IOException("block could not be compressed",
+                            e.getCause());
+                } catch (IOException e) {
+                    failure = e;
+                }
+                next = blocks.take();
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Retrieve the number of events accepted.
+     * @return events.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Write the last block and wait until every block is written, then close
+     * the file.
+     * @throws IOException if a block could not be written or the file
+     *     cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (filled > 0 && failure == null) {
+                submit();
+            }
+            blocks.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            workers.shutdown();
+            out.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
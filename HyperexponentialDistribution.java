@@ -0,0 +1,76 @@
+package cs2030.simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * HyperexponentialDistribution implements DistributionI with a mixture of
+ * exponential distributions: a phase is drawn with its probability from an
+ * AliasTable, then an exponential time with the rate of the phase. The
+ * 'HyperexponentialDistribution' class supports operators that includes:
+ * (i) Drawing a sample. (ii) Retrieve the mean.
+ * HyperexponentialDistribution contains double[] probabilities, double[]
+ * rates and AliasTable phases.
+ */
+public class HyperexponentialDistribution implements DistributionI {
+    private final double[] probabilities;
+    private final double[] rates;
+    private final AliasTable phases;
+
+    /**
+     * Constructs a HyperexponentialDistribution.
+     * @param probabilities probability of each phase, which are normalised.
+     * @param rates rate of each phase, which are positive.
+     */
+    public HyperexponentialDistribution(double[] probabilities, double[] rates) {
+        if (probabilities.length != rates.length || rates.length == 0) {
+            throw new IllegalArgumentException(
+                    "there must be one rate per probability");
+        }
+        for (double rate : rates) {
+            if (!(rate > 0)) {
+                throw new IllegalArgumentException("rates must be positive");
+            }
+        }
+        this.phases = new AliasTable(probabilities);
+        this.probabilities = probabilities.clone();
+        this.rates = rates.clone();
+    }
+
+    /**
+     * Draw a sample.
+     * @param uniform supplier of uniform doubles.
+     * @return the sample.
+     */
+    public double sample(DoubleSupplier uniform) {
+        int phase = phases.sample(uniform.getAsDouble());
+        return -Math.log(uniform.getAsDouble()) / rates[phase];
+    }
+
+    /**
+     * Retrieve the mean of the distribution.
+     * @return the mean of 1 / rate over the phases.
+     */
+    public double getMean() {
+        double total = 0;
+        double mean = 0;
+        for (int i = 0; i < rates.length; i++) {
+            total += probabilities[i];
+            mean += probabilities[i] / rates[i];
+        }
+        return mean / total;
+    }
+
+    /**
+     * Return String representation of the distribution.
+     * @return the name and the probability and rate of each phase.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("hyperexponential:");
+        for (int i = 0; i < rates.length; i++) {
+            builder.append(i == 0 ? "" : ",").append(probabilities[i])
+                    .append(',').append(rates[i]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package cs2030.simulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JfrDispatchEvent is the Java Flight Recorder event committed each time the
+ * Shop decides what an arriving customer does: be served, wait or leave. Its
+ * duration is the time taken by the decision. It is disabled unless a
+ * recording enables it.
+ * JfrDispatchEvent contains int customer, boolean greedy, String decision,
+ * int server and boolean selfCheckOut.
+ */
+@Name("cs2030.simulator.Dispatch")
+@Label("Dispatch Customer")
+@Category("Simulation")
+@Description("The decision of the Shop for an arriving customer")
+@Enabled(false)
+@StackTrace(false)
+class JfrDispatchEvent extends jdk.jfr.Event {
+    @Label("Customer")
+    int customer;
+
+    @Label("Greedy")
+    boolean greedy;
+
+    @Label("Decision")
+    @Description("SERVE, WAIT or LEAVE")
+    String decision;
+
+    @Label("Server")
+    @Description("Identifier of the chosen server, or -1 if the customer leaves")
+    int server;
+
+    @Label("Self-Checkout")
+    boolean selfCheckOut;
+}
@@ -0,0 +1,37 @@
+package cs2030.simulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JfrHandleEvent is the Java Flight Recorder event committed each time
+ * Simulation handles an Event. Its duration is the time taken to handle the
+ * event, so grouping by status gives the handle counts and latencies of
+ * every EventStatus. It is disabled unless a recording enables it.
+ * JfrHandleEvent contains String status, int customer, double time and int
+ * queueDepth.
+ */
+@Name("cs2030.simulator.Handle")
+@Label("Handle Event")
+@Category("Simulation")
+@Description("An event handled by Simulation")
+@Enabled(false)
+@StackTrace(false)
+class JfrHandleEvent extends jdk.jfr.Event {
+    @Label("Status")
+    String status;
+
+    @Label("Customer")
+    int customer;
+
+    @Label("Simulated Time")
+    double time;
+
+    @Label("Queue Depth")
+    @Description("Number of pending events after the event was handled")
+    int queueDepth;
+}
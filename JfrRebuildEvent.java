@@ -0,0 +1,35 @@
+package cs2030.simulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JfrRebuildEvent is the Java Flight Recorder event committed each time
+ * Simulation rebuilds its priority queue of events in updateTime. Its
+ * duration is the time taken by the rebuild. It is
+ * disabled unless a recording enables it.
+ * JfrRebuildEvent contains String kind, int size and int updated.
+ */
+@Name("cs2030.simulator.Rebuild")
+@Label("Rebuild Event Queue")
+@Category("Simulation")
+@Description("A rebuild of the priority queue of events")
+@Enabled(false)
+@StackTrace(false)
+class JfrRebuildEvent extends jdk.jfr.Event {
+    @Label("Kind")
+    @Description("Method that rebuilt the queue")
+    String kind;
+
+    @Label("Size")
+    @Description("Number of events in the rebuilt queue")
+    int size;
+
+    @Label("Updated")
+    @Description("Number of ServeEvents rewritten")
+    int updated;
+}
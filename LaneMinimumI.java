@@ -0,0 +1,12 @@
+package cs2030.simulator;
+
+/**
+ * LaneMinimumI is an interface implemented by the pass of a LockstepEngine
+ * that finds the earliest departure of every lane on the Vector API. The
+ * implementation is compiled from the vector source directory and loaded
+ * by name, so the rest of the tree builds without the incubator module.
+ */
+interface LaneMinimumI {
+    void update(double[] busyUntil, int base, double[] earliest,
+                double[] earliestServer, int server, int lanes);
+}
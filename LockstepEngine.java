@@ -0,0 +1,346 @@
+package cs2030.simulator;
+
+import java.util.Arrays;
+
+/**
+ * LockstepEngine that runs many replications of a small shop side by side,
+ * one lane per replication, with the state of every lane kept in flat
+ * primitive arrays instead of objects. The 'LockstepEngine' class supports
+ * operators that includes: (i) Checking whether a scenario can run in
+ * lockstep. (ii) Running a group of replications. (iii) Retrieve the
+ * statistics of each replication.
+ * The scenario must have no SelfCheckOuts, rests, greedy customers or
+ * reneging, so each server is a FIFO queue and only the arrival and service
+ * streams of the RandomGenerator matter. Replication r uses the base seed
+ * plus 6r, as in ReplicationController, and its random streams, event order
+ * and sums are those of a Simulation with the same seed, so its statistics
+ * are identical to those of the Simulation, bit for bit. Ties in time
+ * between events of different customers, which have probability zero, are
+ * the only exception.
+ * Every step, each lane executes its next event: the earliest departure of
+ * its servers, found for all lanes in one pass per server over arrays
+ * indexed by lane, or the next arrival if it comes first. The per-server
+ * arrays are laid out server by server with the lanes contiguous, so the
+ * passes over the lanes are plain loops over primitive arrays.
+ * The pass for the earliest departure is a scalar loop by default. The
+ * Vector API version, LaneMinimum, is in the vector source directory, which
+ * needs the jdk.incubator.vector module and so is left out of the default
+ * build: it is compiled with javac --add-modules jdk.incubator.vector -d
+ * out *.java vector/*.java and used when the program runs with
+ * --add-modules jdk.incubator.vector, with the same results. It is loaded
+ * by name, so a build or run without the module uses the scalar loop and
+ * prints no incubator warning. The rest stays scalar: each lane
+ * executes a different event every step, so the random draws and the queue
+ * updates of a step touch an irregular subset of lanes, and the logarithm
+ * of the Vector API is not always equal to Math.log, bit for bit, which
+ * the exponential times must be to match Simulation.
+ * LockstepEngine contains int servers, int maxQueue, int customers, double
+ * arrivalRate, double serviceRate, int baseSeed, int lanes, the per-lane
+ * and per-server arrays of the state and the per-lane statistics.
+ */
+public class LockstepEngine {
+    static final LaneMinimumI LANE_MINIMUM = laneMinimum();
+    static final boolean VECTORISED = LANE_MINIMUM != null;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+    private static final double IDLE = Double.POSITIVE_INFINITY;
+    private final int servers;
+    private final int maxQueue;
+    private final int customers;
+    private final double arrivalRate;
+    private final double serviceRate;
+    private final int baseSeed;
+    private final int lanes;
+    private final double[] busyUntil;
+    private final int[] head;
+    private final int[] length;
+    private final double[] queue;
+    private final double[] nextArrival;
+    private final int[] arrived;
+    private final long[] arrivalState;
+    private final long[] serviceState;
+    private final double[] earliest;
+    private final double[] earliestServer;
+    private final boolean[] finished;
+    private final int[] served;
+    private final int[] left;
+    private final double[] totalWaitTime;
+
+    /**
+     * Constructs a LockstepEngine for the scenario, which must be able to
+     * run in lockstep.
+     * @param args the ten or eleven simulation parameters.
+     * @param lanes number of replications run side by side.
+     */
+    public LockstepEngine(String[] args, int lanes) {
+        if (!applies(args)) {
+            throw new IllegalArgumentException(
+                    "scenario cannot run in lockstep");
+        }
+        this.baseSeed = Integer.parseInt(args[0]);
+        this.servers = Integer.parseInt(args[1]);
+        this.maxQueue = Integer.parseInt(args[3]);
+        this.customers = Integer.parseInt(args[4]);
+        this.arrivalRate = Double.parseDouble(args[5]);
+        this.serviceRate = Double.parseDouble(args[6]);
+        this.lanes = lanes;
+        busyUntil = new double[servers * lanes];
+        head = new int[servers * lanes];
+        length = new int[servers * lanes];
+        queue = new double[servers * maxQueue * lanes];
+        nextArrival = new double[lanes];
+        arrived = new int[lanes];
+        arrivalState = new long[lanes];
+        serviceState = new long[lanes];
+        earliest = new double[lanes];
+        earliestServer = new double[lanes];
+        finished = new boolean[lanes];
+        served = new int[lanes];
+        left = new int[lanes];
+        totalWaitTime = new double[lanes];
+    }
+
+    /**
+     * Return the boolean of whether the scenario can run in lockstep: no
+     * SelfCheckOuts, no rests, no greedy customers and no reneging.
+     * @param args the ten or eleven simulation parameters.
+     * @return true if the scenario can run in lockstep, else false.
+     */
+    public static boolean applies(String[] args) {
+        return Integer.parseInt(args[1]) >= 1 && Integer.parseInt(args[2]) == 0
+                && Integer.parseInt(args[3]) >= 0
+                && Double.parseDouble(args[8]) == 0
+                && Double.parseDouble(args[9]) == 0
+                && (args.length <= 10 || Double.parseDouble(args[10]) == 0);
+    }
+
+    /**
+     * Return the Vector API pass for the earliest departure if the
+     * jdk.incubator.vector module is in the boot layer and LaneMinimum was
+     * compiled, else null, which selects the scalar loop.
+     * @return the pass, or null.
+     */
+    private static LaneMinimumI laneMinimum() {
+        if (!ModuleLayer.boot().findModule("jdk.incubator.vector")
+                .isPresent()) {
+            return null;
+        }
+        try {
+            return (LaneMinimumI) Class
+                    .forName("cs2030.simulator.LaneMinimum")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run the replications first to first + lanes - 1, one per lane, until
+     * every lane has no more events.
+     * @param first index of the replication of lane 0.
+     */
+    public void run(int first) {
+        reset(first);
+        int active = lanes;
+        while (active > 0) {
+            Arrays.fill(earliest, IDLE);
+            for (int j = 0; j < servers; j++) {
+                int base = j * lanes;
+                if (VECTORISED) {
+                    LANE_MINIMUM.update(busyUntil, base, earliest,
+                            earliestServer, j, lanes);
+                    continue;
+                }
+                for (int r = 0; r < lanes; r++) {
+                    double d = busyUntil[base + r];
+                    if (d < earliest[r]) {
+                        earliest[r] = d;
+                        earliestServer[r] = j;
+                    }
+                }
+            }
+            for (int r = 0; r < lanes; r++) {
+                if (finished[r]) {
+                    continue;
+                }
+                if (arrived[r] < customers && nextArrival[r] < earliest[r]) {
+                    arrive(r);
+                } else if (earliest[r] < IDLE) {
+                    depart(r, (int) earliestServer[r]);
+                } else {
+                    finished[r] = true;
+                    active--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Set every lane to an empty shop and seed its random streams.
+     * @param first index of the replication of lane 0.
+     */
+    private void reset(int first) {
+        Arrays.fill(busyUntil, IDLE);
+        Arrays.fill(head, 0);
+        Arrays.fill(length, 0);
+        Arrays.fill(nextArrival, 0);
+        Arrays.fill(arrived, 0);
+        Arrays.fill(finished, false);
+        Arrays.fill(served, 0);
+        Arrays.fill(left, 0);
+        Arrays.fill(totalWaitTime, 0);
+        for (int r = 0; r < lanes; r++) {
+            long seed = baseSeed + 6L * (first + r);
+            arrivalState[r] = (seed ^ MULTIPLIER) & MASK;
+            serviceState[r] = ((seed + 1) ^ MULTIPLIER) & MASK;
+        }
+    }
+
+    /**
+     * Execute the arrival of the next customer of the lane, who is served by
+     * the first idle server, else waits at the first server whose queue is
+     * not full, else leaves, and draw the arrival of the customer after it.
+     * @param r the lane.
+     */
+    private void arrive(int r) {
+        double time = nextArrival[r];
+        arrived[r]++;
+        if (arrived[r] < customers) {
+            nextArrival[r] = time
+                    + exponential(arrivalState, r, arrivalRate);
+        }
+        for (int j = 0; j < servers; j++) {
+            int k = j * lanes + r;
+            if (busyUntil[k] == IDLE) {
+                served[r]++;
+                busyUntil[k] = time + exponential(serviceState, r, serviceRate);
+                return;
+            }
+        }
+        for (int j = 0; j < servers; j++) {
+            int k = j * lanes + r;
+            if (length[k] < maxQueue) {
+                int slot = (head[k] + length[k]) % maxQueue;
+                queue[(j * maxQueue + slot) * lanes + r] = time;
+                length[k]++;
+                return;
+            }
+        }
+        left[r]++;
+    }
+
+    /**
+     * Execute the departure of the customer in service at the server of the
+     * lane, and serve the first customer in its queue, if any.
+     * @param r the lane.
+     * @param j the server.
+     */
+    private void depart(int r, int j) {
+        int k = j * lanes + r;
+        double time = busyUntil[k];
+        if (length[k] == 0) {
+            busyUntil[k] = IDLE;
+            return;
+        }
+        double arrival = queue[(j * maxQueue + head[k]) * lanes + r];
+        head[k] = (head[k] + 1) % maxQueue;
+        length[k]--;
+        served[r]++;
+        totalWaitTime[r] += time - arrival;
+        busyUntil[k] = time + exponential(serviceState, r, serviceRate);
+    }
+
+    /**
+     * Draw an exponential time from the stream of the lane, in the same way
+     * as RandomGenerator.
+     * @param states the states of the stream of every lane.
+     * @param r the lane.
+     * @param rate rate of the exponential distribution.
+     * @return the exponential time.
+     */
+    private static double exponential(long[] states, int r, double rate) {
+        return -Math.log(uniform(states, r)) / rate;
+    }
+
+    /**
+     * Draw the next double of the stream of the lane, in the same way as
+     * RandomStream.
+     * @param states the states of the stream of every lane.
+     * @param r the lane.
+     * @return the next double between 0 inclusive and 1 exclusive.
+     */
+    private static double uniform(long[] states, int r) {
+        long state = (states[r] * MULTIPLIER + ADDEND) & MASK;
+        long high = state >>> 22;
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        long low = state >>> 21;
+        states[r] = state;
+        return ((high << 27) + low) * 0x1.0p-53;
+    }
+
+    /**
+     * Retrieve the number of lanes.
+     * @return lanes.
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Return the number of customers served in the lane.
+     * @param r the lane.
+     * @return number of customers served.
+     */
+    public int getServed(int r) {
+        return served[r];
+    }
+
+    /**
+     * Return the number of customers who left in the lane.
+     * @param r the lane.
+     * @return number of customers who left.
+     */
+    public int getLeft(int r) {
+        return left[r];
+    }
+
+    /**
+     * Return the total waiting time of the customers served in the lane.
+     * @param r the lane.
+     * @return total waiting time.
+     */
+    public double getTotalWaitTime(int r) {
+        return totalWaitTime[r];
+    }
+
+    /**
+     * Return the average waiting time of the customers served in the lane.
+     * @param r the lane.
+     * @return average waiting time, or 0 if no customer was served.
+     */
+    public double averageWaitTime(int r) {
+        return served[r] == 0 ? 0 : totalWaitTime[r] / served[r];
+    }
+
+    /**
+     * Return the fraction of the customers of the lane who left.
+     * @param r the lane.
+     * @return leave rate, or 0 if there were no customers.
+     */
+    public double leaveRate(int r) {
+        int total = served[r] + left[r];
+        return total == 0 ? 0 : (double) left[r] / total;
+    }
+
+    /**
+     * Return the statistics of the lane in the format of
+     * Simulation.summary.
+     * @param r the lane.
+     * @return String representation of the statistics.
+     */
+    public String summary(int r) {
+        return String.format("[%.3f %d %d]", averageWaitTime(r), served[r],
+                left[r]);
+    }
+}
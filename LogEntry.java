@@ -0,0 +1,64 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LogEntry of an event executed optimistically by a LogicalProcess. It keeps
+ * the state of the simulation before the event, so that the event can be
+ * undone, and the messages the event sent, so that they can be cancelled.
+ * LogEntry contains Event key, SimulationState before, Event input and List
+ * sent.
+ */
+class LogEntry {
+    private final Event key;
+    private final SimulationState before;
+    private final Event input;
+    private final List<Customer> sent;
+
+    /**
+     * Constructs a LogEntry.
+     * @param key event used to order the entry against stragglers.
+     * @param before state of the simulation before the event.
+     * @param input the transferred arrival executed, or null if the event
+     *              was generated by the simulation itself.
+     */
+    LogEntry(Event key, SimulationState before, Event input) {
+        this.key = key;
+        this.before = before;
+        this.input = input;
+        this.sent = new ArrayList<>();
+    }
+
+    /**
+     * Retrieve the event used to order the entry.
+     * @return key.
+     */
+    Event getKey() {
+        return key;
+    }
+
+    /**
+     * Retrieve the state of the simulation before the event.
+     * @return before.
+     */
+    SimulationState getBefore() {
+        return before;
+    }
+
+    /**
+     * Retrieve the transferred arrival executed by this entry.
+     * @return input, or null if there is none.
+     */
+    Event getInput() {
+        return input;
+    }
+
+    /**
+     * Retrieve the customers sent to the next shop by this entry.
+     * @return sent.
+     */
+    List<Customer> getSent() {
+        return sent;
+    }
+}
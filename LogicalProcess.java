@@ -0,0 +1,231 @@
+package cs2030.simulator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * LogicalProcess runs one shop of a ShopNetwork optimistically for the
+ * TimeWarpEngine. The 'LogicalProcess' class supports operators that
+ * includes: (i) Receiving messages, rolling back when a message arrives in
+ * the past of the shop. (ii) Executing events ahead of the other shops. (iii)
+ * Retrieve the time of its next event. (iv) Discarding the log before the
+ * global virtual time.
+ * Every executed event is logged with the state of the simulation before it,
+ * which is cheap as the Shop is immutable and only the pending events are
+ * copied. Rolling back restores the earliest undone state, puts the undone
+ * transferred arrivals back, and sends anti-messages for the customers the
+ * undone events transferred.
+ * LogicalProcess contains Simulation shop, ShopNetwork network,
+ * LogicalProcess next, Queue mailbox, PriorityQueue pendingInputs, Deque log,
+ * LogEntry current, Event lastKey, Event lastCollectedKey, long rollbacks and
+ * long rolledBack.
+ */
+class LogicalProcess {
+    private final Simulation shop;
+    private final ShopNetwork network;
+    private LogicalProcess next;
+    private final Queue<TransferMessage> mailbox = new ConcurrentLinkedQueue<>();
+    private final PriorityQueue<Event> pendingInputs = new PriorityQueue<>();
+    private final Deque<LogEntry> log = new ArrayDeque<>();
+    private LogEntry current = null;
+    private Event lastKey = null;
+    private Event lastCollectedKey = null;
+    private long rollbacks = 0;
+    private long rolledBack = 0;
+
+    /**
+     * Constructs a LogicalProcess for a shop of the network, replacing the
+     * router of the shop so that transferred customers are logged.
+     * @param shop the simulation of the shop.
+     * @param network the network the shop belongs to.
+     */
+    LogicalProcess(Simulation shop, ShopNetwork network) {
+        this.shop = shop;
+        this.network = network;
+        shop.setRouter(this::send);
+    }
+
+    /**
+     * Set the LogicalProcess of the shop the customers are transferred to.
+     * @param next the LogicalProcess of the next shop.
+     */
+    void setNext(LogicalProcess next) {
+        this.next = next;
+    }
+
+    /**
+     * Send the customer to the next shop and log it with the current event.
+     * @param customer customer leaving the shop.
+     */
+    private void send(Customer customer) {
+        Customer arriving = network.transfer(customer);
+        current.getSent().add(arriving);
+        next.mailbox.add(new TransferMessage(arriving, false));
+    }
+
+    /**
+     * Return the boolean of whether there are messages not yet received.
+     * @return true if the mailbox is not empty, else false.
+     */
+    boolean hasMail() {
+        return !mailbox.isEmpty();
+    }
+
+    /**
+     * Receive every message in the mailbox. A positive message earlier than
+     * an executed event rolls the shop back before it is queued. An
+     * anti-message removes its positive message, rolling the shop back if
+     * the positive message was executed.
+     */
+    void receive() {
+        TransferMessage message = mailbox.poll();
+        while (message != null) {
+            Customer customer = message.getCustomer();
+            if (message.isAnti()) {
+                annihilate(customer);
+            } else {
+                Event arrival = new ArriveEvent(customer);
+                LogEntry undone = null;
+                while (!log.isEmpty()
+                        && log.peekLast().getKey().compareTo(arrival) > 0) {
+                    undone = undoLast();
+                }
+                restore(undone);
+                pendingInputs.add(arrival);
+            }
+            message = mailbox.poll();
+        }
+    }
+
+    /**
+     * Remove the arrival of the customer, undoing every event since the
+     * arrival if it was already executed.
+     * @param customer customer whose transfer is cancelled.
+     */
+    private void annihilate(Customer customer) {
+        int id = customer.getId();
+        if (!pendingInputs.removeIf(e -> e.getCustomer().getId() == id)) {
+            LogEntry undone = undoLast();
+            while (undone.getInput() == null
+                    || undone.getInput().getCustomer().getId() != id) {
+                undone = undoLast();
+            }
+            restore(undone);
+            pendingInputs.removeIf(e -> e.getCustomer().getId() == id);
+        }
+    }
+
+    /**
+     * Remove the last entry of the log, putting its transferred arrival
+     * back and cancelling the customers it sent. The state of the shop is
+     * not restored.
+     * @return the undone entry.
+     */
+    private LogEntry undoLast() {
+        LogEntry entry = log.pollLast();
+        if (entry.getInput() != null) {
+            pendingInputs.add(entry.getInput());
+        }
+        for (Customer customer : entry.getSent()) {
+            next.mailbox.add(new TransferMessage(customer, true));
+        }
+        rolledBack++;
+        return entry;
+    }
+
+    /**
+     * Restore the shop to the state before the earliest undone entry.
+     * @param undone the earliest undone entry, or null if nothing was undone.
+     */
+    private void restore(LogEntry undone) {
+        if (undone != null) {
+            shop.restore(undone.getBefore());
+            lastKey = log.isEmpty() ? lastCollectedKey : log.peekLast().getKey();
+            rollbacks++;
+        }
+    }
+
+    /**
+     * Execute the next event of the shop, which is either its own next event
+     * or the earliest transferred arrival. ServerRestEvents have no time of
+     * their own and follow the DoneEvent before them, so they are logged
+     * with the key of that event.
+     * @return true if an event was executed, else false.
+     */
+    private boolean executeOne() {
+        Event local = shop.peek();
+        Event input = pendingInputs.peek();
+        boolean isInput = input != null
+                && (local == null || input.compareTo(local) < 0);
+        if (!isInput && local == null) {
+            return false;
+        }
+        Event key = isInput ? input : local;
+        if (key.getStatus() == EventStatus.SERVERREST && lastKey != null) {
+            key = lastKey;
+        }
+        SimulationState before = shop.save();
+        if (isInput) {
+            pendingInputs.poll();
+            shop.transferIn(input.getCustomer());
+        }
+        current = new LogEntry(key, before, isInput ? input : null);
+        log.addLast(current);
+        shop.step();
+        lastKey = key;
+        return true;
+    }
+
+    /**
+     * Receive the messages and execute up to batch events.
+     * @param batch maximum number of events executed.
+     */
+    void runAhead(int batch) {
+        receive();
+        int executed = 0;
+        while (executed < batch && executeOne()) {
+            executed++;
+        }
+    }
+
+    /**
+     * Return the time of the next event of the shop, including the
+     * transferred arrivals, or positive infinity if there is none.
+     * @return time of the next event.
+     */
+    double nextEventTime() {
+        Event input = pendingInputs.peek();
+        double time = shop.nextEventTime();
+        return input == null ? time : Math.min(time, input.getStartTime());
+    }
+
+    /**
+     * Discard the entries of the log before the global virtual time, as no
+     * message can arrive before it any more.
+     * @param gvt global virtual time.
+     */
+    void fossilCollect(double gvt) {
+        while (!log.isEmpty() && log.peekFirst().getKey().getStartTime() < gvt) {
+            lastCollectedKey = log.pollFirst().getKey();
+        }
+    }
+
+    /**
+     * Retrieve the number of rollbacks.
+     * @return rollbacks.
+     */
+    long getRollbacks() {
+        return rollbacks;
+    }
+
+    /**
+     * Retrieve the number of events undone by rollbacks.
+     * @return rolledBack.
+     */
+    long getRolledBack() {
+        return rolledBack;
+    }
+}
@@ -0,0 +1,70 @@
+package cs2030.simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * LognormalDistribution implements DistributionI with the distribution of
+ * exp(mu + sigma * Z), where Z is a standard normal drawn with the
+ * Box-Muller transform from two uniform doubles. The
+ * 'LognormalDistribution' class supports operators that includes: (i)
+ * Drawing a sample. (ii) Retrieve the mean. (iii) Drawing a standard
+ * normal, which GammaDistribution also uses.
+ * LognormalDistribution contains double mu and double sigma.
+ */
+public class LognormalDistribution implements DistributionI {
+    private final double mu;
+    private final double sigma;
+
+    /**
+     * Constructs a LognormalDistribution from the mean and standard
+     * deviation of the logarithm of the samples.
+     * @param mu mean of the logarithm.
+     * @param sigma standard deviation of the logarithm, which is not
+     *     negative.
+     */
+    public LognormalDistribution(double mu, double sigma) {
+        if (!(sigma >= 0) || Double.isInfinite(mu) || Double.isNaN(mu)) {
+            throw new IllegalArgumentException(
+                    "mu must be finite and sigma not negative");
+        }
+        this.mu = mu;
+        this.sigma = sigma;
+    }
+
+    /**
+     * Draw a sample.
+     * @param uniform supplier of uniform doubles.
+     * @return the sample.
+     */
+    public double sample(DoubleSupplier uniform) {
+        return Math.exp(mu + sigma * standardNormal(uniform));
+    }
+
+    /**
+     * Draw a standard normal with the Box-Muller transform. Only one of the
+     * pair of normals is used, so no state is kept between draws.
+     * @param uniform supplier of uniform doubles.
+     * @return the standard normal.
+     */
+    static double standardNormal(DoubleSupplier uniform) {
+        double radius = Math.sqrt(-2 * Math.log(1 - uniform.getAsDouble()));
+        return radius * Math.cos(2 * Math.PI * uniform.getAsDouble());
+    }
+
+    /**
+     * Retrieve the mean of the distribution.
+     * @return exp(mu + sigma^2 / 2).
+     */
+    public double getMean() {
+        return Math.exp(mu + sigma * sigma / 2);
+    }
+
+    /**
+     * Return String representation of the distribution.
+     * @return the name and the parameters.
+     */
+    @Override
+    public String toString() {
+        return String.format("lognormal:%s,%s", mu, sigma);
+    }
+}
@@ -1,16 +1,283 @@
+import cs2030.simulator.CustomerType;
+import cs2030.simulator.DistributionParser;
+import cs2030.simulator.EventDigest;
+import cs2030.simulator.EventRing;
+import cs2030.simulator.GzipEventLog;
+import cs2030.simulator.OutcomeExporter;
+import cs2030.simulator.ProgressReporter;
+import cs2030.simulator.RateSchedule;
+import cs2030.simulator.ServerType;
+import cs2030.simulator.ShopSampler;
 import cs2030.simulator.Simulation;
+import cs2030.simulator.SteadyStateEstimator;
+import cs2030.simulator.TimeOfDayStat;
+import cs2030.simulator.TraceArrivals;
+import cs2030.simulator.WaitGradient;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * Pass in command line arguments into the Simulation.
  */
 public class Main {
+    private static final int RING_SIZE = 1 << 14;
+    private static final int CHUNK_ROWS = 1 << 20;
+    private static final int SAMPLE_BUFFER = 1 << 16;
+    private static final int LOG_BLOCK = 1 << 16;
+    private static final double STEADY_STATE_CONFIDENCE = 0.95;
+    private static final int STEADY_STATE_BATCHES = 20;
 
     /**
-     * Main method to take in command line arguments and update the default
-     * input array based on the number of command line arguments.
+     * Main method to take in command line arguments and run the simulation.
+     * If the system property "progress" is set to a number of milliseconds,
+     * the progress of the simulation is reported to stderr at that interval.
+     * If the system property "outcomes" is set to a file, one row per
+     * customer is written to it in the columnar layout of OutcomeTable.
+     * If the system property "samples" is set to a file, the state of the
+     * shop is sampled into it every "sampleInterval" of simulated time,
+     * which defaults to 1.
+     * If the system property "trace" is set to a file, the customers are
+     * replayed from it with TraceArrivals instead of being drawn, up to the
+     * number of customers.
+     * If the system property "interArrival" is set to the specification of a
+     * DistributionParser, the inter-arrival times are drawn from it. The
+     * service times are drawn from the most specific of the properties
+     * "service.customer.server", "service.customer", "service.server" and
+     * "service" that is set, where customer is normal or greedy and server is
+     * human or selfcheckout, and are exponential if none is set.
+     * If the system property "rateSchedule" is set to the specification of a
+     * RateSchedule, the arrivals follow its time-varying rate instead of the
+     * arrival rate and "interArrival", and the statistics of each of the
+     * "timeOfDayBins" bins of its period, which defaults to 24, are printed
+     * after the simulation.
+     * If the system property "log" is set to a file, the events are written
+     * into it as gzip instead of being printed, compressed at "logLevel",
+     * which defaults to 6, on "logThreads" threads, which defaults to the
+     * number of processors.
+     * If the system property "digest" is set to a number of events, the
+     * events are hashed into an EventDigest with a checkpoint at that
+     * interval instead of being printed, and the digest is printed after the
+     * statistics.
+     * If the system property "gradient" is set to true, the derivatives of
+     * the average waiting time with respect to the service rate and the
+     * resting rate are estimated along the run with a WaitGradient and
+     * printed last.
+     * If the system property "horizon" is set to a time, the simulation
+     * stops at that time instead of when every customer has left.
+     * If the system property "steadyState" is set to a precision, the
+     * simulation stops once the half-width of the 95% confidence interval
+     * of the steady-state average waiting time, estimated with a
+     * SteadyStateEstimator of 20 batches, is at most that precision times
+     * the mean, and the estimate is printed after the statistics. At most
+     * one of "horizon" and "steadyState" may be set.
      * @param args command line arguments.
+     * @throws IOException if the outcome, sample or log file cannot be written,
+     *     or the trace or the file of a distribution cannot be read.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        String[] params = normalise(args);
+        String interval = System.getProperty("progress");
+        long intervalMillis = interval == null ? 0 : parseInterval(interval);
+        String horizonTime = System.getProperty("horizon");
+        String steadyState = System.getProperty("steadyState");
+        if (horizonTime != null && steadyState != null) {
+            throw new IllegalArgumentException(
+                    "horizon and steadyState cannot both be set");
+        }
+        double horizon = horizonTime == null ? 0
+                : parsePositive("horizon", horizonTime);
+        SteadyStateEstimator estimator = steadyState == null ? null
+                : new SteadyStateEstimator(parsePositive("steadyState",
+                steadyState), STEADY_STATE_CONFIDENCE, STEADY_STATE_BATCHES);
+        String trace = System.getProperty("trace");
+        TraceArrivals arrivals = null;
+        Simulation s;
+        if (trace == null) {
+            s = new Simulation(params);
+        } else {
+            arrivals = new TraceArrivals(Paths.get(trace));
+            s = new Simulation(params, arrivals);
+        }
+        setDistributions(s);
+        if (Boolean.getBoolean("gradient")) {
+            s.setGradient(new WaitGradient(Integer.parseInt(params[1])
+                    + Integer.parseInt(params[2]), Double.parseDouble(params[6]),
+                    Double.parseDouble(params[7])));
+        }
+        String schedule = System.getProperty("rateSchedule");
+        TimeOfDayStat timeOfDay = null;
+        if (schedule != null) {
+            RateSchedule rateSchedule = RateSchedule.parse(schedule);
+            timeOfDay = new TimeOfDayStat(rateSchedule, Integer.parseInt(
+                    System.getProperty("timeOfDayBins", "24")));
+            s.setRateSchedule(rateSchedule);
+            s.setTimeOfDay(timeOfDay);
+        }
+        String outcomes = System.getProperty("outcomes");
+        EventRing ring = null;
+        if (outcomes != null) {
+            ring = new EventRing(RING_SIZE, true);
+            ring.subscribe(new OutcomeExporter(Paths.get(outcomes),
+                    CHUNK_ROWS));
+            s.setEventRing(ring);
+        }
+        String samples = System.getProperty("samples");
+        ShopSampler sampler = null;
+        if (samples != null) {
+            sampler = new ShopSampler(Paths.get(samples), Double.parseDouble(
+                    System.getProperty("sampleInterval", "1")), SAMPLE_BUFFER);
+            s.setSampler(sampler);
+        }
+        String log = System.getProperty("log");
+        GzipEventLog eventLog = null;
+        if (log != null) {
+            eventLog = new GzipEventLog(Paths.get(log), LOG_BLOCK,
+                    Integer.getInteger("logThreads",
+                    Runtime.getRuntime().availableProcessors()),
+                    Integer.getInteger("logLevel", 6));
+            s.setEventLog(eventLog);
+        }
+        String digestInterval = System.getProperty("digest");
+        EventDigest digest = null;
+        if (digestInterval != null) {
+            digest = new EventDigest(Long.parseLong(digestInterval));
+            s.setDigest(digest);
+        }
+        if (interval == null) {
+            run(s, digest, horizon, estimator);
+        } else {
+            ProgressReporter reporter = new ProgressReporter(s, intervalMillis,
+                    System.err);
+            try {
+                run(s, digest, horizon, estimator);
+            } finally {
+                reporter.close();
+            }
+        }
+        if (timeOfDay != null) {
+            System.out.println(timeOfDay);
+        }
+        if (s.getGradient() != null) {
+            System.out.println(s.getGradient());
+        }
+        if (eventLog != null) {
+            eventLog.close();
+        }
+        if (ring != null) {
+            ring.close();
+        }
+        if (sampler != null) {
+            sampler.close();
+        }
+        if (arrivals != null) {
+            arrivals.close();
+        }
+    }
+
+    /**
+     * Parse the interval of the progress reports.
+     * @param interval the value of the system property "progress".
+     * @return the interval in milliseconds.
+     * @throws IllegalArgumentException if the interval is not a positive
+     *     integer.
+     */
+    private static long parseInterval(String interval) {
+        long millis;
+        try {
+            millis = Long.parseLong(interval.trim());
+        } catch (NumberFormatException e) {
+            millis = 0;
+        }
+        if (millis <= 0) {
+            throw new IllegalArgumentException("progress must be a positive "
+                    + "number of milliseconds, not " + interval);
+        }
+        return millis;
+    }
+
+    /**
+     * Parse the value of a system property that must be a positive number.
+     * @param property name of the system property.
+     * @param value the value of the system property.
+     * @return the number.
+     * @throws IllegalArgumentException if the value is not a positive
+     *     number.
+     */
+    private static double parsePositive(String property, String value) {
+        double number;
+        try {
+            number = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            number = 0;
+        }
+        if (!(number > 0)) {
+            throw new IllegalArgumentException(property + " must be a "
+                    + "positive number, not " + value);
+        }
+        return number;
+    }
+
+    /**
+     * Run the simulation until the horizon, until the steady-state estimate
+     * is precise enough, or until every customer has left, printing its
+     * events, or only its statistics and the digest if there is one.
+     * @param s the simulation.
+     * @param digest the digest of the simulation, or null.
+     * @param horizon time at which the simulation stops, or 0 for none.
+     * @param estimator the steady-state estimator that decides when the
+     *     simulation stops, or null for none.
+     */
+    private static void run(Simulation s, EventDigest digest, double horizon,
+                            SteadyStateEstimator estimator) {
+        if (digest != null) {
+            s.setOutput(event -> { });
+        }
+        if (horizon > 0) {
+            s.runUntil(horizon);
+        } else if (estimator != null) {
+            s.runSteadyState(estimator);
+        } else {
+            s.run();
+        }
+        if (digest != null) {
+            System.out.println("digest " + digest);
+        }
+    }
+
+    /**
+     * Set the distributions of the simulation given by the system
+     * properties.
+     * @param s the simulation.
+     * @throws IOException if the file of a distribution cannot be read.
+     */
+    private static void setDistributions(Simulation s) throws IOException {
+        String interArrival = System.getProperty("interArrival");
+        if (interArrival != null) {
+            s.setInterArrivalDistribution(DistributionParser.parse(interArrival));
+        }
+        for (CustomerType customerType : CustomerType.values()) {
+            String customer = customerType.name().toLowerCase();
+            for (ServerType serverType : ServerType.values()) {
+                String server = serverType.name().toLowerCase();
+                String spec = System.getProperty("service." + customer + "."
+                        + server, System.getProperty("service." + customer,
+                        System.getProperty("service." + server,
+                        System.getProperty("service"))));
+                if (spec != null) {
+                    s.setServiceDistribution(customerType, serverType,
+                            DistributionParser.parse(spec));
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the default input array based on the number of command line
+     * arguments. Any other number of arguments runs the default input.
+     * @param args command line arguments.
+     * @return the ten or eleven simulation parameters.
+     */
+    static String[] normalise(String[] args) {
         String[] input = new String[] {"1", "1", "0", "1", "1", "1", "1", "0",
             "0", "0"};
         int len = args.length;
@@ -32,14 +299,14 @@ public class Main {
                 break;
 
             case 10:
+            case 11:
                 input = args;
                 break;
 
             default:
                 break;
         }
-        Simulation s = new Simulation(input);
-        s.run();
+        return input;
     }
 
     /**
@@ -0,0 +1,200 @@
+package cs2030.simulator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OutcomeExporter that writes one row per customer, in the columnar layout
+ * read by OutcomeTable, from the events of a Simulation. It subscribes to an
+ * EventRing, which must have backpressure so that no event is dropped, and
+ * the rows are written on the thread of the subscription. The 'OutcomeExporter'
+ * class supports operators that includes: (i) Recording the arrival, serve
+ * and end of each customer. (ii) Writing a chunk once it is full. (iii)
+ * Writing the last chunk and the header when the ring is closed.
+ * A row is written when the customer is done, leaves or reneges, so the rows
+ * are in the order the customers finish, and only the customers in the shop
+ * are kept in memory. A chunk is filled column by column in a direct buffer
+ * and written with one call.
+ * OutcomeExporter contains FileChannel channel, int chunkRows, ByteBuffer
+ * chunk, Map pending, int filled, long rows and int chunks.
+ */
+public class OutcomeExporter implements EventListenerI {
+    private final FileChannel channel;
+    private final int chunkRows;
+    private final ByteBuffer chunk;
+    private final Map<Integer, CustomerOutcome> pending = new HashMap<>();
+    private int filled = 0;
+    private long rows = 0;
+    private int chunks = 0;
+
+    /**
+     * Constructs an OutcomeExporter writing to the file, which is replaced.
+     * @param file the file to write.
+     * @param chunkRows number of rows of a chunk, rounded up to a multiple
+     *     of 8.
+     * @throws IOException if the file cannot be created.
+     */
+    public OutcomeExporter(Path file, int chunkRows) throws IOException {
+        this.chunkRows = (Math.max(1, chunkRows) + 7) / 8 * 8;
+        this.chunk = ByteBuffer.allocateDirect(
+                OutcomeTable.chunkBytes(this.chunkRows))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(OutcomeTable.HEADER);
+    }
+
+    /**
+     * Record the event of a customer, and write its row if the customer is
+     * done, leaves or reneges.
+     * @param record the event.
+     */
+    @Override
+    public void onEvent(EventRecord record) {
+        int id = record.getCustomer();
+        switch (record.getStatus()) {
+            case ARRIVE:
+                pending.put(id, new CustomerOutcome(record.getTime(),
+                        record.isGreedy()));
+                break;
+
+            case SERVE:
+                CustomerOutcome outcome = pending.get(id);
+                if (outcome != null) {
+                    outcome.serveStart = record.getTime();
+                    outcome.server = record.getServer();
+                    outcome.kind = record.isSelfCheckOut()
+                            ? OutcomeTable.KIND_SELF_CHECK_OUT
+                            : OutcomeTable.KIND_SERVER;
+                }
+                break;
+
+            case DONE:
+                append(id, pending.remove(id), record.getTime(),
+                        OutcomeTable.SERVED);
+                break;
+
+            case LEAVE:
+                append(id, pending.remove(id), Double.NaN, OutcomeTable.LEFT);
+                break;
+
+            case RENEGE:
+                append(id, pending.remove(id), Double.NaN,
+                        OutcomeTable.RENEGED);
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Add the row of the customer to the chunk, writing the chunk if it is
+     * full.
+     * @param id identifier of the customer.
+     * @param outcome what is known of the customer, or null if its arrival
+     *     was not seen.
+     * @param done time the customer was done.
+     * @param result whether the customer was served, left or reneged.
+     */
+    private void append(int id, CustomerOutcome outcome, double done,
+                        byte result) {
+        if (outcome == null) {
+            return;
+        }
+        putDouble(OutcomeTable.ARRIVAL, outcome.arrival);
+        putDouble(OutcomeTable.SERVE_START, outcome.serveStart);
+        putDouble(OutcomeTable.DONE, done);
+        putInt(OutcomeTable.CUSTOMER, id);
+        putInt(OutcomeTable.SERVER, outcome.server);
+        putByte(OutcomeTable.TYPE, (byte) (outcome.greedy ? 1 : 0));
+        putByte(OutcomeTable.KIND, outcome.kind);
+        putByte(OutcomeTable.OUTCOME, result);
+        filled++;
+        if (filled == chunkRows) {
+            flush();
+        }
+    }
+
+    /**
+     * Put the value into the double column of the current row.
+     * @param column the column.
+     * @param value the value.
+     */
+    private void putDouble(int column, double value) {
+        chunk.putDouble(OutcomeTable.columnOffset(chunkRows, column)
+                + 8 * filled, value);
+    }
+
+    /**
+     * Put the value into the int column of the current row.
+     * @param column the column.
+     * @param value the value.
+     */
+    private void putInt(int column, int value) {
+        chunk.putInt(OutcomeTable.columnOffset(chunkRows, column)
+                + 4 * filled, value);
+    }
+
+    /**
+     * Put the value into the byte column of the current row.
+     * @param column the column.
+     * @param value the value.
+     */
+    private void putByte(int column, byte value) {
+        chunk.put(OutcomeTable.columnOffset(chunkRows, column) + filled,
+                value);
+    }
+
+    /**
+     * Write the chunk to the file and start a new one.
+     */
+    private void flush() {
+        chunk.putInt(0, filled);
+        chunk.clear();
+        try {
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.clear();
+        rows += filled;
+        chunks++;
+        filled = 0;
+    }
+
+    /**
+     * Write the last chunk and the header, and close the file.
+     */
+    @Override
+    public void onClose() {
+        if (filled > 0) {
+            flush();
+        }
+        ByteBuffer header = ByteBuffer.allocate(OutcomeTable.HEADER)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(OutcomeTable.MAGIC);
+        header.putInt(OutcomeTable.VERSION);
+        header.putInt(chunkRows);
+        header.putLong(rows);
+        header.putInt(chunks);
+        header.clear();
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package cs2030.simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OutcomeTable is a memory-mapped view of the file written by an
+ * OutcomeExporter, with one row per customer. The 'OutcomeTable' class
+ * supports operators that includes: (i) Retrieve the number of rows and
+ * chunks. (ii) Mapping a chunk. (iii) Retrieve the number of rows of a
+ * mapped chunk. (iv) Retrieve a column of a mapped chunk as a primitive
+ * buffer.
+ * The file is a 64-byte header followed by chunks of the same size. A chunk
+ * holds up to chunkRows rows, stored column by column: its number of rows,
+ * padded to 8 bytes, then the double columns arrival, serve start and done,
+ * the int columns customer and server, and the byte columns type, kind and
+ * outcome. chunkRows is a multiple of 8, so every column is aligned, and the
+ * offset of a column of any chunk is known without reading the file. Chunks
+ * are mapped one at a time, so files larger than one mapping can be
+ * scanned. Times that do not apply are NaN and a missing server is -1. All
+ * values are little-endian.
+ * OutcomeTable contains FileChannel channel, int chunkRows, long rows and
+ * int chunks.
+ */
+public class OutcomeTable implements AutoCloseable {
+    static final long MAGIC = 0x4353323033304f54L;
+    static final int VERSION = 1;
+    static final int HEADER = 64;
+    static final byte KIND_NONE = 0;
+    static final byte KIND_SERVER = 1;
+    static final byte KIND_SELF_CHECK_OUT = 2;
+    static final byte SERVED = 0;
+    static final byte LEFT = 1;
+    static final byte RENEGED = 2;
+    public static final int ARRIVAL = 0;
+    public static final int SERVE_START = 1;
+    public static final int DONE = 2;
+    public static final int CUSTOMER = 3;
+    public static final int SERVER = 4;
+    public static final int TYPE = 5;
+    public static final int KIND = 6;
+    public static final int OUTCOME = 7;
+    private static final int[] WIDTHS = new int[] {8, 8, 8, 4, 4, 1, 1, 1};
+    private final FileChannel channel;
+    private final int chunkRows;
+    private final long rows;
+    private final int chunks;
+
+    /**
+     * Constructs an OutcomeTable over the file.
+     * @param file the file written by an OutcomeExporter.
+     * @throws IOException if the file cannot be read or is not an outcome
+     *     file.
+     */
+    public OutcomeTable(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            continue;
+        }
+        if (header.hasRemaining() || header.getLong(0) != MAGIC
+                || header.getInt(8) != VERSION) {
+            channel.close();
+            throw new IOException(file + " is not an outcome file");
+        }
+        chunkRows = header.getInt(12);
+        rows = header.getLong(16);
+        chunks = header.getInt(24);
+    }
+
+    /**
+     * Return the size in bytes of a chunk.
+     * @param chunkRows maximum number of rows of a chunk.
+     * @return size of a chunk.
+     */
+    static int chunkBytes(int chunkRows) {
+        return columnOffset(chunkRows, WIDTHS.length);
+    }
+
+    /**
+     * Return the offset of the column from the start of a chunk.
+     * @param chunkRows maximum number of rows of a chunk.
+     * @param column the column.
+     * @return offset of the column.
+     */
+    static int columnOffset(int chunkRows, int column) {
+        int offset = 8;
+        for (int i = 0; i < column; i++) {
+            offset += WIDTHS[i] * chunkRows;
+        }
+        return offset;
+    }
+
+    /**
+     * Retrieve the number of rows.
+     * @return rows.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Retrieve the number of chunks.
+     * @return chunks.
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Map the chunk. The mapping stays valid after the table is closed.
+     * @param chunk index of the chunk.
+     * @return little-endian mapping of the chunk.
+     * @throws IOException if the chunk cannot be mapped.
+     */
+    public ByteBuffer map(int chunk) throws IOException {
+        if (chunk < 0 || chunk >= chunks) {
+            throw new IndexOutOfBoundsException(chunk);
+        }
+        long start = HEADER + (long) chunk * chunkBytes(chunkRows);
+        return channel.map(FileChannel.MapMode.READ_ONLY, start,
+                chunkBytes(chunkRows)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Return the number of rows of a mapped chunk.
+     * @param chunk the mapped chunk.
+     * @return number of rows.
+     */
+    public int rows(ByteBuffer chunk) {
+        return chunk.getInt(0);
+    }
+
+    /**
+     * Return a double column of a mapped chunk: ARRIVAL, SERVE_START or
+     * DONE.
+     * @param chunk the mapped chunk.
+     * @param column the column.
+     * @return view of the column.
+     */
+    public DoubleBuffer doubles(ByteBuffer chunk, int column) {
+        return column(chunk, column).asDoubleBuffer();
+    }
+
+    /**
+     * Return an int column of a mapped chunk: CUSTOMER or SERVER.
+     * @param chunk the mapped chunk.
+     * @param column the column.
+     * @return view of the column.
+     */
+    public IntBuffer ints(ByteBuffer chunk, int column) {
+        return column(chunk, column).asIntBuffer();
+    }
+
+    /**
+     * Return a byte column of a mapped chunk: TYPE, KIND or OUTCOME.
+     * @param chunk the mapped chunk.
+     * @param column the column.
+     * @return view of the column.
+     */
+    public ByteBuffer bytes(ByteBuffer chunk, int column) {
+        return column(chunk, column);
+    }
+
+    /**
+     * Return the bytes of the column of a mapped chunk, limited to the rows
+     * of the chunk.
+     * @param chunk the mapped chunk.
+     * @param column the column.
+     * @return little-endian slice of the chunk.
+     */
+    private ByteBuffer column(ByteBuffer chunk, int column) {
+        return chunk.slice(columnOffset(chunkRows, column),
+                WIDTHS[column] * rows(chunk)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Close the file.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
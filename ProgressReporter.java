@@ -0,0 +1,110 @@
+package cs2030.simulator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ProgressReporter of a long Simulation, which samples the progress the
+ * simulation publishes from a thread of its own. Each report has the
+ * simulated clock, the events handled per second since the last report, the
+ * customers done out of the total, the pending events, the heap used and
+ * the estimated time left. Reports are printed to a stream, or written over
+ * a status file. Closing the reporter prints a final report and stops it.
+ * ProgressReporter contains SimulationProgress progress, int customers,
+ * Consumer sink, ScheduledExecutorService timer, long startNanos, long
+ * lastNanos and long lastHandled.
+ */
+public class ProgressReporter implements AutoCloseable {
+    private final SimulationProgress progress = new SimulationProgress();
+    private final int customers;
+    private final Consumer<String> sink;
+    private final ScheduledExecutorService timer;
+    private final long startNanos;
+    private long lastNanos;
+    private long lastHandled = 0;
+
+    /**
+     * Constructs a ProgressReporter printing to a stream, such as stderr.
+     * @param simulation the simulation to report on, before it runs.
+     * @param intervalMillis milliseconds between reports.
+     * @param out the stream the reports are printed to.
+     */
+    public ProgressReporter(Simulation simulation, long intervalMillis,
+                            PrintStream out) {
+        this(simulation, intervalMillis, (Consumer<String>) out::println);
+    }
+
+    /**
+     * Constructs a ProgressReporter writing over a status file.
+     * @param simulation the simulation to report on, before it runs.
+     * @param intervalMillis milliseconds between reports.
+     * @param statusFile the file holding the last report.
+     */
+    public ProgressReporter(Simulation simulation, long intervalMillis,
+                            Path statusFile) {
+        this(simulation, intervalMillis, (Consumer<String>) report -> {
+            try {
+                Files.writeString(statusFile, report + System.lineSeparator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Constructs a ProgressReporter and starts reporting.
+     * @param simulation the simulation to report on, before it runs.
+     * @param intervalMillis milliseconds between reports.
+     * @param sink where the reports are sent.
+     */
+    private ProgressReporter(Simulation simulation, long intervalMillis,
+                             Consumer<String> sink) {
+        this.customers = simulation.getNumCustomers();
+        this.sink = sink;
+        simulation.setProgress(progress);
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send a report of the progress to the sink.
+     */
+    private synchronized void report() {
+        long now = System.nanoTime();
+        long handled = progress.getHandled();
+        long done = progress.getDone();
+        double rate = (handled - lastHandled) * 1e9 / Math.max(1, now - lastNanos);
+        double elapsed = (now - startNanos) / 1e9;
+        double eta = done == 0 ? Double.NaN : elapsed * (customers - done) / done;
+        Runtime runtime = Runtime.getRuntime();
+        long heap = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        sink.accept(String.format("t=%.3f events/s=%.0f customers=%d/%d "
+                + "pending=%d heap=%dMB eta=%.0fs", progress.getClock(), rate,
+                done, customers, progress.getPending(), heap, eta));
+        lastNanos = now;
+        lastHandled = handled;
+    }
+
+    /**
+     * Stop reporting after a final report.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        report();
+    }
+}
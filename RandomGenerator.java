@@ -1,36 +1,90 @@
 package cs2030.simulator;
 
-import java.util.Random;
+import java.util.function.DoubleSupplier;
 
 public class RandomGenerator {
-    private final Random rngArrival;
-    private final Random rngService;
-    private final Random rngRest;
-    private final Random rngRestPeriod;
-    private final Random rngTimeoutPeriod;
-    private final Random rngCustomerType;
+    private final RandomStream rngArrival;
+    private final RandomStream rngService;
+    private final RandomStream rngRest;
+    private final RandomStream rngRestPeriod;
+    private final RandomStream rngTimeoutPeriod;
+    private final RandomStream rngCustomerType;
     private final double customerArrivalRate;
     private final double customerServiceRate;
     private final double serverRestingRate;
+    private final double customerTimeoutRate;
+    private boolean antithetic = false;
+    private DistributionI interArrivalDistribution = null;
+    private final DistributionI[] serviceDistributions = new DistributionI[4];
+    private RateSchedule rateSchedule = null;
+    private final DoubleSupplier arrivalUniform;
+    private final DoubleSupplier serviceUniform;
 
     RandomGenerator(int var1, double var2, double var4, double var6) {
-        this.rngArrival = new Random((long)var1);
-        this.rngService = new Random((long)(var1 + 1));
-        this.rngRest = new Random((long)(var1 + 2));
-        this.rngRestPeriod = new Random((long)(var1 + 3));
-        this.rngCustomerType = new Random((long)(var1 + 4));
-        this.rngTimeoutPeriod = new Random((long)(var1 + 5));
+        this(var1, var2, var4, var6, 0.0);
+    }
+
+    RandomGenerator(int var1, double var2, double var4, double var6, double var8) {
+        this.rngArrival = new RandomStream((long)var1);
+        this.rngService = new RandomStream((long)(var1 + 1));
+        this.rngRest = new RandomStream((long)(var1 + 2));
+        this.rngRestPeriod = new RandomStream((long)(var1 + 3));
+        this.rngCustomerType = new RandomStream((long)(var1 + 4));
+        this.rngTimeoutPeriod = new RandomStream((long)(var1 + 5));
         this.customerArrivalRate = var2;
         this.customerServiceRate = var4;
         this.serverRestingRate = var6;
+        this.customerTimeoutRate = var8;
+        this.arrivalUniform = () -> this.uniform(this.rngArrival);
+        this.serviceUniform = () -> this.uniform(this.rngService);
+    }
+
+    void setAntithetic(boolean var1) {
+        this.antithetic = var1;
+    }
+
+    private double uniform(RandomStream var1) {
+        double var2 = var1.nextDouble();
+        return this.antithetic ? 1.0 - var2 : var2;
+    }
+
+    void setInterArrivalDistribution(DistributionI var1) {
+        this.interArrivalDistribution = var1;
+    }
+
+    void setRateSchedule(RateSchedule var1) {
+        this.rateSchedule = var1;
+    }
+
+    void setServiceDistribution(CustomerType var1, ServerType var2, DistributionI var3) {
+        this.serviceDistributions[var1.ordinal() * 2 + var2.ordinal()] = var3;
     }
 
     double genInterArrivalTime() {
-        return -Math.log(this.rngArrival.nextDouble()) / this.customerArrivalRate;
+        if (this.interArrivalDistribution != null) {
+            return this.interArrivalDistribution.sample(this.arrivalUniform);
+        }
+        return -Math.log(this.uniform(this.rngArrival)) / this.customerArrivalRate;
+    }
+
+    double genInterArrivalTime(double var1) {
+        if (this.rateSchedule != null) {
+            return this.rateSchedule.next(var1, this.arrivalUniform) - var1;
+        }
+        return this.genInterArrivalTime();
     }
 
     double genServiceTime() {
-        return -Math.log(this.rngService.nextDouble()) / this.customerServiceRate;
+        return -Math.log(this.uniform(this.rngService)) / this.customerServiceRate;
+    }
+
+    boolean hasServiceDistribution(CustomerType var1, ServerType var2) {
+        return this.serviceDistributions[var1.ordinal() * 2 + var2.ordinal()] != null;
+    }
+
+    double genServiceTime(CustomerType var1, ServerType var2) {
+        DistributionI var3 = this.serviceDistributions[var1.ordinal() * 2 + var2.ordinal()];
+        return var3 == null ? this.genServiceTime() : var3.sample(this.serviceUniform);
     }
 
     double genRandomRest() {
@@ -41,7 +95,26 @@ public class RandomGenerator {
         return -Math.log(this.rngRestPeriod.nextDouble()) / this.serverRestingRate;
     }
 
+    double genTimeoutPeriod() {
+        return -Math.log(this.rngTimeoutPeriod.nextDouble()) / this.customerTimeoutRate;
+    }
+
     double genCustomerType() {
         return this.rngCustomerType.nextDouble();
     }
-}
\ No newline at end of file
+
+    long[] getState() {
+        return new long[] {this.rngArrival.getState(), this.rngService.getState(),
+            this.rngRest.getState(), this.rngRestPeriod.getState(),
+            this.rngCustomerType.getState(), this.rngTimeoutPeriod.getState()};
+    }
+
+    void setState(long[] var1) {
+        this.rngArrival.setState(var1[0]);
+        this.rngService.setState(var1[1]);
+        this.rngRest.setState(var1[2]);
+        this.rngRestPeriod.setState(var1[3]);
+        this.rngCustomerType.setState(var1[4]);
+        this.rngTimeoutPeriod.setState(var1[5]);
+    }
+}
@@ -0,0 +1,59 @@
+package cs2030.simulator;
+
+/**
+ * RandomStream of uniformly distributed doubles that produces exactly the
+ * same values as java.util.Random for the same seed, but whose state can be
+ * read and restored. The 'RandomStream' class supports operators that
+ * includes: (i) Retrieve the next double. (ii) Retrieve the state. (iii)
+ * Restore a state.
+ * RandomStream contains long state.
+ */
+class RandomStream {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+    private long state;
+
+    /**
+     * Constructs a RandomStream with the same scrambling of the seed as
+     * java.util.Random.
+     * @param seed seed of the stream.
+     */
+    RandomStream(long seed) {
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Advance the linear congruential generator and return its top bits.
+     * @param bits number of bits returned.
+     * @return the next bits of the stream.
+     */
+    private int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Retrieve the next double between 0 inclusive and 1 exclusive.
+     * @return the next double of the stream.
+     */
+    double nextDouble() {
+        return (((long) next(26) << 27) + next(27)) * 0x1.0p-53;
+    }
+
+    /**
+     * Retrieve the state of the stream.
+     * @return state.
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * Restore the stream to a state retrieved earlier.
+     * @param state state of the stream.
+     */
+    void setState(long state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,221 @@
+package cs2030.simulator;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * RateSchedule is an arrival rate that varies with the time of day, given
+ * at knots 0 = t0 < t1 < ... < tk and repeated with the period tk. It is
+ * either piecewise constant, where the rate of knot i holds until knot
+ * i + 1, or piecewise linear between the knots. The 'RateSchedule' class
+ * supports operators that includes: (i) Retrieve the rate at a time. (ii)
+ * Drawing the next arrival of the non-homogeneous Poisson process after a
+ * time. (iii) Retrieve the expected number of arrivals between two times of
+ * the period. (iv) Retrieve the period and the mean rate. (v) Parsing a
+ * schedule.
+ * Arrivals are drawn by thinning with a majorant per segment: within a
+ * segment, candidates are drawn at the largest rate of the segment and kept
+ * with probability rate / majorant. A constant segment keeps every
+ * candidate without drawing a coin, and a linear one keeps at least half of
+ * them, however peaky the schedule, whereas one majorant for the whole day
+ * would keep only mean / peak. A candidate past the end of its segment is
+ * discarded and drawing restarts at the end of the segment, which is exact
+ * as the candidates form a Poisson process.
+ * RateSchedule contains boolean linear, double[] times, double[] rates,
+ * double[] majorants and double period.
+ */
+public class RateSchedule {
+    private final boolean linear;
+    private final double[] times;
+    private final double[] rates;
+    private final double[] majorants;
+    private final double period;
+
+    /**
+     * Constructs a RateSchedule.
+     * @param linear true for a piecewise linear rate, false for a piecewise
+     *     constant one.
+     * @param times the knots, starting at 0 and increasing, the last of which
+     *     is the period.
+     * @param rates the rate at each knot, which are not negative and not all
+     *     0. The last rate is only used by a linear schedule.
+     */
+    public RateSchedule(boolean linear, double[] times, double[] rates) {
+        if (times.length < 2 || times.length != rates.length || times[0] != 0) {
+            throw new IllegalArgumentException(
+                    "a schedule needs one rate per knot and starts at 0");
+        }
+        double peak = 0;
+        for (int i = 0; i < times.length; i++) {
+            if (!(rates[i] >= 0) || Double.isInfinite(rates[i])
+                    || (i > 0 && !(times[i] > times[i - 1]))) {
+                throw new IllegalArgumentException(
+                        "knots must increase and rates must not be negative");
+            }
+            if (i < times.length - 1 || linear) {
+                peak = Math.max(peak, rates[i]);
+            }
+        }
+        if (peak == 0) {
+            throw new IllegalArgumentException("rates must not all be 0");
+        }
+        this.linear = linear;
+        this.times = times.clone();
+        this.rates = rates.clone();
+        this.period = times[times.length - 1];
+        this.majorants = new double[times.length - 1];
+        for (int i = 0; i < majorants.length; i++) {
+            majorants[i] = linear ? Math.max(rates[i], rates[i + 1]) : rates[i];
+        }
+    }
+
+    /**
+     * Return the rate at the time.
+     * @param time the time, which may be after the first period.
+     * @return the rate.
+     */
+    public double rate(double time) {
+        double t = time - Math.floor(time / period) * period;
+        return rate(segment(t), t);
+    }
+
+    /**
+     * Return the rate at the time of the period, in its segment.
+     * @param i the segment.
+     * @param t the time of the period.
+     * @return the rate.
+     */
+    private double rate(int i, double t) {
+        if (!linear) {
+            return rates[i];
+        }
+        double fraction = (t - times[i]) / (times[i + 1] - times[i]);
+        return rates[i] + (rates[i + 1] - rates[i]) * fraction;
+    }
+
+    /**
+     * Return the segment of the time of the period.
+     * @param t the time of the period, from 0 inclusive to the period
+     *     exclusive.
+     * @return the segment starting at or before t.
+     */
+    private int segment(double t) {
+        int i = Arrays.binarySearch(times, t);
+        i = i >= 0 ? i : -i - 2;
+        return Math.min(Math.max(i, 0), majorants.length - 1);
+    }
+
+    /**
+     * Draw the time of the next arrival after the time, by thinning with the
+     * majorant of each segment.
+     * @param now the time of the last arrival.
+     * @param uniform supplier of uniform doubles.
+     * @return the time of the next arrival.
+     */
+    public double next(double now, DoubleSupplier uniform) {
+        double base = Math.floor(now / period) * period;
+        double t = now - base;
+        int i = segment(t);
+        while (true) {
+            double end = times[i + 1];
+            double majorant = majorants[i];
+            if (majorant > 0) {
+                double candidate = t - Math.log(uniform.getAsDouble()) / majorant;
+                if (candidate < end) {
+                    t = candidate;
+                    if (rates[i] == majorant && (!linear || rates[i + 1] == majorant)
+                            || uniform.getAsDouble() * majorant < rate(i, t)) {
+                        return base + t;
+                    }
+                    continue;
+                }
+            }
+            t = end;
+            i++;
+            if (i == majorants.length) {
+                i = 0;
+                t = 0;
+                base += period;
+            }
+        }
+    }
+
+    /**
+     * Return the expected number of arrivals between two times of the
+     * period, the integral of the rate.
+     * @param from the start, from 0 to the period.
+     * @param to the end, from the start to the period.
+     * @return the expected number of arrivals.
+     */
+    public double integral(double from, double to) {
+        double total = 0;
+        for (int i = 0; i < majorants.length; i++) {
+            double a = Math.max(from, times[i]);
+            double b = Math.min(to, times[i + 1]);
+            if (b > a) {
+                total += (rate(i, a) + rate(i, b)) / 2 * (b - a);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Retrieve the period of the schedule.
+     * @return period.
+     */
+    public double getPeriod() {
+        return period;
+    }
+
+    /**
+     * Return the mean rate over the period.
+     * @return the expected number of arrivals per unit of time.
+     */
+    public double getMeanRate() {
+        return integral(0, period) / period;
+    }
+
+    /**
+     * Return the schedule of the specification: "constant:" or "linear:"
+     * followed by the knots as time:rate separated by commas, such as
+     * "linear:0:1,8:10,17:2,24:1", whose last time is the period.
+     * @param spec the specification.
+     * @return the schedule.
+     * @throws IllegalArgumentException if the specification is not valid.
+     */
+    public static RateSchedule parse(String spec) {
+        int colon = spec.indexOf(':');
+        String kind = colon < 0 ? "" : spec.substring(0, colon).trim();
+        if (!kind.equals("constant") && !kind.equals("linear")) {
+            throw new IllegalArgumentException(
+                    "schedule must start with constant: or linear:");
+        }
+        String[] knots = spec.substring(colon + 1).split(",");
+        double[] times = new double[knots.length];
+        double[] rates = new double[knots.length];
+        for (int i = 0; i < knots.length; i++) {
+            String[] knot = knots[i].split(":");
+            if (knot.length != 2) {
+                throw new IllegalArgumentException("knot must be time:rate, not "
+                        + knots[i]);
+            }
+            times[i] = Double.parseDouble(knot[0].trim());
+            rates[i] = Double.parseDouble(knot[1].trim());
+        }
+        return new RateSchedule(kind.equals("linear"), times, rates);
+    }
+
+    /**
+     * Return String representation of the schedule.
+     * @return the kind and the knots in the format of parse.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(linear ? "linear:" : "constant:");
+        for (int i = 0; i < times.length; i++) {
+            builder.append(i == 0 ? "" : ",").append(times[i]).append(':')
+                    .append(rates[i]);
+        }
+        return builder.toString();
+    }
+}
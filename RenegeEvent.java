@@ -0,0 +1,36 @@
+package cs2030.simulator;
+
+/**
+ * RenegeEvent where a waiting customer runs out of patience and leaves the
+ * queue of a serverI before being served. The 'RenegeEvent' class supports
+ * operators that includes: (i) Transition to IdleEvent.
+ * RenegeEvent contains EventStatus status.
+ */
+public class RenegeEvent extends Event {
+    private static final EventStatus status = EventStatus.RENEGE;
+
+    /**
+     * Constructs a RenegeEvent containing a customer, the serverI whose queue
+     * the customer leaves, the time the customer leaves, and a lambda
+     * expression to transition to the next IdleEvent.
+     * @param customer customer that leaves the queue.
+     * @param server serverI whose queue the customer leaves.
+     * @param time time the customer runs out of patience.
+     */
+    public RenegeEvent(Customer customer, ServerI server, double time) {
+        super(customer, time, server, shop -> {
+            ServerI s = shop.get(server).get().renege(customer);
+            return Pair.of(shop.replace(s), new IdleEvent(customer, s));
+        },
+        status);
+    }
+
+    /**
+     * Retrieve String representation of RenegeEvent.
+     * @return Customer that reneges.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s reneges", super.toString());
+    }
+}
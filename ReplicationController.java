@@ -0,0 +1,373 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ReplicationController runs independent replications of a Simulation in
+ * parallel batches until the confidence intervals of the average waiting
+ * time and of the leave rate are narrow enough, or until the budget of
+ * replications is used up. Replication r uses the base seed plus 6r, as the
+ * RandomGenerator uses six consecutive seeds. The results of a batch are
+ * added in replication order, so the estimates do not depend on the number
+ * of threads. An estimate is precise enough once the half-width of its
+ * confidence interval is at most the precision times its mean, or at most
+ * the absolute tolerance, so that a mean close to 0, such as the leave rate
+ * of a shop that rarely turns customers away, does not use up the budget.
+ * With variance reduction, replications run in antithetic pairs: both runs
+ * of a pair use the same seed, and the second draws its inter-arrival and
+ * service times from 1 - u instead of u, so the averages of a pair are one
+ * observation. The average waiting time and the leave rate of a pair are
+ * then corrected with control variates, which are the deviations of the
+ * mean service time and the mean inter-arrival time of the pair from their
+ * true means, 1 / serviceRate and 1 / arrivalRate. The variance reduction
+ * factor is the variance of the mean of the same number of independent
+ * replications, estimated from the runs one by one, over the variance of
+ * the controlled mean, which is how many times fewer customers are
+ * simulated for the same precision.
+ * Without variance reduction, a scenario that LockstepEngine applies to runs
+ * its replications in chunks of LANES replications, one LockstepEngine per
+ * chunk, with the same results as separate Simulations.
+ * ReplicationController contains String[] args, double precision, double
+ * tolerance, double confidence, int batchSize, int budget, int threads, boolean
+ * varianceReduction, boolean lockstep, int runs, RunningStat waits,
+ * RunningStat leaveRates, RunningStat runWaits, ControlVariateStat
+ * controlledWaits and ControlVariateStat controlledLeaveRates.
+ */
+public class ReplicationController {
+    static final int LANES = 64;
+    static final double DEFAULT_TOLERANCE = 1e-3;
+    private final String[] args;
+    private final double precision;
+    private final double tolerance;
+    private final double confidence;
+    private final int batchSize;
+    private final int budget;
+    private final int threads;
+    private final boolean varianceReduction;
+    private final boolean lockstep;
+    private int runs = 0;
+    private final RunningStat waits = new RunningStat();
+    private final RunningStat leaveRates = new RunningStat();
+    private final RunningStat runWaits = new RunningStat();
+    private final ControlVariateStat controlledWaits =
+            new ControlVariateStat(2);
+    private final ControlVariateStat controlledLeaveRates =
+            new ControlVariateStat(2);
+
+    /**
+     * Constructs a ReplicationController with an absolute tolerance of
+     * DEFAULT_TOLERANCE.
+     * @param args the ten simulation parameters.
+     * @param precision target half-width relative to the mean.
+     * @param confidence confidence level, such as 0.95.
+     * @param batchSize number of replications launched at a time, at least 2.
+     * @param budget maximum number of replications.
+     * @param threads number of worker threads.
+     */
+    public ReplicationController(String[] args, double precision,
+                                 double confidence, int batchSize, int budget,
+                                 int threads) {
+        this(args, precision, confidence, batchSize, budget, threads, false);
+    }
+
+    /**
+     * Constructs a ReplicationController, with or without variance
+     * reduction, with an absolute tolerance of DEFAULT_TOLERANCE.
+     * @param args the ten simulation parameters.
+     * @param precision target half-width relative to the mean.
+     * @param confidence confidence level, such as 0.95.
+     * @param batchSize number of replications launched at a time, at least 2.
+     * @param budget maximum number of replications.
+     * @param threads number of worker threads.
+     * @param varianceReduction whether to use antithetic pairs and control
+     *     variates.
+     */
+    public ReplicationController(String[] args, double precision,
+                                 double confidence, int batchSize, int budget,
+                                 int threads, boolean varianceReduction) {
+        this(args, precision, DEFAULT_TOLERANCE, confidence, batchSize, budget,
+                threads, varianceReduction);
+    }
+
+    /**
+     * Constructs a ReplicationController, with or without variance
+     * reduction. With variance reduction, the batch size is rounded up to an
+     * even number so that pairs are never split.
+     * @param args the ten simulation parameters.
+     * @param precision target half-width relative to the mean.
+     * @param tolerance target half-width that is precise enough whatever
+     *     the mean.
+     * @param confidence confidence level, such as 0.95.
+     * @param batchSize number of replications launched at a time, at least 2.
+     * @param budget maximum number of replications.
+     * @param threads number of worker threads.
+     * @param varianceReduction whether to use antithetic pairs and control
+     *     variates.
+     */
+    public ReplicationController(String[] args, double precision,
+                                 double tolerance, double confidence,
+                                 int batchSize, int budget, int threads,
+                                 boolean varianceReduction) {
+        this.varianceReduction = varianceReduction;
+        this.lockstep = !varianceReduction && LockstepEngine.applies(args);
+        if (varianceReduction) {
+            batchSize += batchSize % 2;
+        }
+        this.args = args;
+        this.precision = precision;
+        this.tolerance = tolerance;
+        this.confidence = confidence;
+        this.batchSize = batchSize;
+        this.budget = budget;
+        this.threads = threads;
+    }
+
+    /**
+     * Run batches of replications until both estimates are precise enough or
+     * the budget is used up.
+     * @return number of replications used.
+     */
+    public int run() {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int step = varianceReduction ? 2 : 1;
+            while (runs + step <= budget && !isPrecise()) {
+                int first = runs;
+                int last = first + Math.min(batchSize,
+                        (budget - first) / step * step);
+                if (lockstep) {
+                    addLockstep(pool, first, last);
+                    runs = last;
+                    continue;
+                }
+                List<Callable<Simulation>> batch = new ArrayList<>();
+                for (int r = first; r < last; r++) {
+                    int replication = r;
+                    batch.add(() -> replicate(replication));
+                }
+                List<Future<Simulation>> futures = pool.invokeAll(batch);
+                for (int i = 0; i < futures.size(); i += step) {
+                    if (varianceReduction) {
+                        addPair(futures.get(i).get(), futures.get(i + 1).get());
+                    } else {
+                        Simulation simulation = futures.get(i).get();
+                        waits.add(simulation.averageWaitTime());
+                        leaveRates.add(leaveRate(simulation));
+                    }
+                }
+                runs = last;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return runs;
+    }
+
+    /**
+     * Run the replications first to last - 1 in chunks of LANES lockstep
+     * replications, and add their averages in replication order.
+     * @param pool the worker threads.
+     * @param first index of the first replication.
+     * @param last index after the last replication.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws ExecutionException if a chunk failed.
+     */
+    private void addLockstep(ExecutorService pool, int first, int last)
+            throws InterruptedException, ExecutionException {
+        List<Callable<LockstepEngine>> chunks = new ArrayList<>();
+        for (int r = first; r < last; r += LANES) {
+            int start = r;
+            int lanes = Math.min(LANES, last - r);
+            chunks.add(() -> {
+                LockstepEngine engine = new LockstepEngine(args, lanes);
+                engine.run(start);
+                return engine;
+            });
+        }
+        for (Future<LockstepEngine> future : pool.invokeAll(chunks)) {
+            LockstepEngine engine = future.get();
+            for (int r = 0; r < engine.getLanes(); r++) {
+                waits.add(engine.averageWaitTime(r));
+                leaveRates.add(engine.leaveRate(r));
+            }
+        }
+    }
+
+    /**
+     * Add the averages of an antithetic pair of replications as one
+     * observation, with the control variates of the average waiting time
+     * and of the leave rate.
+     * @param first the replication drawing from u.
+     * @param second the replication drawing from 1 - u.
+     */
+    private void addPair(Simulation first, Simulation second) {
+        double wait = (first.averageWaitTime() + second.averageWaitTime()) / 2;
+        double service = (first.meanServiceTime()
+                + second.meanServiceTime()) / 2;
+        double interArrival = (first.meanInterArrivalTime()
+                + second.meanInterArrivalTime()) / 2;
+        double leaveRate = (leaveRate(first) + leaveRate(second)) / 2;
+        waits.add(wait);
+        leaveRates.add(leaveRate);
+        runWaits.add(first.averageWaitTime());
+        runWaits.add(second.averageWaitTime());
+        if (Double.isNaN(service) || Double.isNaN(interArrival)) {
+            service = 1 / Double.parseDouble(args[6]);
+            interArrival = 1 / Double.parseDouble(args[5]);
+        }
+        double serviceControl = service - 1 / Double.parseDouble(args[6]);
+        double interArrivalControl = interArrival
+                - 1 / Double.parseDouble(args[5]);
+        controlledWaits.add(wait, serviceControl, interArrivalControl);
+        controlledLeaveRates.add(leaveRate, serviceControl,
+                interArrivalControl);
+    }
+
+    /**
+     * Run one replication without printing its events. With variance
+     * reduction, replications 2k and 2k + 1 are an antithetic pair sharing
+     * the seed of k.
+     * @param replication index of the replication, starting from 0.
+     * @return the simulation after it has run.
+     */
+    private Simulation replicate(int replication) {
+        String[] replicationArgs = args.clone();
+        int seed = varianceReduction ? replication / 2 : replication;
+        replicationArgs[0] = String.valueOf(Integer.parseInt(args[0])
+                + 6 * seed);
+        Simulation simulation = new Simulation(replicationArgs);
+        simulation.setOutput(event -> { });
+        simulation.setAntithetic(varianceReduction && replication % 2 == 1);
+        simulation.simulate();
+        return simulation;
+    }
+
+    /**
+     * Return the fraction of the customers who left without being served.
+     * @param simulation the simulation after it has run.
+     * @return leave rate, or 0 if there were no customers.
+     */
+    static double leaveRate(Simulation simulation) {
+        int total = simulation.getServed() + simulation.getLeft();
+        return total == 0 ? 0 : (double) simulation.getLeft() / total;
+    }
+
+    /**
+     * Return the boolean of whether both estimates are precise enough.
+     * @return true if the half-widths of the average waiting time and of the
+     *     leave rate are each at most the precision times the mean or at
+     *     most the tolerance, else false.
+     */
+    public boolean isPrecise() {
+        if (varianceReduction) {
+            return isPrecise(controlledWaits.halfWidth(confidence),
+                    controlledWaits.getMean())
+                    && isPrecise(controlledLeaveRates.halfWidth(confidence),
+                    controlledLeaveRates.getMean());
+        }
+        return isPrecise(waits.halfWidth(confidence), waits.getMean())
+                && isPrecise(leaveRates.halfWidth(confidence),
+                leaveRates.getMean());
+    }
+
+    /**
+     * Return the boolean of whether an estimate is precise enough.
+     * @param halfWidth half-width of the confidence interval of the mean.
+     * @param mean the mean.
+     * @return true if the half-width is at most the precision times the
+     *     mean or at most the tolerance, else false.
+     */
+    private boolean isPrecise(double halfWidth, double mean) {
+        return halfWidth <= Math.max(precision * Math.abs(mean), tolerance);
+    }
+
+    /**
+     * Return the variance reduction factor of the average waiting time: the
+     * variance of the mean of as many independent replications as were run,
+     * over the variance of the controlled mean of the antithetic pairs.
+     * @return the factor, or NaN without variance reduction or before the
+     *     controls can be used.
+     */
+    public double varianceReductionFactor() {
+        double controlled = controlledWaits.getMeanVariance();
+        if (!varianceReduction || Double.isInfinite(controlled)) {
+            return Double.NaN;
+        }
+        return runWaits.getVariance() / runWaits.getCount() / controlled;
+    }
+
+    /**
+     * Retrieve the number of replications run.
+     * @return runs.
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Retrieve the statistics of the average waiting times of the
+     * replications, or of the antithetic pairs with variance reduction.
+     * @return waits.
+     */
+    public RunningStat getWaits() {
+        return waits;
+    }
+
+    /**
+     * Retrieve the controlled statistics of the average waiting times of the
+     * antithetic pairs.
+     * @return controlledWaits.
+     */
+    public ControlVariateStat getControlledWaits() {
+        return controlledWaits;
+    }
+
+    /**
+     * Retrieve the controlled statistics of the leave rates of the
+     * antithetic pairs.
+     * @return controlledLeaveRates.
+     */
+    public ControlVariateStat getControlledLeaveRates() {
+        return controlledLeaveRates;
+    }
+
+    /**
+     * Retrieve the statistics of the leave rates.
+     * @return leaveRates.
+     */
+    public RunningStat getLeaveRates() {
+        return leaveRates;
+    }
+
+    /**
+     * Return String representation of the estimates.
+     * @return the average waiting time, the leave rate, the number of
+     *     replications used and whether the target precision was reached,
+     *     followed by the variance reduction factor with variance reduction.
+     */
+    @Override
+    public String toString() {
+        if (varianceReduction) {
+            return String.format("[%.3f+-%.3f %.3f+-%.3f %d %b %.2f]",
+                    controlledWaits.getMean(),
+                    controlledWaits.halfWidth(confidence),
+                    controlledLeaveRates.getMean(),
+                    controlledLeaveRates.halfWidth(confidence), runs,
+                    isPrecise(), varianceReductionFactor());
+        }
+        return String.format("[%.3f+-%.3f %.3f+-%.3f %d %b]", waits.getMean(),
+                waits.halfWidth(confidence), leaveRates.getMean(),
+                leaveRates.halfWidth(confidence), runs, isPrecise());
+    }
+}
@@ -0,0 +1,331 @@
+package cs2030.simulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ResultCache of the statistics of simulations, stored in a memory-mapped
+ * file so that repeated scenarios are answered without simulating them
+ * again. The 'ResultCache' class supports operators that includes: (i)
+ * Retrieve the statistics of a scenario. (ii) Store the statistics of a
+ * scenario. (iii) Retrieve the statistics of a scenario, simulating it if it
+ * is not in the cache. (iv) Writing the cache to its file. (v) Closing the
+ * cache.
+ * A scenario is keyed by a 128-bit hash of its parameters, parsed and
+ * normalised the way Simulation parses them, and of the engine version,
+ * which is a hash of the class files of the simulator. The tests, the
+ * benchmarks, DigestCheck and the optional LaneMinimum, which gives the same
+ * results as the scalar loop it replaces, are left out of the hash, so
+ * editing or compiling them keeps the cache. The file is a
+ * set-associative table of fixed-size slots, and the least recently used
+ * slot of a set is evicted when the set is full. When the engine changes,
+ * the hash stored in the header no longer matches and every slot is
+ * cleared. A ResultCache may be shared by threads, but not by processes.
+ * The operating system writes the mapped file back in its own time, so a
+ * ResultCache is closed, or forced, to make sure every change is on disk.
+ * ResultCache contains MappedByteBuffer buffer, int sets, long tick and
+ * boolean closed.
+ */
+public class ResultCache implements AutoCloseable {
+    private static final long MAGIC = 0x4353323033305243L;
+    private static final int WAYS = 8;
+    private static final int HEADER = 64;
+    private static final int SLOT = 40;
+    private static final Set<String> NOT_ENGINE = Set.of("DigestCheck",
+            "EngineBenchmark", "LaneMinimum", "ScalingBenchmark",
+            "TestSupport");
+    private static final long ENGINE_VERSION = engineVersion();
+    private final MappedByteBuffer buffer;
+    private final int sets;
+    private long tick;
+    private boolean closed = false;
+
+    /**
+     * Constructs a ResultCache backed by the file, creating it if needed.
+     * The file is cleared if it was written by another engine version or
+     * with another capacity.
+     * @param file the file the cache is stored in.
+     * @param capacity maximum number of scenarios, rounded up to a
+     *                 multiple of 8.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ResultCache(Path file, int capacity) throws IOException {
+        this.sets = Math.max(1, (capacity + WAYS - 1) / WAYS);
+        long size = HEADER + (long) sets * WAYS * SLOT;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            boolean valid = raf.length() == size;
+            raf.setLength(size);
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    size);
+            valid = valid && buffer.getLong(0) == MAGIC
+                    && buffer.getLong(8) == ENGINE_VERSION
+                    && buffer.getInt(16) == sets;
+            if (!valid) {
+                for (int i = HEADER; i < size; i += 8) {
+                    buffer.putLong(i, 0);
+                }
+                buffer.putLong(0, MAGIC);
+                buffer.putLong(8, ENGINE_VERSION);
+                buffer.putInt(16, sets);
+                buffer.putLong(24, 0);
+            }
+            tick = buffer.getLong(24);
+        }
+    }
+
+    /**
+     * Retrieve the statistics of the scenario if they are in the cache.
+     * @param args the ten simulation parameters.
+     * @return the statistics as printed by Simulation, or empty if the
+     *     scenario is not in the cache.
+     */
+    public synchronized Optional<String> get(String[] args) {
+        checkOpen();
+        long[] key = key(args);
+        int slot = find(key);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+        buffer.putLong(slot + 16, ++tick);
+        buffer.putLong(24, tick);
+        return Optional.of(String.format("[%.3f %d %d]",
+                buffer.getDouble(slot + 24), buffer.getInt(slot + 32),
+                buffer.getInt(slot + 36)));
+    }
+
+    /**
+     * Store the statistics of a scenario, evicting the least recently used
+     * scenario of its set if the set is full.
+     * @param args the ten simulation parameters.
+     * @param simulation the simulation of the scenario after it has run.
+     */
+    public synchronized void put(String[] args, Simulation simulation) {
+        checkOpen();
+        long[] key = key(args);
+        int slot = find(key);
+        if (slot < 0) {
+            int first = HEADER + set(key) * WAYS * SLOT;
+            slot = first;
+            for (int way = first; way < first + WAYS * SLOT; way += SLOT) {
+                if (buffer.getLong(way + 16) < buffer.getLong(slot + 16)) {
+                    slot = way;
+                }
+            }
+        }
+        buffer.putLong(slot, key[0]);
+        buffer.putLong(slot + 8, key[1]);
+        buffer.putLong(slot + 16, ++tick);
+        buffer.putDouble(slot + 24, simulation.averageWaitTime());
+        buffer.putInt(slot + 32, simulation.getServed());
+        buffer.putInt(slot + 36, simulation.getLeft());
+        buffer.putLong(24, tick);
+    }
+
+    /**
+     * Retrieve the statistics of the scenario, simulating it without printing
+     * its events and storing the statistics if it is not in the cache.
+     * @param args the ten simulation parameters.
+     * @return the statistics as printed by Simulation.
+     */
+    public String run(String[] args) {
+        Optional<String> cached = get(args);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Simulation simulation = new Simulation(args);
+        String summary = simulation.runQuietly();
+        put(args, simulation);
+        return summary;
+    }
+
+    /**
+     * Write the changes of the cache to its file.
+     */
+    public synchronized void force() {
+        checkOpen();
+        buffer.force();
+    }
+
+    /**
+     * Write the changes of the cache to its file and close the cache. Closing
+     * a closed cache has no effect.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            buffer.force();
+            closed = true;
+        }
+    }
+
+    /**
+     * Check that the cache is not closed.
+     * @throws IllegalStateException if the cache is closed.
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("cache is closed");
+        }
+    }
+
+    /**
+     * Return the slot holding the key, or -1 if it is not in the cache.
+     * @param key hash of the scenario.
+     * @return offset of the slot in the file.
+     */
+    private int find(long[] key) {
+        int first = HEADER + set(key) * WAYS * SLOT;
+        for (int way = first; way < first + WAYS * SLOT; way += SLOT) {
+            if (buffer.getLong(way) == key[0]
+                    && buffer.getLong(way + 8) == key[1]) {
+                return way;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the set the key belongs to.
+     * @param key hash of the scenario.
+     * @return index of the set.
+     */
+    private int set(long[] key) {
+        return (int) Long.remainderUnsigned(key[1], sets);
+    }
+
+    /**
+     * Return the 128-bit hash of the normalised parameters and the engine
+     * version. The first half is never 0, which marks an empty slot.
+     * @param args the ten or eleven simulation parameters, where a missing
+     *     timeout rate is the same as 0.
+     * @return the two halves of the hash.
+     */
+    private static long[] key(String[] args) {
+        ByteBuffer normalised = ByteBuffer.allocate(8 + 5 * 4 + 6 * 8);
+        normalised.putLong(ENGINE_VERSION);
+        for (int i = 0; i < 5; i++) {
+            normalised.putInt(Integer.parseInt(args[i]));
+        }
+        for (int i = 5; i < 10; i++) {
+            normalised.putLong(Double.doubleToLongBits(
+                    Double.parseDouble(args[i]) + 0.0));
+        }
+        normalised.putLong(Double.doubleToLongBits(args.length > 10
+                ? Double.parseDouble(args[10]) + 0.0 : 0.0));
+        ByteBuffer hash = ByteBuffer.wrap(sha256().digest(normalised.array()));
+        return new long[] {hash.getLong() | 1, hash.getLong()};
+    }
+
+    /**
+     * Return the version of the engine, which is a hash of the class files of
+     * the simulator, so that any change to the engine clears the cache.
+     * @return the engine version.
+     */
+    private static long engineVersion() {
+        MessageDigest digest = sha256();
+        try {
+            for (byte[] bytes : classFiles()) {
+                digest.update(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * Return the contents of the class files of the engine, ordered by name,
+     * from the directory or jar file Simulation was loaded from.
+     * @return the contents of the class files.
+     * @throws IOException if the class files cannot be read.
+     */
+    private static List<byte[]> classFiles() throws IOException {
+        String prefix = "cs2030/simulator/";
+        CodeSource source = Simulation.class.getProtectionDomain()
+                .getCodeSource();
+        Path location;
+        try {
+            location = Paths.get(source.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        List<byte[]> contents = new ArrayList<>();
+        if (Files.isDirectory(location)) {
+            List<Path> files;
+            try (Stream<Path> paths = Files.list(location.resolve(prefix))) {
+                files = paths.filter(p -> isEngineClass(p.getFileName()
+                        .toString())).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                contents.add(Files.readAllBytes(file));
+            }
+        } else {
+            try (JarFile jar = new JarFile(location.toFile())) {
+                List<JarEntry> entries = new ArrayList<>();
+                Enumeration<JarEntry> all = jar.entries();
+                while (all.hasMoreElements()) {
+                    JarEntry entry = all.nextElement();
+                    if (entry.getName().startsWith(prefix)
+                            && isEngineClass(entry.getName()
+                            .substring(prefix.length()))) {
+                        entries.add(entry);
+                    }
+                }
+                entries.sort((a, b) -> a.getName().compareTo(b.getName()));
+                for (JarEntry entry : entries) {
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        contents.add(in.readAllBytes());
+                    }
+                }
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Return the boolean of whether the file is a class file of the engine,
+     * rather than of a test or a tool of the package.
+     * @param name name of the file within the package directory.
+     * @return true if the file is a class file of the engine, else false.
+     */
+    private static boolean isEngineClass(String name) {
+        if (!name.endsWith(".class") || name.contains("/")) {
+            return false;
+        }
+        String topLevel = name.substring(0, name.length() - 6).split("\\$")[0];
+        return !topLevel.endsWith("Test") && !NOT_ENGINE.contains(topLevel);
+    }
+
+    /**
+     * Return a SHA-256 digest, which every Java platform provides.
+     * @return the digest.
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
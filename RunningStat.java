@@ -0,0 +1,87 @@
+package cs2030.simulator;
+
+/**
+ * RunningStat of a series of observations, computed in one pass with
+ * Welford's method. The 'RunningStat' class supports operators that
+ * includes: (i) Adding an observation. (ii) Retrieve the number of
+ * observations. (iii) Retrieve the mean. (iv) Retrieve the sample variance.
+ * (v) Retrieve the half-width of the confidence interval of the mean, also
+ * relative to the mean.
+ * RunningStat contains int count, double mean and double squares.
+ */
+public class RunningStat {
+    private int count = 0;
+    private double mean = 0;
+    private double squares = 0;
+
+    /**
+     * Add an observation.
+     * @param x the observation.
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        squares += delta * (x - mean);
+    }
+
+    /**
+     * Retrieve the number of observations.
+     * @return count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieve the mean of the observations.
+     * @return mean, or 0 if there are no observations.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Retrieve the sample variance of the observations.
+     * @return sample variance, or 0 if there are fewer than 2 observations.
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : squares / (count - 1);
+    }
+
+    /**
+     * Return the half-width of the confidence interval of the mean.
+     * @param confidence confidence level, such as 0.95.
+     * @return half-width, or positive infinity if there are fewer than 2
+     *     observations.
+     */
+    public double halfWidth(double confidence) {
+        if (count < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return StudentT.halfWidth(getVariance(), count, confidence);
+    }
+
+    /**
+     * Return the half-width of the confidence interval relative to the mean.
+     * A mean of 0 with no spread counts as perfectly precise.
+     * @param confidence confidence level, such as 0.95.
+     * @return relative half-width.
+     */
+    public double relativeHalfWidth(double confidence) {
+        double halfWidth = halfWidth(confidence);
+        if (halfWidth == 0) {
+            return 0;
+        }
+        return halfWidth / Math.abs(mean);
+    }
+
+    /**
+     * Return String representation of the statistics.
+     * @return the mean and the half-width of its 95% confidence interval.
+     */
+    @Override
+    public String toString() {
+        return String.format("%.3f+-%.3f", mean, halfWidth(0.95));
+    }
+}
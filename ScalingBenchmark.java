@@ -0,0 +1,292 @@
+package cs2030.simulator;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ScalingBenchmark measures how the cost of a Simulation grows with its
+ * size. It sweeps the number of customers from 10^3 and the number of
+ * servers and self-checkouts and the maximum queue length from 1 by powers
+ * of ten, one at a time, and for each size prints the number of events, the
+ * median wall time, the time per event, the events per second, the peak
+ * heap and the bytes allocated per event. The growth exponent of each sweep
+ * is the slope of the least squares line through log(ns per event) against
+ * log(size): 0 when the cost of an event does not depend on the size, and 1
+ * when the whole run is quadratic in it. A sweep fails if its exponent is
+ * above its limit, or above the exponent saved in the baseline by more than
+ * TOLERANCE, and the benchmark exits with status 1 if any sweep fails.
+ * The default limits are met by the engine: on the default sweeps, with
+ * --max-customers 1000000, the exponents measured were -0.36 for the
+ * customers, as the JIT warms up over the short runs, and 0.01 for the
+ * self-checkouts, both limited to 0.25, and 0.69 for the servers and 0.81
+ * for the queue, limited to 0.8 and 0.9. The last two are the known cost
+ * of choosing a server and of rebuilding a full queue, which grow with the
+ * number of servers and the queue length, so their limits catch them
+ * growing further.
+ * The arrival rate is set to LOAD times the total service rate of the
+ * servers and self-checkouts, so every size is equally busy, except in the
+ * queue sweep, which is overloaded so that the queues fill up. The
+ * simulations run without printing their events, so the rendering of the
+ * events is not measured. The peak heap is the sum of the peaks of the heap
+ * pools, an upper bound, and the allocation is only measured on JVMs whose
+ * ThreadMXBean reports it.
+ * Usage: [--max-customers n] [--max-servers n] [--max-queue n]
+ * [--repetitions n] [--max-exponent e] [--baseline file] [--save file],
+ * where --max-exponent sets the limit of every sweep.
+ * The servers and self-checkouts are swept up to the same maximum. The
+ * defaults sweep up to 10^8 customers, 10^4 servers and self-checkouts and
+ * a queue of 10^3, with 3 repetitions. The heap used does not grow with the
+ * number of customers, but the runs of 10^8 customers take minutes each,
+ * so a quick check lowers --max-customers.
+ */
+public class ScalingBenchmark {
+    private static final double LOAD = 0.9;
+    private static final double OVERLOAD = 1.2;
+    private static final double TOLERANCE = 0.1;
+    private static final int FIXED_CUSTOMERS = 100_000;
+    private static final Map<String, Double> DEFAULT_LIMITS = Map.of(
+            "customers", 0.25, "servers", 0.8, "selfcheckouts", 0.25,
+            "queue", 0.9);
+
+    /**
+     * Run the sweeps.
+     * @param args command line arguments.
+     * @throws IOException if the baseline cannot be read or saved.
+     */
+    public static void main(String[] args) throws IOException {
+        long maxCustomers = 100_000_000;
+        long maxServers = 10_000;
+        long maxQueue = 1000;
+        int repetitions = 3;
+        double maxExponent = Double.NaN;
+        String baseline = null;
+        String save = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--max-customers":
+                    maxCustomers = Long.parseLong(args[i + 1]);
+                    break;
+
+                case "--max-servers":
+                    maxServers = Long.parseLong(args[i + 1]);
+                    break;
+
+                case "--max-queue":
+                    maxQueue = Long.parseLong(args[i + 1]);
+                    break;
+
+                case "--repetitions":
+                    repetitions = Integer.parseInt(args[i + 1]);
+                    break;
+
+                case "--max-exponent":
+                    maxExponent = Double.parseDouble(args[i + 1]);
+                    break;
+
+                case "--baseline":
+                    baseline = args[i + 1];
+                    break;
+
+                case "--save":
+                    save = args[i + 1];
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("unknown option "
+                            + args[i]);
+            }
+        }
+        Map<String, Double> limits = baseline == null ? new HashMap<>()
+                : load(baseline);
+        List<String> saved = new ArrayList<>();
+        boolean passed = true;
+        for (String sweep : new String[] {"customers", "servers",
+            "selfcheckouts", "queue"}) {
+            long max = sweep.equals("customers") ? maxCustomers
+                    : sweep.equals("queue") ? maxQueue : maxServers;
+            double exponent = sweep(sweep, max, repetitions);
+            double limit = Math.min(Double.isNaN(maxExponent)
+                    ? DEFAULT_LIMITS.get(sweep) : maxExponent,
+                    limits.getOrDefault(sweep, Double.POSITIVE_INFINITY)
+                    + TOLERANCE);
+            boolean pass = exponent <= limit;
+            passed &= pass;
+            System.out.println(String.format(
+                    "%s exponent %.3f limit %.3f %s", sweep, exponent, limit,
+                    pass ? "pass" : "FAIL"));
+            saved.add(String.format("%s %.6f", sweep, exponent));
+        }
+        if (save != null) {
+            Files.write(Paths.get(save), saved);
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run one sweep from 1 (or 1000 customers) up to the maximum by powers
+     * of ten, printing one line per size.
+     * @param sweep the parameter swept.
+     * @param max largest size.
+     * @param repetitions number of timed runs of each size.
+     * @return the growth exponent of the time per event.
+     */
+    private static double sweep(String sweep, long max, int repetitions) {
+        long first = sweep.equals("customers") ? 1000 : 1;
+        run(args(sweep, first), 1);
+        List<double[]> points = new ArrayList<>();
+        for (long size = first; size <= max; size *= 10) {
+            double[] result = run(args(sweep, size), repetitions);
+            points.add(new double[] {size, result[1] / result[0]});
+            System.out.println(String.format(
+                    "%s %d: %d events, %.1f ms, %.1f ns/event, %.0f events/s, "
+                    + "heap %.1f MB, alloc %.0f B/event", sweep, size,
+                    (long) result[0], result[1] / 1e6, result[1] / result[0],
+                    result[0] / result[1] * 1e9, result[2] / (1 << 20),
+                    result[3] / result[0]));
+        }
+        return slope(points);
+    }
+
+    /**
+     * Return the simulation parameters of the size of the sweep.
+     * @param sweep the parameter swept.
+     * @param size value of the parameter.
+     * @return the ten simulation parameters.
+     */
+    private static String[] args(String sweep, long size) {
+        long customers = sweep.equals("customers") ? size : FIXED_CUSTOMERS;
+        long servers = sweep.equals("servers") ? size
+                : sweep.equals("queue") ? 10 : 1;
+        long counters = sweep.equals("selfcheckouts") ? size : 0;
+        long queue = sweep.equals("queue") ? size : 10;
+        double arrivalRate = (sweep.equals("queue") ? OVERLOAD : LOAD)
+                * (servers + counters);
+        return new String[] {"1", String.valueOf(servers),
+            String.valueOf(counters), String.valueOf(queue),
+            String.valueOf(customers), String.valueOf(arrivalRate), "1.0",
+            "1.0", "0", "0"};
+    }
+
+    /**
+     * Run the simulation a number of times and measure the median run.
+     * @param args the simulation parameters.
+     * @param repetitions number of runs.
+     * @return the number of events, the median wall time in nanoseconds,
+     *     the peak heap in bytes and the bytes allocated by the median run,
+     *     or -1 if the JVM does not report allocation.
+     */
+    private static double[] run(String[] args, int repetitions) {
+        double[][] runs = new double[repetitions][];
+        for (int i = 0; i < repetitions; i++) {
+            System.gc();
+            resetPeaks();
+            long allocated = allocated();
+            long start = System.nanoTime();
+            Simulation simulation = new Simulation(args);
+            simulation.runQuietly();
+            long time = System.nanoTime() - start;
+            long bytes = allocated();
+            runs[i] = new double[] {simulation.getHandled(), time, peakHeap(),
+                bytes < 0 ? -1 : bytes - allocated};
+        }
+        Arrays.sort(runs, (a, b) -> Double.compare(a[1], b[1]));
+        return runs[repetitions / 2];
+    }
+
+    /**
+     * Return the slope of the least squares line through the logarithms of
+     * the points.
+     * @param points the size and the time per event of each point.
+     * @return the slope, or 0 if there are fewer than two points.
+     */
+    private static double slope(List<double[]> points) {
+        int n = points.size();
+        if (n < 2) {
+            return 0;
+        }
+        double sumX = 0;
+        double sumY = 0;
+        for (double[] point : points) {
+            sumX += Math.log(point[0]);
+            sumY += Math.log(point[1]);
+        }
+        double meanX = sumX / n;
+        double meanY = sumY / n;
+        double covariance = 0;
+        double variance = 0;
+        for (double[] point : points) {
+            double dx = Math.log(point[0]) - meanX;
+            covariance += dx * (Math.log(point[1]) - meanY);
+            variance += dx * dx;
+        }
+        return covariance / variance;
+    }
+
+    /**
+     * Reset the peak usage of the heap pools.
+     */
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Return the sum of the peak usage of the heap pools since they were
+     * reset.
+     * @return peak heap in bytes.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Return the number of bytes allocated by the current thread so far.
+     * @return bytes allocated, or -1 if the JVM does not report it.
+     */
+    private static long allocated() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Read the exponents of a baseline saved earlier, one sweep per line.
+     * @param file the baseline.
+     * @return the exponent of each sweep.
+     * @throws IOException if the baseline cannot be read.
+     */
+    private static Map<String, Double> load(String file) throws IOException {
+        Map<String, Double> exponents = new HashMap<>();
+        for (String line : Files.readAllLines(Paths.get(file))) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length == 2) {
+                exponents.put(fields[0], Double.parseDouble(fields[1]));
+            }
+        }
+        return exponents;
+    }
+}
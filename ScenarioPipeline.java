@@ -0,0 +1,152 @@
+import cs2030.simulator.ResultCache;
+import cs2030.simulator.Simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Pipeline that reads scenarios one per line, runs them in parallel and
+ * writes their statistics in the order of the scenarios. Each scenario is
+ * whitespace-separated arguments in any of the layouts Main accepts, and
+ * blank lines and lines starting with '#' are skipped. The reply is the
+ * statistics line Main would print last, or a line starting with "error" if
+ * the scenario is invalid. A scenario is invalid if its number of
+ * arguments is not one of the layouts of Main, so it is never replaced by
+ * the default scenario, or if an argument is not a number of the right
+ * kind. At most maxInFlight scenarios are pending at a time, so the reader
+ * waits for the writer and the memory used does not grow with the input.
+ * ScenarioPipeline contains ExecutorService workers, int maxInFlight and
+ * ResultCache cache.
+ */
+class ScenarioPipeline {
+    private static final Future<String> END =
+            CompletableFuture.completedFuture(null);
+    private final ExecutorService workers;
+    private final int maxInFlight;
+    private final ResultCache cache;
+
+    /**
+     * Constructs a ScenarioPipeline.
+     * @param workers the threads the scenarios run on.
+     * @param maxInFlight maximum number of scenarios pending at a time.
+     * @param cache the cache of results, or null to always simulate.
+     */
+    ScenarioPipeline(ExecutorService workers, int maxInFlight,
+                     ResultCache cache) {
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.cache = cache;
+    }
+
+    /**
+     * Read scenarios until the end of the input and write their replies in
+     * order, on a writer thread of its own.
+     * @param in the scenarios, one per line.
+     * @param out where the replies are written.
+     * @throws IOException if the scenarios cannot be read.
+     */
+    void run(BufferedReader in, PrintWriter out) throws IOException {
+        BlockingQueue<Future<String>> replies =
+                new ArrayBlockingQueue<>(maxInFlight);
+        Thread writer = new Thread(() -> {
+            try {
+                Future<String> reply = replies.take();
+                while (reply != END) {
+                    try {
+                        out.println(reply.get());
+                    } catch (ExecutionException e) {
+                        out.println("error " + e.getCause());
+                    }
+                    reply = replies.take();
+                }
+                out.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writer.start();
+        try {
+            String line = in.readLine();
+            while (line != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    String request = line;
+                    replies.put(workers.submit(() -> handle(request)));
+                }
+                line = in.readLine();
+            }
+            replies.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run one scenario without printing its events.
+     * @param request whitespace-separated arguments in a layout of Main.
+     * @return the statistics of the simulation, or an error message.
+     */
+    String handle(String request) {
+        String[] args;
+        try {
+            args = parse(request);
+        } catch (IllegalArgumentException e) {
+            return "error " + e.getMessage();
+        }
+        try {
+            if (cache != null) {
+                return cache.run(args);
+            }
+            return new Simulation(args).runQuietly();
+        } catch (RuntimeException e) {
+            return "error " + e;
+        }
+    }
+
+    /**
+     * Parse a scenario into the ten or eleven simulation parameters, checking
+     * that it has as many arguments as a layout of Main and that the first
+     * five parameters are integers and the others numbers.
+     * @param request whitespace-separated arguments in a layout of Main.
+     * @return the simulation parameters.
+     * @throws IllegalArgumentException if the scenario is invalid.
+     */
+    static String[] parse(String request) {
+        String[] tokens = request.trim().split("\\s+");
+        switch (tokens.length) {
+            case 5:
+            case 6:
+            case 8:
+            case 9:
+            case 10:
+            case 11:
+                break;
+
+            default:
+                throw new IllegalArgumentException("expected 5, 6, 8, 9, 10 "
+                        + "or 11 arguments but got " + tokens.length);
+        }
+        String[] args = Main.normalise(tokens);
+        for (int i = 0; i < args.length; i++) {
+            try {
+                if (i < 5) {
+                    Integer.parseInt(args[i]);
+                } else {
+                    Double.parseDouble(args[i]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException((i < 5 ? "not an integer: "
+                        : "not a number: ") + args[i]);
+            }
+        }
+        return args;
+    }
+}
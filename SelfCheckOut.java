@@ -12,23 +12,28 @@ import java.util.List;
  * whether the queue is full. (v) Retrieve Boolean of the SelfCheckOut is
  * available. (vi) Retrieve the next available time of the SelfCheckOut.
  * (vii) Updates the SelfCheckOut to the next available time after
- * serving the customer. (viii) Enqueue a customer into the queue.
+ * serving the customer. (viii) Enqueue a customer into the queue. (ix)
+ * Remove a customer who reneges from the queue.
  * SelfCheckOut contains LinkedList sharedQueue, int id, boolean isAvailable,
  * int maxQueueSize, double nextAvailableTime.
  */
 public class SelfCheckOut implements ServerI {
-    private static final LinkedList<Customer> sharedQueue = new LinkedList<>();
+    private final LinkedList<Customer> sharedQueue;
     private final int id;
     private final boolean isAvailable;
     private final int maxQueueSize;
     private final double nextAvailableTime;
 
     /**
-     * Constructs SelfCheckout containing int identifier and int maxQueueSize.
+     * Constructs SelfCheckout containing int identifier, int maxQueueSize and
+     * the queue shared with the other SelfCheckOuts of the same shop.
      * @param id SelfCheckout's identifier
      * @param maxQueueSize Maximum size of the queue.
+     * @param sharedQueue queue shared by the SelfCheckOuts of one shop.
      */
-    public SelfCheckOut(int id, int maxQueueSize) {
+    public SelfCheckOut(int id, int maxQueueSize,
+                        LinkedList<Customer> sharedQueue) {
+        this.sharedQueue = sharedQueue;
         this.id = id;
         this.isAvailable = true;
         this.maxQueueSize = maxQueueSize;
@@ -41,9 +46,12 @@ public class SelfCheckOut implements ServerI {
      * @param isAvailable Whether the SelfCheckOut is available.
      * @param maxQueueSize Maximum queue size of the SelfCheckOut.
      * @param nextAvailableTime SelfCheckOut's next available time.
+     * @param sharedQueue queue shared by the SelfCheckOuts of one shop.
      */
     private SelfCheckOut(int id, boolean isAvailable, int maxQueueSize,
-                        double nextAvailableTime) {
+                        double nextAvailableTime,
+                        LinkedList<Customer> sharedQueue) {
+        this.sharedQueue = sharedQueue;
         this.id = id;
         this.isAvailable = isAvailable;
         this.maxQueueSize = maxQueueSize;
@@ -103,7 +111,8 @@ public class SelfCheckOut implements ServerI {
         } else {
             avail = false;
         }
-        return new SelfCheckOut(id, avail, maxQueueSize, nextAvailableTime);
+        return new SelfCheckOut(id, avail, maxQueueSize, nextAvailableTime,
+                sharedQueue);
     }
 
     /**
@@ -119,7 +128,7 @@ public class SelfCheckOut implements ServerI {
                 nextAvailableTime);
         sharedQueue.poll();
         return new SelfCheckOut(id, false, maxQueueSize,
-                startTime + servingTime);
+                startTime + servingTime, sharedQueue);
     }
 
     /**
@@ -133,6 +142,18 @@ public class SelfCheckOut implements ServerI {
         return this;
     }
 
+    /**
+     * Remove the customer who reneges from the sharedQueue of the
+     * SelfCheckout's counter.
+     * @param customer customer that leaves the sharedQueue.
+     * @return the SelfCheckOut with the updated queue.
+     */
+    @Override
+    public SelfCheckOut renege(Customer customer) {
+        sharedQueue.removeIf(x -> x.getId() == customer.getId());
+        return this;
+    }
+
     /**
      * Should not be used. If used, print the error.
      * @return error message.
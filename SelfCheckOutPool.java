@@ -0,0 +1,166 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * SelfCheckOutPool holds the SelfCheckOuts of a shop as one resource with
+ * many counters: the queue they share, the latest state of each counter and
+ * a min-heap of the identifiers of the available counters. The
+ * 'SelfCheckOutPool' class supports operators that includes: (i) Retrieve
+ * the number of counters. (ii) Retrieve a counter by its identifier. (iii)
+ * Retrieve the available counter with the smallest identifier. (iv)
+ * Retrieve the counter that ranks first among the counters. (v) Retrieve
+ * the boolean of whether the shared queue is full. (vi) Updates a counter.
+ * (vii) Retrieve the shared queue and the counters. (viii) Restore the
+ * counters and the shared queue.
+ * Unlike the Servers of a Shop, which are replaced by copies, the pool is
+ * updated in place and shared by every version of the Shop, as the shared
+ * queue already was, so finding, taking or releasing a counter costs
+ * O(log c) instead of a scan or a copy of the c counters. A counter in the
+ * heap is checked when it reaches the top and dropped if it has been taken
+ * since, so each counter is in the heap at most once.
+ * SelfCheckOutPool contains int firstId, int maxQueueSize, LinkedList
+ * sharedQueue, SelfCheckOut[] counters, PriorityQueue available and
+ * boolean[] inHeap.
+ */
+public class SelfCheckOutPool {
+    private final int firstId;
+    private final int maxQueueSize;
+    private final LinkedList<Customer> sharedQueue = new LinkedList<>();
+    private final SelfCheckOut[] counters;
+    private final PriorityQueue<Integer> available = new PriorityQueue<>();
+    private final boolean[] inHeap;
+
+    /**
+     * Constructs a SelfCheckOutPool of available counters numbered from
+     * firstId onwards, sharing one queue.
+     * @param firstId identifier of the first counter.
+     * @param numCounters number of counters.
+     * @param maxQueueSize maximum size of the shared queue.
+     */
+    public SelfCheckOutPool(int firstId, int numCounters, int maxQueueSize) {
+        this.firstId = firstId;
+        this.maxQueueSize = maxQueueSize;
+        this.counters = new SelfCheckOut[numCounters];
+        this.inHeap = new boolean[numCounters];
+        for (int i = 0; i < numCounters; i++) {
+            counters[i] = new SelfCheckOut(firstId + i, maxQueueSize,
+                    sharedQueue);
+            available.add(firstId + i);
+            inHeap[i] = true;
+        }
+    }
+
+    /**
+     * Retrieve the number of counters.
+     * @return number of counters.
+     */
+    public int size() {
+        return counters.length;
+    }
+
+    /**
+     * Retrieve the latest state of the counter.
+     * @param id identifier of the counter.
+     * @return the counter.
+     */
+    public SelfCheckOut get(int id) {
+        return counters[id - firstId];
+    }
+
+    /**
+     * Return the available counter with the smallest identifier, which is
+     * the one a customer takes among the counters.
+     * @return the counter, or empty if every counter is taken.
+     */
+    public Optional<ServerI> firstAvailable() {
+        while (!available.isEmpty()) {
+            int id = available.peek();
+            if (get(id).isAvailable()) {
+                return Optional.of(get(id));
+            }
+            available.poll();
+            inHeap[id - firstId] = false;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Return the counter that compares smallest among the counters: the
+     * available counter with the smallest identifier, else the first
+     * counter, as the counters share one queue.
+     * @return the counter, or empty if there are no counters.
+     */
+    public Optional<ServerI> first() {
+        if (counters.length == 0) {
+            return Optional.empty();
+        }
+        Optional<ServerI> counter = firstAvailable();
+        if (counter.isPresent()) {
+            return counter;
+        }
+        return Optional.of(counters[0]);
+    }
+
+    /**
+     * Retrieve the boolean of whether the shared queue is full.
+     * @return true if the shared queue is full, else false.
+     */
+    public boolean fullQueue() {
+        return sharedQueue.size() >= maxQueueSize;
+    }
+
+    /**
+     * Replace the state of a counter with its updated state, and add it to
+     * the heap if it has become available.
+     * @param counter the updated counter.
+     */
+    public void update(SelfCheckOut counter) {
+        int index = counter.getId() - firstId;
+        counters[index] = counter;
+        if (counter.isAvailable() && !inHeap[index]) {
+            available.add(counter.getId());
+            inHeap[index] = true;
+        }
+    }
+
+    /**
+     * Retrieve the queue shared by the counters.
+     * @return sharedQueue.
+     */
+    public LinkedList<Customer> getQueue() {
+        return sharedQueue;
+    }
+
+    /**
+     * Return the latest states of the counters, in order of identifier.
+     * @return a copy of the counters.
+     */
+    public List<SelfCheckOut> getCounters() {
+        return new ArrayList<>(Arrays.asList(counters));
+    }
+
+    /**
+     * Restore the counters and the shared queue to states returned earlier
+     * by getCounters and getQueue.
+     * @param states the states of the counters, in order of identifier.
+     * @param queue the customers waiting, in order.
+     */
+    void restore(List<SelfCheckOut> states, List<Customer> queue) {
+        sharedQueue.clear();
+        sharedQueue.addAll(queue);
+        available.clear();
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = states.get(i);
+            inHeap[i] = counters[i].isAvailable();
+            if (inHeap[i]) {
+                available.add(firstId + i);
+            }
+        }
+    }
+}
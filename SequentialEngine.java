@@ -0,0 +1,34 @@
+package cs2030.simulator;
+
+/**
+ * SequentialEngine runs a ShopNetwork on the calling thread, always executing
+ * the earliest event of the whole network next. It is the reference the
+ * parallel engines are checked against.
+ */
+public class SequentialEngine implements EngineI {
+
+    /**
+     * Run the network until every shop is done. The next event is taken
+     * from the shop with the earliest event, and the shop with the smaller
+     * index if there is a tie.
+     * @param network the network to run.
+     */
+    public void run(ShopNetwork network) {
+        while (true) {
+            network.deliverAll();
+            int earliest = -1;
+            double time = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < network.size(); k++) {
+                double next = network.getShop(k).nextEventTime();
+                if (next < time) {
+                    time = next;
+                    earliest = k;
+                }
+            }
+            if (earliest < 0) {
+                return;
+            }
+            network.getShop(earliest).step();
+        }
+    }
+}
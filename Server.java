@@ -14,7 +14,8 @@ import java.util.List;
  * . (ix) Allow the server to go for a rest. (x) Updates the server next
  * available time with the resting period when going for rest. (xi) Updates
  * the Server to come back from rest and either serve the next customer in
- * queue or transition to an idle state.
+ * queue or transition to an idle state. (xii) Remove a customer who reneges
+ * from the queue.
  * Server contains int identifier, boolean isAvailable, LinkedList of
  * Customer called queue, int maxQueueSize, double nextAvailableTime.
  */
@@ -155,6 +156,18 @@ public class Server implements ServerI {
                 nextAvailableTime);
     }
 
+    /**
+     * Remove the customer who reneges from the queue for the server.
+     * @param customer customer that leaves the queue.
+     * @return Updated server without the customer in its queue.
+     */
+    public Server renege(Customer customer) {
+        LinkedList<Customer> temp = new LinkedList<Customer>(queue);
+        temp.removeIf(x -> x.getId() == customer.getId());
+        return new Server(id, isAvailable, temp, maxQueueSize,
+                nextAvailableTime);
+    }
+
     /**
      * Return the updated Server where if there is no customer in the queue,
      * its isAvailable = true, else false.
@@ -10,6 +10,8 @@ public interface ServerI extends Comparable<ServerI> {
 
     ServerI wait(Customer customer);
 
+    ServerI renege(Customer customer);
+
     ServerI done();
 
     ServerI rest(double restTime);
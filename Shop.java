@@ -16,11 +16,18 @@ import java.util.stream.Stream;
  * shop has an available serverI. (iv) Check whether there is a serverI who
  * does not have a full queue in the shop. (v) Get the serverI with the
  * shortest queue from the shop. (vi) Updates the shop with the latest
- * serverI. (vii) Retrieve the list of serverIs.
- * Shop contains List serverList.
+ * serverI. (vii) Retrieve the list of serverIs. (viii) Retrieve the pool of
+ * SelfCheckOuts.
+ * The SelfCheckOuts are kept in a SelfCheckOutPool rather than in the list
+ * of Servers. The pool is updated in place and shared by every version of
+ * the shop, so the lookups and updates of a SelfCheckOut do not depend on
+ * the number of SelfCheckOuts, and the Servers are still searched before
+ * the SelfCheckOuts, in order of identifier.
+ * Shop contains List serverList and SelfCheckOutPool pool.
  */
 public class Shop {
     private final List<ServerI> serverList;
+    private final SelfCheckOutPool pool;
 
     /**
      * Constructs a shop with all Servers with the number, specified by the
@@ -32,6 +39,7 @@ public class Shop {
                 .iterate(1, i -> i <= numServers, i -> i + 1)
                 .map(index -> new Server(index, true, false, 0))
                 .collect(Collectors.toList());
+        pool = new SelfCheckOutPool(numServers + 1, 0, 0);
     }
 
     /**
@@ -42,33 +50,40 @@ public class Shop {
      * @param maxQ Maximum queue size.
      */
     public Shop(int numServers, int numSelfCheckout, int maxQ) {
-        int total = numServers + numSelfCheckout;
-        List<ServerI> lst1 = Stream
+        serverList = Stream
                 .iterate(1, i -> i <= numServers, i -> i + 1)
                 .map(id -> new Server(id, maxQ))
                 .collect(Collectors.toList());
-        List<ServerI> lst2 = Stream
-                .iterate(numServers + 1, i -> i <= total, i -> i + 1)
-                .map(id -> new SelfCheckOut(id, maxQ))
-                .collect(Collectors.toList());
-        lst1.addAll(lst2);
-        serverList = lst1;
+        pool = new SelfCheckOutPool(numServers + 1, numSelfCheckout, maxQ);
     }
 
     /**
      * Private constructor to update the shop.
      * @param interServers Updated list of servers in the shop.
+     * @param pool the pool of SelfCheckOuts of the shop.
      */
-    public Shop(List<ServerI> interServers) {
+    private Shop(List<ServerI> interServers, SelfCheckOutPool pool) {
         this.serverList = interServers;
+        this.pool = pool;
     }
 
     /**
-     * Return the list of serverI in the shop.
+     * Return the list of serverI in the shop, the Servers followed by the
+     * SelfCheckOuts.
      * @return List of serverIs.
      */
     public List<ServerI> getServers() {
-        return serverList;
+        List<ServerI> servers = new ArrayList<>(serverList);
+        servers.addAll(pool.getCounters());
+        return servers;
+    }
+
+    /**
+     * Return the pool of SelfCheckOuts of the shop.
+     * @return pool.
+     */
+    public SelfCheckOutPool getPool() {
+        return pool;
     }
 
     /**
@@ -77,8 +92,7 @@ public class Shop {
      * @return true if the input argument matches the predicate, else false.
      */
     public Optional<ServerI> find(Predicate<? super ServerI> pred) {
-        ArrayList<ServerI> temp = new ArrayList<>(serverList);
-        return temp.stream().filter(pred).findFirst();
+        return getServers().stream().filter(pred).findFirst();
     }
 
     /**
@@ -89,7 +103,10 @@ public class Shop {
      * @return the updated serverI.
      */
     public Optional<ServerI> get(ServerI s) {
-        return find(x -> x.equals(s));
+        if (s instanceof SelfCheckOut) {
+            return Optional.of(pool.get(s.getId()));
+        }
+        return serverList.stream().filter(x -> x.equals(s)).findFirst();
     }
 
     /**
@@ -97,7 +114,12 @@ public class Shop {
      * @return true if there is a serverI available in the shop, else false.
      */
     public Optional<ServerI> hasAvailServer() {
-        return find(ServerI::isAvailable);
+        Optional<ServerI> server = serverList.stream()
+                .filter(ServerI::isAvailable).findFirst();
+        if (server.isPresent()) {
+            return server;
+        }
+        return pool.firstAvailable();
     }
 
     /**
@@ -105,34 +127,46 @@ public class Shop {
      * @return true if there is a serverI with a non-full queue, else false.
      */
     public Optional<ServerI> hasFreeQueue() {
-        return find(x -> !x.fullQueue());
+        Optional<ServerI> server = serverList.stream()
+                .filter(x -> !x.fullQueue()).findFirst();
+        if (server.isPresent() || pool.fullQueue()) {
+            return server;
+        }
+        return pool.first();
     }
 
     /**
      * Return the serverI with the shortest queue in the shop.
      * @return the serverI with the shortest queue in the job. If there are
      *     more than one serverI with the same queue size, return the one with a
-     *     smaller id.
+     *     smaller id. Only the SelfCheckOut that compares smallest among the
+     *     SelfCheckOuts is compared with the Servers.
      */
     public Optional<ServerI> getShortestQueue() {
         PriorityQueue<ServerI> temp = new PriorityQueue<>(serverList);
+        pool.first().ifPresent(temp::add);
         ServerI serverInter = temp.poll();
         return Optional.ofNullable(serverInter);
     }
 
     /**
-     * Return the updated Shop with a serverI replaced.
+     * Return the updated Shop with a serverI replaced. A SelfCheckOut is
+     * replaced in the pool, which every version of the shop shares.
      * @param server the updated serverI which will replace the one in the shop.
      * @return the updated shop with the updated serverI.
      */
     public Shop replace(ServerI server) {
+        if (server instanceof SelfCheckOut) {
+            pool.update((SelfCheckOut) server);
+            return this;
+        }
         return new Shop(serverList.stream().map(x -> {
             if (x.equals(server)) {
                 return server;
             } else {
                 return x;
             }
-        }).collect(Collectors.toList()));
+        }).collect(Collectors.toList()), pool);
     }
 
     /**
@@ -141,6 +175,6 @@ public class Shop {
      */
     @Override
     public String toString() {
-        return serverList.toString();
+        return getServers().toString();
     }
 }
@@ -0,0 +1,169 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ShopNetwork of shops where customers who would leave a shop are sent to the
+ * next shop instead, arriving after a transfer delay. The 'ShopNetwork' class
+ * supports operators that includes: (i) Retrieve a shop's simulation. (ii)
+ * Deliver the transferred customers into the shops. (iii) Retrieve the time
+ * of the earliest event of the network. (iv) Retrieve the lookahead of the
+ * network. (v) Retrieve the statistics of the network.
+ * Each shop is a Simulation that is only ever stepped by one thread at a
+ * time. Shops only talk to each other through their mailboxes, which are
+ * lock-free queues, and every message arrives transferDelay after it was
+ * sent, which is the lookahead used by the parallel engines.
+ * ShopNetwork contains List shops, List mailboxes and double transferDelay.
+ */
+public class ShopNetwork {
+    private final List<Simulation> shops;
+    private final List<Queue<Customer>> mailboxes;
+    private final double transferDelay;
+
+    /**
+     * Constructs a ShopNetwork of numShops shops, each simulated with the
+     * same parameters as Simulation. Shop k uses the base seed plus 6k, as
+     * the RandomGenerator uses six consecutive seeds, and numbers its
+     * customers from k * numCustomers + 1 onwards. A customer who would
+     * leave shop k arrives at shop k + 1, or the first shop for the last
+     * shop, transferDelay later. A customer is transferred at most once.
+     * @param args the ten simulation parameters of each shop.
+     * @param numShops number of shops in the network.
+     * @param transferDelay time taken to walk to the next shop.
+     */
+    public ShopNetwork(String[] args, int numShops, double transferDelay) {
+        if (!(transferDelay > 0)) {
+            throw new IllegalArgumentException(
+                    "transfer delay must be positive: " + transferDelay);
+        }
+        this.transferDelay = transferDelay;
+        this.shops = new ArrayList<>();
+        this.mailboxes = new ArrayList<>();
+        int seed = Integer.parseInt(args[0]);
+        int numCustomers = Integer.parseInt(args[4]);
+        for (int k = 0; k < numShops; k++) {
+            mailboxes.add(new ConcurrentLinkedQueue<>());
+        }
+        for (int k = 0; k < numShops; k++) {
+            String[] shopArgs = args.clone();
+            shopArgs[0] = String.valueOf(seed + 6 * k);
+            Simulation shop = new Simulation(shopArgs, k * numCustomers + 1);
+            Queue<Customer> next = mailboxes.get(nextShop(k));
+            shop.setOutput(event -> { });
+            shop.setRouter(customer -> next.add(transfer(customer)));
+            shops.add(shop);
+        }
+    }
+
+    /**
+     * Return the number of shops in the network.
+     * @return number of shops.
+     */
+    public int size() {
+        return shops.size();
+    }
+
+    /**
+     * Return the simulation of the kth shop.
+     * @param k index of the shop, starting from 0.
+     * @return simulation of the shop.
+     */
+    public Simulation getShop(int k) {
+        return shops.get(k);
+    }
+
+    /**
+     * Return the index of the shop that the customers leaving the kth shop
+     * are sent to.
+     * @param k index of the shop, starting from 0.
+     * @return index of the next shop.
+     */
+    int nextShop(int k) {
+        return (k + 1) % mailboxes.size();
+    }
+
+    /**
+     * Return the customer as it arrives at the next shop, transferDelay after
+     * it left, with its type and its recorded service time, if any.
+     * @param customer customer leaving a shop.
+     * @return customer arriving at the next shop.
+     */
+    Customer transfer(Customer customer) {
+        return new Customer(customer.getId(),
+                customer.getArrivalTime() + transferDelay, customer.getType(),
+                customer.getServiceTime());
+    }
+
+    /**
+     * Return the lookahead of the network, which is the transfer delay, as
+     * no shop can affect another shop any earlier than that.
+     * @return transferDelay.
+     */
+    public double getLookahead() {
+        return transferDelay;
+    }
+
+    /**
+     * Move the customers waiting in the mailbox of the kth shop into its
+     * simulation. Must only be called by the thread stepping that shop.
+     * @param k index of the shop, starting from 0.
+     */
+    void deliver(int k) {
+        Queue<Customer> mailbox = mailboxes.get(k);
+        Simulation shop = shops.get(k);
+        Customer customer = mailbox.poll();
+        while (customer != null) {
+            shop.transferIn(customer);
+            customer = mailbox.poll();
+        }
+    }
+
+    /**
+     * Move the customers waiting in every mailbox into their shops.
+     */
+    void deliverAll() {
+        for (int k = 0; k < shops.size(); k++) {
+            deliver(k);
+        }
+    }
+
+    /**
+     * Return the time of the earliest event of all the shops, or positive
+     * infinity if every shop is done. The mailboxes should be delivered
+     * first.
+     * @return time of the earliest event in the network.
+     */
+    double nextEventTime() {
+        double min = Double.POSITIVE_INFINITY;
+        for (Simulation shop : shops) {
+            min = Math.min(min, shop.nextEventTime());
+        }
+        return min;
+    }
+
+    /**
+     * Return the statistics of every shop, one per line, followed by the
+     * statistics of the whole network: (i) average waiting time. (ii) number
+     * of customers served. (iii) number of customers who left.
+     * @return String representation of the statistics.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        double totalWaitTime = 0;
+        int served = 0;
+        int left = 0;
+        for (int k = 0; k < shops.size(); k++) {
+            Simulation shop = shops.get(k);
+            sb.append(String.format("%d %s%n", k + 1, shop.summary()));
+            totalWaitTime += shop.getTotalWaitTime();
+            served += shop.getServed();
+            left += shop.getLeft();
+        }
+        double average = served == 0 ? 0 : totalWaitTime / served;
+        sb.append(String.format("[%.3f %d %d]", average, served, left));
+        return sb.toString();
+    }
+}
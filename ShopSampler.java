@@ -0,0 +1,162 @@
+package cs2030.simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ShopSampler that records the state of the Shop of a Simulation at a fixed
+ * interval of simulated time, and writes it as a gzip-compressed binary time
+ * series while the simulation runs. The 'ShopSampler' class supports
+ * operators that includes: (i) Recording the samples due before a time.
+ * (ii) Following which servers are resting. (iii) Closing the series.
+ * The sample at time t is the state after every event at or before t. The
+ * stream starts with a header of int MAGIC, int VERSION, double interval,
+ * int number of Servers and int number of SelfCheckOuts, followed by one
+ * record per sample: a flags byte per serverI in the order of the shop, with
+ * bit 0 set if it is available and bit 1 if it is resting, then the queue
+ * length of each Server and the length of the shared queue of the
+ * SelfCheckOuts as unsigned varints. Time is not stored, as sample k is at
+ * time k * interval. Samples go through a buffer of a fixed size into the
+ * compressor, so memory does not grow with the length of the run. ShopSeries
+ * reads the series back.
+ * ShopSampler contains DataOutputStream out, double interval, long samples,
+ * BitSet resting and boolean started.
+ */
+public class ShopSampler implements AutoCloseable {
+    static final int MAGIC = 0x53484f50;
+    static final int VERSION = 1;
+    private final DataOutputStream out;
+    private final double interval;
+    private long samples = 0;
+    private final BitSet resting = new BitSet();
+    private boolean started = false;
+
+    /**
+     * Constructs a ShopSampler writing to the file, which is replaced.
+     * @param file the file to write.
+     * @param interval simulated time between samples.
+     * @param bufferBytes size of the buffer in front of the compressor.
+     * @throws IOException if the file cannot be created.
+     * @throws IllegalArgumentException if the interval is not positive.
+     */
+    public ShopSampler(Path file, double interval, int bufferBytes)
+            throws IOException {
+        if (!(interval > 0)) {
+            throw new IllegalArgumentException(
+                    "sample interval must be positive, not " + interval);
+        }
+        this.interval = interval;
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file), bufferBytes),
+                bufferBytes));
+    }
+
+    /**
+     * Record the state of the shop for every sample whose time is before the
+     * time.
+     * @param time time of the next event to be executed.
+     * @param shop the shop after every event before the time.
+     */
+    void sampleBefore(double time, Shop shop) {
+        try {
+            if (!started) {
+                writeHeader(shop);
+            }
+            while (samples * interval < time) {
+                write(shop);
+                samples++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Follow the servers going for and coming back from rest.
+     * @param event the event executed.
+     */
+    void observe(Event event) {
+        if (event.getStatus() == EventStatus.SERVERREST) {
+            resting.set(event.getServer().getId());
+        } else if (event.getStatus() == EventStatus.SERVERBACK) {
+            resting.clear(event.getServer().getId());
+        }
+    }
+
+    /**
+     * Write the header of the series.
+     * @param shop the shop sampled.
+     * @throws IOException if the header cannot be written.
+     */
+    private void writeHeader(Shop shop) throws IOException {
+        int numSelfCheckOuts = (int) shop.getServers().stream()
+                .filter(x -> x instanceof SelfCheckOut).count();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeDouble(interval);
+        out.writeInt(shop.getServers().size() - numSelfCheckOuts);
+        out.writeInt(numSelfCheckOuts);
+        started = true;
+    }
+
+    /**
+     * Write one sample of the shop.
+     * @param shop the shop sampled.
+     * @throws IOException if the sample cannot be written.
+     */
+    private void write(Shop shop) throws IOException {
+        List<ServerI> servers = shop.getServers();
+        int sharedQueue = 0;
+        for (ServerI server : servers) {
+            boolean isServer = server instanceof Server;
+            out.writeByte((server.isAvailable() ? 1 : 0)
+                    | (isServer && resting.get(server.getId()) ? 2 : 0));
+            if (!isServer) {
+                sharedQueue = server.getQueue().size();
+            }
+        }
+        for (ServerI server : servers) {
+            if (server instanceof Server) {
+                writeVarint(server.getQueue().size());
+            }
+        }
+        writeVarint(sharedQueue);
+    }
+
+    /**
+     * Write the value as an unsigned varint, 7 bits per byte.
+     * @param value the non-negative value.
+     * @throws IOException if the value cannot be written.
+     */
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Retrieve the number of samples written.
+     * @return samples.
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Flush the buffered samples and close the file.
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
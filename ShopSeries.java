@@ -0,0 +1,160 @@
+package cs2030.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ShopSeries reads the time series written by a ShopSampler one sample at a
+ * time. The 'ShopSeries' class supports operators that includes: (i)
+ * Moving to the next sample. (ii) Retrieve the time of the sample. (iii)
+ * Retrieve the availability and resting flag of a serverI. (iv) Retrieve the
+ * queue length of a Server and of the shared queue of the SelfCheckOuts.
+ * The serverIs are numbered from 0 in the order of the shop, so the Servers
+ * come first and the SelfCheckOuts after them.
+ * ShopSeries contains DataInputStream in, double interval, int numServers,
+ * int numSelfCheckOuts, byte[] flags, int[] queues, int sharedQueue and
+ * long sample.
+ */
+public class ShopSeries implements AutoCloseable {
+    private final DataInputStream in;
+    private final double interval;
+    private final int numServers;
+    private final int numSelfCheckOuts;
+    private final byte[] flags;
+    private final int[] queues;
+    private int sharedQueue = 0;
+    private long sample = -1;
+
+    /**
+     * Constructs a ShopSeries over the file and reads its header.
+     * @param file the file written by a ShopSampler.
+     * @throws IOException if the file cannot be read or is not a series.
+     */
+    public ShopSeries(Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))));
+        if (in.readInt() != ShopSampler.MAGIC
+                || in.readInt() != ShopSampler.VERSION) {
+            in.close();
+            throw new IOException(file + " is not a shop series");
+        }
+        interval = in.readDouble();
+        numServers = in.readInt();
+        numSelfCheckOuts = in.readInt();
+        flags = new byte[numServers + numSelfCheckOuts];
+        queues = new int[numServers];
+    }
+
+    /**
+     * Move to the next sample.
+     * @return true if there is a next sample, else false.
+     * @throws IOException if the file cannot be read.
+     */
+    public boolean next() throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return false;
+        }
+        flags[0] = (byte) first;
+        in.readFully(flags, 1, flags.length - 1);
+        for (int i = 0; i < numServers; i++) {
+            queues[i] = readVarint();
+        }
+        sharedQueue = readVarint();
+        sample++;
+        return true;
+    }
+
+    /**
+     * Read an unsigned varint, 7 bits per byte.
+     * @return the value.
+     * @throws IOException if the file cannot be read.
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Retrieve the simulated time of the sample.
+     * @return time of the sample.
+     */
+    public double getTime() {
+        return sample * interval;
+    }
+
+    /**
+     * Retrieve the number of Servers.
+     * @return numServers.
+     */
+    public int getNumServers() {
+        return numServers;
+    }
+
+    /**
+     * Retrieve the number of SelfCheckOuts.
+     * @return numSelfCheckOuts.
+     */
+    public int getNumSelfCheckOuts() {
+        return numSelfCheckOuts;
+    }
+
+    /**
+     * Return whether the serverI is available in the sample.
+     * @param server index of the serverI in the shop.
+     * @return true if the serverI is available, else false.
+     */
+    public boolean isAvailable(int server) {
+        return (flags[server] & 1) != 0;
+    }
+
+    /**
+     * Return whether the serverI is resting in the sample.
+     * @param server index of the serverI in the shop.
+     * @return true if the serverI is resting, else false.
+     */
+    public boolean isResting(int server) {
+        return (flags[server] & 2) != 0;
+    }
+
+    /**
+     * Return the queue length of the Server in the sample.
+     * @param server index of the Server in the shop.
+     * @return the queue length.
+     */
+    public int getQueueLength(int server) {
+        return queues[server];
+    }
+
+    /**
+     * Return the length of the shared queue of the SelfCheckOuts in the
+     * sample.
+     * @return sharedQueue.
+     */
+    public int getSharedQueueLength() {
+        return sharedQueue;
+    }
+
+    /**
+     * Close the file.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
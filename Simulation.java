@@ -1,7 +1,12 @@
 package cs2030.simulator;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Supplier;
 
 /**
@@ -13,11 +18,54 @@ import java.util.function.Supplier;
  * the simulation. (vi) Handling the DoneEvent of the simulation. (vii)
  * Handling the ServerRestEvent of the simulation. (viii) Handling the
  * ServerBackEvent. (ix) Updating other ServeEvents of the same Server. (x)
- * Updating other ServeEvents of all same Self-Checkouts, with the earliest
- * Self-Checkout.
+ * Serving the next customer waiting for the Self-Checkouts when one of them
+ * is done. (xi) Stepping through the events one at a time so that the
+ * simulation can be used as a partition of a ShopNetwork. (xii) Saving and
+ * restoring the state of the simulation. (xiii) Running the simulation until
+ * a time horizon. (xiv) Running the simulation until the steady-state
+ * average waiting time is precise enough. (xv) Handling the RenegeEvent of
+ * the simulation. (xvi) Publishing the events handled to the subscribers of
+ * an EventRing. (xvii) Sampling the state of the shop at a fixed interval.
+ * (xviii) Varying the arrival rate with the time of day and collecting the
+ * statistics of each time of day. (xix) Writing the events printed into a
+ * compressed log. (xx) Hashing the events handled into an EventDigest.
+ * (xxi) Estimating the derivatives of the average waiting time with respect
+ * to the service and resting rates along the run.
+ * Arrivals are generated lazily: only the arrival of the next customer is
+ * kept in the priority queue of events, and the one after it is generated
+ * when it arrives, so the queue only holds the events of the customers in
+ * the shop.
+ * If a timeout rate is given, each customer who waits draws a patience from
+ * the timeout stream of the RandomGenerator, and reneges if it is not
+ * served before its patience runs out. The timers are kept in a
+ * TimingWheel rather than in the priority queue of events, as almost all of
+ * them are cancelled when the customer is served, which the wheel does in
+ * O(1). The ServeEvent of a customer who reneged is skipped when it comes
+ * up.
+ * If an ArrivalSourceI is given, the customers are replayed from it
+ * instead: their arrival times and types are read from the source one at a
+ * time, as they are needed, and their recorded service times are used
+ * instead of drawn ones, unless they are NaN.
+ * The inter-arrival times and the service times are exponential unless
+ * other distributions are set. The distribution of the service times can be
+ * set for each CustomerType and ServerType. If a RateSchedule is set, the
+ * arrivals instead form a non-homogeneous Poisson process with the rate of
+ * the schedule, drawn by thinning from the arrival stream, and a
+ * TimeOfDayStat can count them by the time of day of their arrival.
+ * Customers waiting for the Self-Checkouts have no ServeEvent until a
+ * counter is done: the DoneEvent of a counter schedules the ServeEvent of
+ * the customer at the head of the shared queue with that counter, so a
+ * counter being done costs O(log n) rather than a rewrite of every pending
+ * ServeEvent of the Self-Checkouts.
  * Simulation contains PriorityQueue events, Shop shop, RandomGenerator rng,
- * Supplier generator, double probRest, int served, int left, double
- * totalWaitTime.
+ * Supplier generator, double probRest, double probGreedy, int firstId, int
+ * lastId, int nextId, double nextArrivalTime, int served, int left, int
+ * transferred, int reneged, ArrivalSourceI arrivals, double totalWaitTime,
+ * double totalServiceTime, double totalInterArrivalTime, int interArrivals,
+ * double clock, TimingWheel timers, Set renegedIds, Consumer output,
+ * Consumer router, DoubleConsumer waitObserver, SimulationProgress progress,
+ * long handled, EventRing ring, ShopSampler sampler, TimeOfDayStat
+ * timeOfDay, EventDigest digest and WaitGradient gradient.
  */
 public class Simulation {
     private PriorityQueue<Event> events;
@@ -25,9 +73,34 @@ public class Simulation {
     private final RandomGenerator rng;
     private final Supplier<RandomGenerator> generator;
     private final double probRest;
+    private final double probGreedy;
+    private final int firstId;
+    private final int lastId;
+    private int nextId;
+    private double nextArrivalTime = 0;
     private int served = 0;
     private int left = 0;
+    private int transferred = 0;
+    private int reneged = 0;
+    private final ArrivalSourceI arrivals;
     private double totalWaitTime = 0;
+    private double totalServiceTime = 0;
+    private double totalInterArrivalTime = 0;
+    private int interArrivals = 0;
+    private double clock = 0;
+    private TimingWheel<RenegeEvent> timers = null;
+    private Set<Integer> renegedIds = new HashSet<>();
+    private Consumer<? super Event> output = System.out::println;
+    private Consumer<Customer> router = null;
+    private DoubleConsumer waitObserver = null;
+    private SimulationProgress progress = null;
+    private long handled = 0;
+    private EventRing ring = null;
+    private ShopSampler sampler = null;
+    private TimeOfDayStat timeOfDay = null;
+    private EventDigest digest = null;
+    private WaitGradient gradient = null;
+    private static final double TICKS_PER_PATIENCE = 16;
 
     /**
      * Construct simulation based on command line arguments. index 0: base
@@ -36,9 +109,47 @@ public class Simulation {
      * customers. index 5: arrival rate of customers. index 6: service rate
      * of customers. index 7: resting rate of serverIs. index 8: probability
      * of rest for serverIs. index 9: probability of a customer being a
-     * Greedy one.
+     * Greedy one. index 10: timeout rate of customers who wait, which is
+     * optional, and customers never renege if it is absent or 0.
+     * @param args the ten or eleven simulation parameters.
      */
     public Simulation(String[] args) {
+        this(args, 1, null);
+    }
+
+    /**
+     * Construct simulation based on command line arguments, where the
+     * customers are replayed from the source instead of being drawn. The
+     * number of customers is an upper bound on the number replayed, and the
+     * arrival rate and the probability of a customer being a Greedy one are
+     * not used. The source must be positioned before its first record.
+     * @param args the ten or eleven simulation parameters.
+     * @param arrivals the recorded customers, in order of arrival time.
+     */
+    public Simulation(String[] args, ArrivalSourceI arrivals) {
+        this(args, 1, arrivals);
+    }
+
+    /**
+     * Construct simulation based on command line arguments, where the
+     * customers are numbered from firstId onwards instead of 1. Used by
+     * ShopNetwork so that customer identifiers stay unique across shops.
+     * @param args the ten or eleven simulation parameters.
+     * @param firstId identifier of the first customer.
+     */
+    Simulation(String[] args, int firstId) {
+        this(args, firstId, null);
+    }
+
+    /**
+     * Construct simulation based on command line arguments, where the
+     * customers are numbered from firstId onwards and are replayed from the
+     * source if there is one.
+     * @param args the ten or eleven simulation parameters.
+     * @param firstId identifier of the first customer.
+     * @param arrivals the recorded customers, or null to draw them.
+     */
+    private Simulation(String[] args, int firstId, ArrivalSourceI arrivals) {
         int seed = Integer.parseInt(args[0]);
         int numServers = Integer.parseInt(args[1]);
         int numSelfCheckout = Integer.parseInt(args[2]);
@@ -49,76 +160,637 @@ public class Simulation {
         double restingRate = Double.parseDouble(args[7]);
         double probRest = Double.parseDouble(args[8]);
         double probGreedy = Double.parseDouble(args[9]);
-        rng = new RandomGenerator(seed, arrivalRate, serviceRate, restingRate);
+        double timeoutRate = args.length > 10 ? Double.parseDouble(args[10])
+                : 0;
+        rng = new RandomGenerator(seed, arrivalRate, serviceRate, restingRate,
+                timeoutRate);
+        if (timeoutRate > 0) {
+            timers = new TimingWheel<>(1 / (TICKS_PER_PATIENCE * timeoutRate));
+        }
         generator = () -> rng;
         this.probRest = probRest;
+        this.probGreedy = probGreedy;
+        this.firstId = firstId;
+        this.lastId = firstId + numCustomers - 1;
+        this.nextId = firstId;
+        this.arrivals = arrivals;
         shop = new Shop(numServers, numSelfCheckout, maxQueueLength);
         events = new PriorityQueue<Event>();
-        double startTime = 0;
-        for (int i = 1; i <= numCustomers; i++) {
-            if (i != 1) {
-                startTime += generator.get().genInterArrivalTime();
-            }
-            if (generator.get().genCustomerType() < probGreedy) {
-                events.add(new ArriveEvent(new Customer(i, startTime,
-                        CustomerType.GREEDY)));
-            } else {
-                events.add(new ArriveEvent(new Customer(i, startTime,
-                        CustomerType.NORMAL)));
+        scheduleArrival();
+    }
+
+    /**
+     * Generate the arrival of the next customer and add it into the priority
+     * queue of events, if there are customers left to arrive. The first
+     * customer arrives at time 0.
+     */
+    private void scheduleArrival() {
+        if (nextId > lastId) {
+            return;
+        } else if (arrivals != null) {
+            scheduleRecordedArrival();
+            return;
+        }
+        if (nextId != firstId) {
+            double interArrivalTime = generator.get()
+                    .genInterArrivalTime(nextArrivalTime);
+            nextArrivalTime += interArrivalTime;
+            totalInterArrivalTime += interArrivalTime;
+            interArrivals++;
+        }
+        if (generator.get().genCustomerType() < probGreedy) {
+            events.add(new ArriveEvent(new Customer(nextId, nextArrivalTime,
+                    CustomerType.GREEDY)));
+        } else {
+            events.add(new ArriveEvent(new Customer(nextId, nextArrivalTime,
+                    CustomerType.NORMAL)));
+        }
+        nextId++;
+    }
+
+    /**
+     * Read the arrival of the next customer from the source and add it into
+     * the priority queue of events, if the source has customers left.
+     * @throws IllegalArgumentException if the arrival time is before the
+     *     arrival time of the previous customer.
+     */
+    private void scheduleRecordedArrival() {
+        if (!arrivals.next()) {
+            return;
+        }
+        double arrivalTime = arrivals.getArrivalTime();
+        if (nextId != firstId) {
+            double interArrivalTime = arrivalTime - nextArrivalTime;
+            if (!(interArrivalTime >= 0)) {
+                throw new IllegalArgumentException(String.format(
+                        "customer %d arrives at %s, before %s", nextId,
+                        arrivalTime, nextArrivalTime));
             }
+            totalInterArrivalTime += interArrivalTime;
+            interArrivals++;
         }
+        nextArrivalTime = arrivalTime;
+        events.add(new ArriveEvent(new Customer(nextId, arrivalTime,
+                arrivals.getType(), arrivals.getServiceTime())));
+        nextId++;
+    }
+
+    /**
+     * Return the boolean of whether the customer is one of the customers
+     * generated by this simulation, rather than one transferred in.
+     * @param customer the customer to check.
+     * @return true if the customer was generated by this simulation, else
+     *     false.
+     */
+    private boolean isOwn(Customer customer) {
+        return customer.getId() >= firstId && customer.getId() <= lastId;
     }
 
     /**
      * Run the simulation. Execute the next event of the earliest start time
-     * of the event, the lowest customer id and the sequencing of events. For
-     * each event type, handle it differently based on its respective handle
-     * methods, except for IdleEvent which is ignored. At the end, print the
-     * statistics of the simulation: (i) average waiting time. (ii) number of
-     * customers served. (iii) number of customers who left.
+     * of the event, the lowest customer id and the sequencing of events,
+     * until there are no more events. At the end, print the statistics of
+     * the simulation: (i) average waiting time. (ii) number of customers
+     * served. (iii) number of customers who left.
      */
     public void run() {
+        simulate();
+        System.out.println(summary());
+    }
+
+    /**
+     * Run the simulation without printing the events and return the
+     * statistics instead of printing them.
+     * @return String representation of the statistics.
+     */
+    public String runQuietly() {
+        output = event -> { };
+        simulate();
+        return summary();
+    }
+
+    /**
+     * Run the simulation until the time horizon instead of until every
+     * customer has left the shop, then print the statistics of the
+     * simulation. Only the events before the horizon are executed, so the
+     * customers still in the shop at the horizon are neither served nor
+     * left. The number of customers acts as an upper bound.
+     * @param horizon time at which the simulation stops.
+     */
+    public void runUntil(double horizon) {
+        advanceTo(horizon);
+        System.out.println(summary());
+    }
+
+    /**
+     * Run the simulation until the confidence interval of the steady-state
+     * average waiting time is as narrow as the estimator requires, or until
+     * there are no more events, then print the statistics of the simulation
+     * followed by the steady-state estimate. The estimator is checked each
+     * time the number of customers served grows by a tenth, so checking
+     * costs a constant amount of work per customer.
+     * @param estimator the estimator the waiting times are added to.
+     */
+    public void runSteadyState(SteadyStateEstimator estimator) {
+        waitObserver = estimator::add;
+        int nextCheck = 100;
         while (!events.isEmpty()) {
-            Event curr = events.poll();
-            EventStatus status = curr.getStatus();
-            switch (status) {
-                case ARRIVE:
-                    handleArrive(curr);
+            step();
+            if (estimator.getObservations() >= nextCheck) {
+                if (estimator.isPrecise()) {
                     break;
+                }
+                nextCheck += nextCheck / 10;
+            }
+        }
+        waitObserver = null;
+        System.out.println(summary());
+        System.out.println(estimator);
+    }
 
-                case SERVE:
+    /**
+     * Execute all the events of the simulation without printing the
+     * statistics.
+     */
+    void simulate() {
+        while (!events.isEmpty()) {
+            step();
+        }
+        if (sampler != null) {
+            sampler.sampleBefore(Math.nextUp(clock), shop);
+        }
+        if (progress != null) {
+            publishProgress();
+        }
+    }
+
+    /**
+     * Publish the progress of the simulation for a ProgressReporter.
+     */
+    private void publishProgress() {
+        progress.publish(clock, handled, served + left, events.size());
+    }
+
+    /**
+     * Set where the simulation publishes its progress, every
+     * SimulationProgress.PUBLISH_EVERY events.
+     * @param progress the progress read by a ProgressReporter.
+     */
+    void setProgress(SimulationProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Return the number of customers generated by the simulation.
+     * @return number of customers.
+     */
+    int getNumCustomers() {
+        return lastId - firstId + 1;
+    }
+
+    /**
+     * Execute the events of the simulation whose time is before the horizon.
+     * Events scheduled at or after the horizon are left in the queue.
+     * @param horizon time before which the events are executed.
+     */
+    void advanceTo(double horizon) {
+        while (nextEventTime() < horizon) {
+            step();
+        }
+    }
+
+    /**
+     * Execute the next event of the earliest start time of the event, the
+     * lowest customer id and the sequencing of events. For each event type,
+     * handle it differently based on its respective handle methods, except
+     * for IdleEvent which is ignored. Every event handled, apart from
+     * IdleEvents and the skipped ServeEvents of customers who reneged, is
+     * published to the EventRing, counted by the TimeOfDayStat and hashed by
+     * the EventDigest, for each of them that is attached. The samples of the
+     * ShopSampler due before the event are recorded first. The progress is
+     * published every SimulationProgress.PUBLISH_EVERY events if a
+     * ProgressReporter is attached, and a JfrHandleEvent is committed if a
+     * flight recording enables it.
+     */
+    void step() {
+        JfrHandleEvent jfr = new JfrHandleEvent();
+        jfr.begin();
+        Event curr = pollEvent();
+        double time = Math.max(clock, curr.getStartTime());
+        if (sampler != null) {
+            sampler.sampleBefore(time, shop);
+            sampler.observe(curr);
+        }
+        clock = time;
+        EventStatus status = curr.getStatus();
+        boolean publish = status != EventStatus.IDLE;
+        switch (status) {
+            case ARRIVE:
+                handleArrive(curr);
+                break;
+
+            case SERVE:
+                if (!renegedIds.remove(curr.getCustomer().getId())) {
                     handleServe(curr);
-                    break;
+                } else {
+                    publish = false;
+                }
+                break;
 
-                case WAIT:
-                    handleWait(curr);
-                    break;
+            case WAIT:
+                handleWait(curr);
+                break;
 
-                case LEAVE:
-                    handleLeave(curr);
-                    break;
+            case LEAVE:
+                handleLeave(curr);
+                break;
 
-                case DONE:
-                    handleDone(curr);
-                    break;
+            case DONE:
+                handleDone(curr);
+                break;
 
-                case SERVERREST:
-                    handleRest(curr);
-                    break;
+            case SERVERREST:
+                handleRest(curr);
+                break;
 
-                case SERVERBACK:
-                    handleBack(curr);
-                    break;
+            case SERVERBACK:
+                handleBack(curr);
+                break;
 
-                case IDLE:
-                    break;
+            case RENEGE:
+                handleRenege(curr);
+                break;
 
-                default:
-                    break;
+            case IDLE:
+                break;
+
+            default:
+                break;
+        }
+        if (ring != null && publish) {
+            ring.publish(curr, clock);
+        }
+        if (timeOfDay != null && publish) {
+            timeOfDay.observe(curr);
+        }
+        if (digest != null && publish) {
+            digest.observe(curr);
+        }
+        handled++;
+        if (progress != null && handled % SimulationProgress.PUBLISH_EVERY == 0) {
+            publishProgress();
+        }
+        if (jfr.shouldCommit()) {
+            jfr.status = status.name();
+            jfr.customer = curr.getCustomer().getId();
+            jfr.time = clock;
+            jfr.queueDepth = events.size();
+            jfr.commit();
+        }
+    }
+
+    /**
+     * Return the time of the next event to be executed. ServerRestEvents do
+     * not carry a time of their own, so the time never goes before the time
+     * of the last executed event. If there are no more events, return
+     * positive infinity.
+     * @return time of the next event.
+     */
+    double nextEventTime() {
+        Event next = events.peek();
+        double time = next == null ? Double.POSITIVE_INFINITY
+                : Math.max(clock, next.getStartTime());
+        if (timers != null) {
+            time = Math.min(time, timers.peekDeadline(time));
+        }
+        return time;
+    }
+
+    /**
+     * Remove and return the next event to be executed, which is the RenegeEvent
+     * of the earliest timer if it expires before the head of the priority
+     * queue of events.
+     * @return the next event.
+     */
+    private Event pollEvent() {
+        if (timers != null) {
+            RenegeEvent renege = timers.poll(headTime());
+            if (renege != null) {
+                return renege;
+            }
+        }
+        return events.poll();
+    }
+
+    /**
+     * Return the time of the head of the priority queue of events, or
+     * positive infinity if it is empty.
+     * @return time of the head of the priority queue.
+     */
+    private double headTime() {
+        Event next = events.peek();
+        return next == null ? Double.POSITIVE_INFINITY
+                : Math.max(clock, next.getStartTime());
+    }
+
+    /**
+     * Schedule the arrival of a customer transferred from another shop.
+     * Customers that were transferred in are not transferred out again.
+     * @param customer customer arriving from another shop.
+     */
+    void transferIn(Customer customer) {
+        events.add(new ArriveEvent(customer));
+    }
+
+    /**
+     * Return the next event to be executed, without executing it.
+     * @return the next event, or null if there are no more events.
+     */
+    Event peek() {
+        if (timers != null) {
+            RenegeEvent renege = timers.peek(headTime());
+            if (renege != null) {
+                return renege;
             }
         }
-        System.out.println(String.format("[%.3f %d %d]", averageWaitTime(),
-                served, left));
+        return events.peek();
+    }
+
+    /**
+     * Return a copy of the current state of the simulation, which can be
+     * restored later. The shop is immutable apart from its SelfCheckOutPool,
+     * so only the counters and the shared queue of the pool and the priority
+     * queue of events are copied, along with the pending timers, the
+     * customers who reneged, the state of the EventDigest and the
+     * WaitGradient.
+     * @return the saved state.
+     */
+    SimulationState save() {
+        SelfCheckOutPool pool = shop.getPool();
+        return new SimulationState(new PriorityQueue<>(events), shop,
+                new ArrayList<>(pool.getQueue()), pool.getCounters(),
+                rng.getState(), arrivals == null ? -1 : arrivals.getPosition(),
+                nextId, nextArrivalTime, served, left, transferred, reneged,
+                totalWaitTime, totalServiceTime, totalInterArrivalTime,
+                interArrivals, clock, timers == null ? null : timers.copy(),
+                new HashSet<>(renegedIds),
+                digest == null ? null : digest.getState(),
+                gradient == null ? null : gradient.copy());
+    }
+
+    /**
+     * Restore the simulation to a state saved earlier. The state can be
+     * restored more than once.
+     * @param state the saved state.
+     */
+    void restore(SimulationState state) {
+        events = new PriorityQueue<>(state.events);
+        shop = state.shop;
+        shop.getPool().restore(state.counters, state.sharedQueue);
+        rng.setState(state.rngState);
+        if (arrivals != null) {
+            arrivals.setPosition(state.arrivalPosition);
+        }
+        nextId = state.nextId;
+        nextArrivalTime = state.nextArrivalTime;
+        served = state.served;
+        left = state.left;
+        transferred = state.transferred;
+        reneged = state.reneged;
+        totalWaitTime = state.totalWaitTime;
+        totalServiceTime = state.totalServiceTime;
+        totalInterArrivalTime = state.totalInterArrivalTime;
+        interArrivals = state.interArrivals;
+        clock = state.clock;
+        timers = state.timers == null ? null : state.timers.copy();
+        renegedIds = new HashSet<>(state.renegedIds);
+        if (digest != null && state.digestState != null) {
+            digest.setState(state.digestState);
+        }
+        if (gradient != null && state.gradient != null) {
+            gradient = state.gradient.copy();
+        }
+    }
+
+    /**
+     * Set where the events printed by the simulation are written to.
+     * @param output consumer of the printed events.
+     */
+    public void setOutput(Consumer<? super Event> output) {
+        this.output = output;
+    }
+
+    /**
+     * Set the GzipEventLog the events printed by the simulation are written
+     * to instead of the standard output. The statistics are still printed,
+     * and closing the log after the simulation is left to the caller.
+     * @param log the log, or null to print the events again.
+     */
+    public void setEventLog(GzipEventLog log) {
+        output = log == null ? System.out::println : log;
+    }
+
+    /**
+     * Set the distribution of the inter-arrival times, which is exponential
+     * with the arrival rate by default. It is drawn from the arrival stream
+     * of the RandomGenerator.
+     * @param distribution the distribution, or null for the default.
+     */
+    public void setInterArrivalDistribution(DistributionI distribution) {
+        rng.setInterArrivalDistribution(distribution);
+    }
+
+    /**
+     * Set the distribution of the service times of the customers of the
+     * CustomerType served by a ServerI of the ServerType, which is
+     * exponential with the service rate by default. It is drawn from the
+     * service stream of the RandomGenerator.
+     * @param customerType the type of the customers.
+     * @param serverType the type of the ServerIs.
+     * @param distribution the distribution, or null for the default.
+     */
+    public void setServiceDistribution(CustomerType customerType,
+                                       ServerType serverType,
+                                       DistributionI distribution) {
+        rng.setServiceDistribution(customerType, serverType, distribution);
+    }
+
+    /**
+     * Set the RateSchedule of the arrival rate, so that the arrivals form a
+     * non-homogeneous Poisson process instead of being drawn from the
+     * inter-arrival distribution. It is drawn from the arrival stream of the
+     * RandomGenerator.
+     * @param schedule the schedule, or null for the inter-arrival
+     *     distribution.
+     */
+    public void setRateSchedule(RateSchedule schedule) {
+        rng.setRateSchedule(schedule);
+    }
+
+    /**
+     * Set the TimeOfDayStat that counts the events handled by the time of
+     * day of the arrival of their customer.
+     * @param timeOfDay the statistics, or null to stop counting.
+     */
+    public void setTimeOfDay(TimeOfDayStat timeOfDay) {
+        this.timeOfDay = timeOfDay;
+    }
+
+    /**
+     * Set the EventDigest that hashes the events handled, in the order they
+     * are handled. The digest is rewound when the simulation is restored to
+     * a state saved with it, so it only covers the events that were not
+     * rolled back.
+     * @param digest the digest, or null to stop hashing.
+     */
+    public void setDigest(EventDigest digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Set the WaitGradient that estimates the derivatives of the average
+     * waiting time along the run. It must be set before the simulation runs,
+     * and covers the Servers and SelfCheckOuts of the shop. The gradient
+     * restored with a saved state replaces it, so the current one must be
+     * retrieved with getGradient.
+     * @param gradient the gradient, or null to stop estimating it.
+     */
+    public void setGradient(WaitGradient gradient) {
+        this.gradient = gradient;
+    }
+
+    /**
+     * Retrieve the WaitGradient of the simulation.
+     * @return gradient, or null if there is none.
+     */
+    public WaitGradient getGradient() {
+        return gradient;
+    }
+
+    /**
+     * Set the EventRing the events handled are published to, so that
+     * subscribers can consume them on their own threads. The ring must only
+     * be published to by this simulation, and closing it after the
+     * simulation is left to the caller.
+     * @param ring the ring, or null to stop publishing.
+     */
+    public void setEventRing(EventRing ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Set the ShopSampler that records the state of the shop while the
+     * simulation runs. Closing it after the simulation is left to the
+     * caller.
+     * @param sampler the sampler, or null to stop sampling.
+     */
+    public void setSampler(ShopSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * Set where customers who would leave the shop are sent instead. The
+     * router receives the customer at the time it would have left.
+     * @param router consumer of the customers who are transferred out.
+     */
+    void setRouter(Consumer<Customer> router) {
+        this.router = router;
+    }
+
+    /**
+     * Return the statistics of the simulation: (i) average waiting time.
+     * (ii) number of customers served. (iii) number of customers who left.
+     * @return String representation of the statistics.
+     */
+    public String summary() {
+        return String.format("[%.3f %d %d]", averageWaitTime(), served, left);
+    }
+
+    /**
+     * Return the number of customers served.
+     * @return served.
+     */
+    public int getServed() {
+        return served;
+    }
+
+    /**
+     * Return the number of customers who left.
+     * @return left.
+     */
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * Return the number of customers who were transferred to another shop
+     * instead of leaving.
+     * @return transferred.
+     */
+    public int getTransferred() {
+        return transferred;
+    }
+
+    /**
+     * Return the number of customers who reneged, who are also counted as
+     * customers who left.
+     * @return reneged.
+     */
+    public int getReneged() {
+        return reneged;
+    }
+
+    /**
+     * Return the number of events handled, including the IdleEvents and the
+     * skipped ServeEvents.
+     * @return handled.
+     */
+    public long getHandled() {
+        return handled;
+    }
+
+    /**
+     * Return the time of the last executed event.
+     * @return clock.
+     */
+    double getClock() {
+        return clock;
+    }
+
+    /**
+     * Return the total waiting time of the customers served.
+     * @return totalWaitTime.
+     */
+    double getTotalWaitTime() {
+        return totalWaitTime;
+    }
+
+    /**
+     * Return the mean of the service times drawn, one per customer served.
+     * @return mean service time, or NaN if no customer was served.
+     */
+    double meanServiceTime() {
+        return served == 0 ? Double.NaN : totalServiceTime / served;
+    }
+
+    /**
+     * Return the mean of the inter-arrival times drawn between the
+     * customers generated by this simulation.
+     * @return mean inter-arrival time, or NaN if fewer than two customers
+     *     were generated.
+     */
+    double meanInterArrivalTime() {
+        return interArrivals == 0 ? Double.NaN
+                : totalInterArrivalTime / interArrivals;
+    }
+
+    /**
+     * Use antithetic draws, 1 - u instead of u, for the inter-arrival and
+     * service times. Must be called before the simulation runs.
+     * @param antithetic whether the draws are antithetic.
+     */
+    void setAntithetic(boolean antithetic) {
+        rng.setAntithetic(antithetic);
     }
 
     /**
@@ -138,34 +810,78 @@ public class Simulation {
      * argument, to check the shop for an available server to either serve or
      * have the customer wait in the queue. It returns a pair of the new
      * Event transitioned from ArriveEvent and the most updated shop. Add the
-     * new Event into the priority queue of events.
+     * new Event into the priority queue of events. If the customer is one of
+     * the customers of this simulation, generate the arrival of the next
+     * customer. A JfrDispatchEvent is committed if a flight recording
+     * enables it.
      * @param event ArriveEvent.
      */
     private void handleArrive(Event event) {
-        System.out.println(event);
+        output.accept(event);
+        if (isOwn(event.getCustomer())) {
+            scheduleArrival();
+        }
+        JfrDispatchEvent jfr = new JfrDispatchEvent();
+        jfr.begin();
         Pair<Shop, Event> pair = event.execute(shop);
         events.add(pair.second());
+        if (jfr.shouldCommit()) {
+            Event next = pair.second();
+            jfr.customer = event.getCustomer().getId();
+            jfr.greedy = event.getCustomer().getType() == CustomerType.GREEDY;
+            jfr.decision = next.getStatus().name();
+            jfr.server = next.getServer() == null ? -1 : next.getServer().getId();
+            jfr.selfCheckOut = next.getServer() instanceof SelfCheckOut;
+            jfr.commit();
+        }
     }
 
 
     /**
      * Prints the ServeEvent. Increment the number of customers served.
      * Increment the wait time based on the ServeEvent start time and the
-     * customer's arrival time. An execute function returns a pair of the
-     * most updated shop and the DoneEvent of after serving the customer.
+     * customer's arrival time, and pass it to the wait observer if any.
+     * Cancel the timer of the customer if it waited. An
+     * execute function returns a pair of the most updated shop and the
+     * DoneEvent of after serving the customer.
      * Update the priority queue of the events, looking for the ServeEvent of
      * the same ServerI and increase its start time based on the service time
      * of the input event. Add the next event in the PriorityQueue of events
-     * and update the shop with the new shop.
+     * and update the shop with the new shop. A SelfCheckOut has no other
+     * pending ServeEvents, so they are only updated for a Server. The
+     * customer is recorded by the WaitGradient if there is one.
      * @param event ServeEvent.
      */
     private void handleServe(Event event) {
-        System.out.println(event);
+        output.accept(event);
         served++;
-        totalWaitTime += event.getStartTime() - event.getCustomer().getArrivalTime();
-        double serviceTime = generator.get().genServiceTime();
+        if (timers != null) {
+            timers.cancel(event.getCustomer().getId());
+        }
+        double wait = event.getStartTime() - event.getCustomer().getArrivalTime();
+        totalWaitTime += wait;
+        if (waitObserver != null) {
+            waitObserver.accept(wait);
+        }
+        CustomerType customerType = event.getCustomer().getType();
+        ServerType serverType = event.getServer() instanceof SelfCheckOut
+                ? ServerType.SELFCHECKOUT : ServerType.HUMAN;
+        double serviceTime = event.getCustomer().getServiceTime();
+        boolean drawn = Double.isNaN(serviceTime);
+        if (drawn) {
+            serviceTime = generator.get().genServiceTime(customerType,
+                    serverType);
+        }
+        totalServiceTime += serviceTime;
+        if (gradient != null) {
+            gradient.serve(event.getServer(), wait, serviceTime, drawn
+                    && !generator.get().hasServiceDistribution(customerType,
+                    serverType));
+        }
         Pair<Shop, Event> pair = event.execute(shop, serviceTime);
-        updateTime(serviceTime, event);
+        if (!(event.getServer() instanceof SelfCheckOut)) {
+            updateTime(serviceTime, event);
+        }
         events.add(pair.second());
         shop = pair.first();
     }
@@ -175,30 +891,70 @@ public class Simulation {
      * most updated shop, where the server of the event has its queue
      * incremented with the customer of the event, and a ServeEvent of the
      * customer and server. Updates shop with the shop returned in the pair.
-     * Add the next event into the priority queue of the events.
+     * Add the next event into the priority queue of the events, unless the
+     * customer waits for the SelfCheckOuts, as its ServeEvent is only added
+     * when a counter is done. If customers renege, schedule the timer of the
+     * customer at the end of its patience.
      * @param event WaitEvent.
      */
     private void handleWait(Event event) {
-        System.out.println(event);
+        output.accept(event);
         Pair<Shop, Event> pair = event.execute(shop);
         shop = pair.first();
-        events.add(pair.second());
+        if (!(event.getServer() instanceof SelfCheckOut)) {
+            events.add(pair.second());
+        }
+        if (timers != null) {
+            Customer customer = event.getCustomer();
+            double deadline = event.getStartTime()
+                    + generator.get().genTimeoutPeriod();
+            timers.schedule(customer.getId(), deadline,
+                    new RenegeEvent(customer, event.getServer(), deadline));
+        }
+    }
+
+    /**
+     * Prints RenegeEvent. Execute the input with the shop as an argument,
+     * which removes the customer from the queue of the serverI it waits for.
+     * Increment the number of customers who reneged and who left, and mark
+     * the customer so that its ServeEvent is skipped, if it waited for a
+     * Server, as a customer waiting for the SelfCheckOuts has none.
+     * @param event RenegeEvent.
+     */
+    private void handleRenege(Event event) {
+        output.accept(event);
+        shop = event.execute(shop).first();
+        if (!(event.getServer() instanceof SelfCheckOut)) {
+            renegedIds.add(event.getCustomer().getId());
+        }
+        reneged++;
+        left++;
     }
 
     /**
-     * Prints LeaveEvent. Increment the the number of customers who left.
+     * Prints LeaveEvent. If there is a router and the customer was not
+     * transferred in from another shop, send the customer to the router and
+     * increment the number of customers transferred. Else, increment the
+     * number of customers who left.
      * @param event LeaveEvent.
      */
     private void handleLeave(Event event) {
-        System.out.println(event);
-        left++;
+        output.accept(event);
+        Customer customer = event.getCustomer();
+        if (router != null && isOwn(customer)) {
+            transferred++;
+            router.accept(customer);
+        } else {
+            left++;
+        }
     }
 
     /**
      * Prints DoneEvent. If the serverI in the event is a SelfCheckOut, the
      * execute function will return a shop where the SelfCheckOut will be
      * available or unavailable depending on the sharedQueue being empty or
-     * not, respectively, and the next IdleEvent. If the serverI in the event
+     * not, respectively, and the next IdleEvent, and the customer at the head
+     * of the sharedQueue is served by the SelfCheckOut. If the serverI in the event
      * is a Server, check whether the server will go for a break. If the
      * server is going for a break, the pair returned will be of the server
      * being unavailable to serve or wait a customer, and the next
@@ -209,11 +965,14 @@ public class Simulation {
      * @param event DoneEvent.
      */
     private void handleDone(Event event) {
-        System.out.println(event);
+        output.accept(event);
         Pair<Shop, Event> pair;
         if (event.getServer() instanceof SelfCheckOut) {
-            updateSelfCheckOut(event.getServer());
             pair = event.execute(shop);
+            List<Customer> sharedQueue = pair.first().getPool().getQueue();
+            if (!sharedQueue.isEmpty()) {
+                events.add(new ServeEvent(sharedQueue.get(0), event.getServer()));
+            }
         } else {
             if (generator.get().genRandomRest() < probRest) {
                 pair = event.execute(shop, 0.0);
@@ -233,11 +992,15 @@ public class Simulation {
      * updated shop to update the server going for a rest and increment its
      * nextAvailableTime with its resting time, and a ServerBackEvent. Add
      * the ServerBackEvent into the priority queue of the events, and update
-     * the shop in the simulation with the resting server.
+     * the shop in the simulation with the resting server. The rest is
+     * recorded by the WaitGradient if there is one.
      * @param event RestEvent.
      */
     private void handleRest(Event event) {
         double restTime = generator.get().genRestPeriod();
+        if (gradient != null) {
+            gradient.rest(event.getServer(), restTime);
+        }
         updateTime(restTime, event);
         Pair<Shop, Event> pair = event.execute(shop, restTime);
         events.add(pair.second());
@@ -261,41 +1024,44 @@ public class Simulation {
      * Update events in the priority queue if the event is a serve event, and
      * the server in the ServeEvent is the same as the Server in the event in
      * the input. Updated event will have its start time increased based on
-     * the time param.
+     * the time param. A JfrRebuildEvent is committed if a flight recording
+     * enables it.
      * @param time time used to increment the start time of the ServeEvents
      *             that have the same ServerI.
      * @param event event that contains the ServerI used to check which
      *              events to update.
      */
     private void updateTime(double time, Event event) {
+        JfrRebuildEvent jfr = new JfrRebuildEvent();
+        jfr.begin();
+        int updated = 0;
         ArrayList<Event> temp = new ArrayList<>();
         for (Event e : events) {
             if (e.getServer().equals(event.getServer()) &&
                     e.getStatus() == EventStatus.SERVE) {
                 temp.add(new ServeEvent(time, e));
+                updated++;
             } else {
                 temp.add(e);
             }
         }
         events = new PriorityQueue<>(temp);
+        commitRebuild(jfr, "updateTime", updated);
     }
 
     /**
-     * Update all ServeEvents with a SelfCheckOut in the priority queue of
-     * events to take in the earliest SelfCheckOut, which is the input.
-     * @param s the earliest SelfCheckOut that can be used at the current
-     *          instance.
+     * Commit the JfrRebuildEvent of a rebuild of the priority queue of events
+     * if a flight recording enables it.
+     * @param jfr the event, begun before the rebuild.
+     * @param kind the method that rebuilt the queue.
+     * @param updated number of ServeEvents rewritten.
      */
-    private void updateSelfCheckOut(ServerI s) {
-        ArrayList<Event> temp = new ArrayList<>();
-        for (Event e : events) {
-            if (e.getServer() instanceof SelfCheckOut &&
-                    e.getStatus() == EventStatus.SERVE) {
-                temp.add(new ServeEvent(e.getCustomer(), s));
-            } else {
-                temp.add(e);
-            }
+    private void commitRebuild(JfrRebuildEvent jfr, String kind, int updated) {
+        if (jfr.shouldCommit()) {
+            jfr.kind = kind;
+            jfr.size = events.size();
+            jfr.updated = updated;
+            jfr.commit();
         }
-        events = new PriorityQueue<>(temp);
     }
 }
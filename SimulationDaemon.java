@@ -0,0 +1,73 @@
+import cs2030.simulator.ResultCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-lived simulation daemon that keeps the JVM warm between scenarios.
+ * Each request is one line in the format of ScenarioPipeline. Requests run
+ * in parallel on a fixed pool of one thread per processor shared by all
+ * connections, as they are CPU-bound, while each connection is read and
+ * written on a thread of its own, as it blocks on I/O. The replies of one
+ * connection are written in the order of its requests, and at most
+ * IN_FLIGHT_PER_THREAD requests per thread of a connection are pending at a
+ * time.
+ * Usage: [--cache file] [port]. Without a port, stdin is served, else
+ * connections on the loopback address are. With a cache file, repeated
+ * scenarios are answered from a ResultCache instead of being simulated, and
+ * the cache is closed when the daemon shuts down.
+ */
+public class SimulationDaemon {
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+    private static final int CACHE_CAPACITY = 1 << 16;
+
+    /**
+     * Main method to serve stdin, or the loopback port given as argument.
+     * @param args command line arguments.
+     * @throws IOException if the port or the cache cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        ResultCache cache = null;
+        if (args.length >= 2 && args[0].equals("--cache")) {
+            cache = new ResultCache(Paths.get(args[1]), CACHE_CAPACITY);
+            Runtime.getRuntime().addShutdownHook(new Thread(cache::close));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ScenarioPipeline pipeline = new ScenarioPipeline(workers,
+                threads * IN_FLIGHT_PER_THREAD, cache);
+        if (args.length == 0) {
+            pipeline.run(new BufferedReader(new InputStreamReader(System.in,
+                    StandardCharsets.UTF_8)), new PrintWriter(System.out, true));
+            workers.shutdown();
+            return;
+        }
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(Integer.parseInt(args[0]),
+                50, InetAddress.getLoopbackAddress())) {
+            while (true) {
+                Socket socket = server.accept();
+                connections.execute(() -> {
+                    try (Socket s = socket) {
+                        pipeline.run(new BufferedReader(new InputStreamReader(
+                                s.getInputStream(), StandardCharsets.UTF_8)),
+                                new PrintWriter(s.getOutputStream(), true));
+                    } catch (IOException e) {
+                        System.err.println("error " + e.getMessage());
+                    }
+                });
+            }
+        }
+    }
+}
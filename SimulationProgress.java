@@ -0,0 +1,65 @@
+package cs2030.simulator;
+
+/**
+ * SimulationProgress published by a running Simulation for a
+ * ProgressReporter. Only the simulation thread writes the fields, every
+ * PUBLISH_EVERY events, so the hot loop never synchronises and the reporter
+ * reads a view that is at most PUBLISH_EVERY events old. The fields are
+ * volatile so the reporter thread sees them.
+ * SimulationProgress contains double clock, long handled, long done and int
+ * pending.
+ */
+class SimulationProgress {
+    static final int PUBLISH_EVERY = 1024;
+    private volatile double clock = 0;
+    private volatile long handled = 0;
+    private volatile long done = 0;
+    private volatile int pending = 0;
+
+    /**
+     * Publish the progress of the simulation. Must only be called by the
+     * simulation thread.
+     * @param clock simulated time of the last event.
+     * @param handled number of events handled.
+     * @param done number of customers served or left.
+     * @param pending number of pending events.
+     */
+    void publish(double clock, long handled, long done, int pending) {
+        this.clock = clock;
+        this.handled = handled;
+        this.done = done;
+        this.pending = pending;
+    }
+
+    /**
+     * Retrieve the simulated time of the last event.
+     * @return clock.
+     */
+    double getClock() {
+        return clock;
+    }
+
+    /**
+     * Retrieve the number of events handled.
+     * @return handled.
+     */
+    long getHandled() {
+        return handled;
+    }
+
+    /**
+     * Retrieve the number of customers served or left.
+     * @return done.
+     */
+    long getDone() {
+        return done;
+    }
+
+    /**
+     * Retrieve the number of pending events.
+     * @return pending.
+     */
+    int getPending() {
+        return pending;
+    }
+}
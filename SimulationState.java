@@ -0,0 +1,100 @@
+package cs2030.simulator;
+
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * SimulationState is a saved state of a Simulation, used to roll the
+ * simulation back. It is only read by Simulation.restore, which copies the
+ * mutable parts out again, so one SimulationState can be restored many times.
+ * SimulationState contains PriorityQueue events, Shop shop, List sharedQueue,
+ * List counters, long[] rngState, long arrivalPosition, int nextId, double
+ * nextArrivalTime, int served, int left, int transferred, int reneged,
+ * double totalWaitTime, double totalServiceTime, double
+ * totalInterArrivalTime, int interArrivals, double clock, TimingWheel
+ * timers, Set renegedIds, long[] digestState and WaitGradient gradient.
+ */
+class SimulationState {
+    final PriorityQueue<Event> events;
+    final Shop shop;
+    final List<Customer> sharedQueue;
+    final List<SelfCheckOut> counters;
+    final long[] rngState;
+    final long arrivalPosition;
+    final int nextId;
+    final double nextArrivalTime;
+    final int served;
+    final int left;
+    final int transferred;
+    final int reneged;
+    final double totalWaitTime;
+    final double totalServiceTime;
+    final double totalInterArrivalTime;
+    final int interArrivals;
+    final double clock;
+    final TimingWheel<RenegeEvent> timers;
+    final Set<Integer> renegedIds;
+    final long[] digestState;
+    final WaitGradient gradient;
+
+    /**
+     * Constructs a SimulationState. The arguments must not be modified
+     * afterwards.
+     * @param events pending events of the simulation.
+     * @param shop the shop of the simulation.
+     * @param sharedQueue customers waiting for the SelfCheckOuts.
+     * @param counters states of the SelfCheckOuts.
+     * @param rngState states of the random streams.
+     * @param arrivalPosition position of the ArrivalSourceI, or -1 if
+     *     there is none.
+     * @param nextId identifier of the next customer to arrive.
+     * @param nextArrivalTime arrival time of the last customer generated.
+     * @param served number of customers served.
+     * @param left number of customers who left.
+     * @param transferred number of customers transferred out.
+     * @param reneged number of customers who reneged.
+     * @param totalWaitTime total waiting time of the customers served.
+     * @param totalServiceTime total of the service times drawn.
+     * @param totalInterArrivalTime total of the inter-arrival times drawn.
+     * @param interArrivals number of inter-arrival times drawn.
+     * @param clock time of the last executed event.
+     * @param timers pending timers of the waiting customers, or null if
+     *     customers do not renege.
+     * @param renegedIds customers who reneged and whose ServeEvent is pending.
+     * @param digestState state of the EventDigest, or null if there is none.
+     * @param gradient copy of the WaitGradient, or null if there is none.
+     */
+    SimulationState(PriorityQueue<Event> events, Shop shop,
+                    List<Customer> sharedQueue, List<SelfCheckOut> counters,
+                    long[] rngState, long arrivalPosition, int nextId,
+                    double nextArrivalTime, int served, int left,
+                    int transferred, int reneged, double totalWaitTime,
+                    double totalServiceTime, double totalInterArrivalTime,
+                    int interArrivals, double clock,
+                    TimingWheel<RenegeEvent> timers, Set<Integer> renegedIds,
+                    long[] digestState,
+                    WaitGradient gradient) {
+        this.events = events;
+        this.shop = shop;
+        this.sharedQueue = sharedQueue;
+        this.counters = counters;
+        this.rngState = rngState;
+        this.arrivalPosition = arrivalPosition;
+        this.nextId = nextId;
+        this.nextArrivalTime = nextArrivalTime;
+        this.served = served;
+        this.left = left;
+        this.transferred = transferred;
+        this.reneged = reneged;
+        this.totalWaitTime = totalWaitTime;
+        this.totalServiceTime = totalServiceTime;
+        this.totalInterArrivalTime = totalInterArrivalTime;
+        this.interArrivals = interArrivals;
+        this.clock = clock;
+        this.timers = timers;
+        this.renegedIds = renegedIds;
+        this.digestState = digestState;
+        this.gradient = gradient;
+    }
+}
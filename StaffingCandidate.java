@@ -0,0 +1,233 @@
+package cs2030.simulator;
+
+/**
+ * StaffingCandidate is one configuration of the shop considered by a
+ * StaffingOptimiser: a number of servers, a number of self-checkouts and a
+ * maximum queue length, with its cost. The 'StaffingCandidate' class
+ * supports operators that includes: (i) Retrieve the configuration and its
+ * cost. (ii) Adding the average waiting time and the leave rate of a
+ * replication. (iii) Retrieve the statistics of the replications. (iv)
+ * Retrieve and set the status of the candidate and of each constraint.
+ * (v) Retrieve the simulation parameters of a replication.
+ * The variances of the first stage of replications are kept once they are
+ * all in, as the sequential procedure uses them for the rest of the search.
+ * StaffingCandidate contains int numServers, int numSelfCheckout, int
+ * maxQueueLength, double cost, RunningStat waits, RunningStat leaveRates,
+ * double waitVariance, double leaveVariance, CandidateStatus status,
+ * CandidateStatus waitStatus, CandidateStatus leaveStatus and boolean
+ * truncated.
+ */
+public class StaffingCandidate {
+    private final int numServers;
+    private final int numSelfCheckout;
+    private final int maxQueueLength;
+    private final double cost;
+    private final RunningStat waits = new RunningStat();
+    private final RunningStat leaveRates = new RunningStat();
+    private double waitVariance = Double.NaN;
+    private double leaveVariance = Double.NaN;
+    private CandidateStatus status = CandidateStatus.UNDECIDED;
+    private CandidateStatus waitStatus = CandidateStatus.UNDECIDED;
+    private CandidateStatus leaveStatus = CandidateStatus.UNDECIDED;
+    private boolean truncated = false;
+
+    /**
+     * Constructs a StaffingCandidate.
+     * @param numServers number of servers.
+     * @param numSelfCheckout number of self-checkouts.
+     * @param maxQueueLength maximum queue length.
+     * @param cost cost of the configuration.
+     */
+    public StaffingCandidate(int numServers, int numSelfCheckout,
+                             int maxQueueLength, double cost) {
+        this.numServers = numServers;
+        this.numSelfCheckout = numSelfCheckout;
+        this.maxQueueLength = maxQueueLength;
+        this.cost = cost;
+    }
+
+    /**
+     * Retrieve the number of servers.
+     * @return numServers.
+     */
+    public int getNumServers() {
+        return numServers;
+    }
+
+    /**
+     * Retrieve the number of self-checkouts.
+     * @return numSelfCheckout.
+     */
+    public int getNumSelfCheckout() {
+        return numSelfCheckout;
+    }
+
+    /**
+     * Retrieve the maximum queue length.
+     * @return maxQueueLength.
+     */
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    /**
+     * Retrieve the cost of the configuration.
+     * @return cost.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Add the averages of a replication, keeping the variances of the first
+     * stage once it has firstStage replications.
+     * @param wait average waiting time of the replication.
+     * @param leaveRate leave rate of the replication.
+     * @param firstStage number of replications of the first stage.
+     */
+    void add(double wait, double leaveRate, int firstStage) {
+        waits.add(wait);
+        leaveRates.add(leaveRate);
+        if (waits.getCount() == firstStage) {
+            waitVariance = waits.getVariance();
+            leaveVariance = leaveRates.getVariance();
+        }
+    }
+
+    /**
+     * Retrieve the number of replications.
+     * @return number of replications.
+     */
+    public int getReplications() {
+        return waits.getCount();
+    }
+
+    /**
+     * Retrieve the statistics of the average waiting times.
+     * @return waits.
+     */
+    public RunningStat getWaits() {
+        return waits;
+    }
+
+    /**
+     * Retrieve the statistics of the leave rates.
+     * @return leaveRates.
+     */
+    public RunningStat getLeaveRates() {
+        return leaveRates;
+    }
+
+    /**
+     * Retrieve the variance of the average waiting times of the first stage.
+     * @return waitVariance, or NaN before the first stage is in.
+     */
+    double getWaitVariance() {
+        return waitVariance;
+    }
+
+    /**
+     * Retrieve the variance of the leave rates of the first stage.
+     * @return leaveVariance, or NaN before the first stage is in.
+     */
+    double getLeaveVariance() {
+        return leaveVariance;
+    }
+
+    /**
+     * Retrieve the status of the candidate.
+     * @return status.
+     */
+    public CandidateStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Set the status of the candidate.
+     * @param status the status.
+     */
+    void setStatus(CandidateStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Retrieve the status of the constraint on the average waiting time.
+     * @return waitStatus.
+     */
+    public CandidateStatus getWaitStatus() {
+        return waitStatus;
+    }
+
+    /**
+     * Set the status of the constraint on the average waiting time.
+     * @param waitStatus the status.
+     */
+    void setWaitStatus(CandidateStatus waitStatus) {
+        this.waitStatus = waitStatus;
+    }
+
+    /**
+     * Retrieve the status of the constraint on the leave rate.
+     * @return leaveStatus.
+     */
+    public CandidateStatus getLeaveStatus() {
+        return leaveStatus;
+    }
+
+    /**
+     * Set the status of the constraint on the leave rate.
+     * @param leaveStatus the status.
+     */
+    void setLeaveStatus(CandidateStatus leaveStatus) {
+        this.leaveStatus = leaveStatus;
+    }
+
+    /**
+     * Retrieve the boolean of whether a constraint was decided by its sample
+     * mean because the budget of replications ran out.
+     * @return truncated.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Mark that a constraint was decided by its sample mean.
+     */
+    void truncate() {
+        truncated = true;
+    }
+
+    /**
+     * Return the simulation parameters of a replication of the candidate:
+     * the base parameters with the configuration of the candidate, and the
+     * base seed plus 6r for replication r, so that every candidate uses the
+     * same random numbers in the same replication.
+     * @param args the base simulation parameters.
+     * @param replication index of the replication, starting from 0.
+     * @return the simulation parameters.
+     */
+    String[] args(String[] args, int replication) {
+        String[] replicationArgs = args.clone();
+        replicationArgs[0] = String.valueOf(Integer.parseInt(args[0])
+                + 6 * replication);
+        replicationArgs[1] = String.valueOf(numServers);
+        replicationArgs[2] = String.valueOf(numSelfCheckout);
+        replicationArgs[3] = String.valueOf(maxQueueLength);
+        return replicationArgs;
+    }
+
+    /**
+     * Return String representation of the candidate.
+     * @return the configuration, the cost, the status, the number of
+     *     replications and the statistics of the waiting time and the leave
+     *     rate.
+     */
+    @Override
+    public String toString() {
+        return String.format("[%d %d %d] cost %.2f %s %d %s %s%s", numServers,
+                numSelfCheckout, maxQueueLength, cost, status,
+                getReplications(), waits, leaveRates, truncated ? " truncated"
+                : "");
+    }
+}
@@ -0,0 +1,317 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * StaffingOptimiser finds the cheapest StaffingCandidate whose expected
+ * average waiting time and leave rate meet a service level, by a
+ * sequential feasibility check in the manner of Kim and Nelson, run on the
+ * candidates in parallel. The 'StaffingOptimiser' class supports operators
+ * that includes: (i) Adding a candidate. (ii) Running the search. (iii)
+ * Retrieve the candidates, the winner and the number of replications used.
+ * (iv) Retrieve the confidence statement of the winner.
+ * The candidates are searched in order of cost, and at most threads of the
+ * cheapest undecided candidates cheaper than the cheapest feasible one are
+ * simulated at a time, one replication each per round after a first stage
+ * of firstStage replications. For each constraint, with threshold q,
+ * tolerance e and first-stage variance S^2, the sum R of Y - q over the r
+ * replications is compared with the boundary max(0, h^2 S^2 / (2e) - e r /
+ * 2): the constraint is met once R is at most minus the boundary and
+ * violated once R is at least the boundary, so a candidate that clearly
+ * misses the level is dropped after few replications. h^2 is set so that
+ * every decision of every candidate is correct up to the tolerance with the
+ * confidence level, by the Bonferroni inequality. A candidate is feasible
+ * once both constraints are met and infeasible once one is violated, and
+ * every candidate after the cheapest feasible one is pruned without being
+ * simulated further. Replication r of every candidate uses the same seeds,
+ * as in ReplicationController, so the decision of a candidate, and the
+ * winner, do not depend on the number of threads, and only how far the
+ * pruned candidates got does. A constraint still undecided after
+ * maxReplications is decided by its sample mean, which the confidence
+ * statement does not cover.
+ * StaffingOptimiser contains String[] args, double maxWait, double
+ * maxLeaveRate, double confidence, double tolerance, int firstStage, int
+ * maxReplications, int threads, List candidates, double hSquared,
+ * StaffingCandidate winner and long replications.
+ */
+public class StaffingOptimiser {
+    private final String[] args;
+    private final double maxWait;
+    private final double maxLeaveRate;
+    private final double confidence;
+    private final double tolerance;
+    private final int firstStage;
+    private final int maxReplications;
+    private final int threads;
+    private final List<StaffingCandidate> candidates = new ArrayList<>();
+    private double hSquared = Double.NaN;
+    private StaffingCandidate winner = null;
+    private long replications = 0;
+
+    /**
+     * Constructs a StaffingOptimiser.
+     * @param args the ten or eleven simulation parameters, whose numbers of
+     *     servers and self-checkouts and maximum queue length are replaced
+     *     by those of each candidate.
+     * @param maxWait highest acceptable expected average waiting time.
+     * @param maxLeaveRate highest acceptable expected leave rate.
+     * @param confidence confidence level of the decisions, such as 0.95.
+     * @param tolerance tolerance of each constraint relative to its
+     *     threshold, such as 0.1.
+     * @param firstStage number of replications of the first stage, at least
+     *     2.
+     * @param maxReplications maximum number of replications of a candidate.
+     * @param threads number of worker threads.
+     * @throws IllegalArgumentException if a threshold or the tolerance is
+     *     not positive, or the first stage has fewer than 2 replications.
+     */
+    public StaffingOptimiser(String[] args, double maxWait,
+                             double maxLeaveRate, double confidence,
+                             double tolerance, int firstStage,
+                             int maxReplications, int threads) {
+        if (!(maxWait > 0) || !(maxLeaveRate > 0) || !(tolerance > 0)) {
+            throw new IllegalArgumentException(
+                    "thresholds and tolerance must be positive");
+        } else if (firstStage < 2) {
+            throw new IllegalArgumentException(
+                    "first stage needs at least 2 replications");
+        }
+        this.args = args;
+        this.maxWait = maxWait;
+        this.maxLeaveRate = maxLeaveRate;
+        this.confidence = confidence;
+        this.tolerance = tolerance;
+        this.firstStage = firstStage;
+        this.maxReplications = Math.max(firstStage, maxReplications);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Add a candidate to the search.
+     * @param candidate the candidate.
+     */
+    public void add(StaffingCandidate candidate) {
+        candidates.add(candidate);
+    }
+
+    /**
+     * Run the search until the cheapest feasible candidate is found, or
+     * every candidate is found infeasible.
+     * @return the winner, or null if no candidate is feasible.
+     */
+    public StaffingCandidate run() {
+        candidates.sort(Comparator.comparingDouble(StaffingCandidate::getCost)
+                .thenComparingInt(StaffingCandidate::getNumServers)
+                .thenComparingInt(StaffingCandidate::getNumSelfCheckout)
+                .thenComparingInt(StaffingCandidate::getMaxQueueLength));
+        double beta = (1 - confidence) / (2.0 * Math.max(1, candidates.size()));
+        hSquared = (firstStage - 1)
+                * (Math.pow(2 * beta, -2.0 / (firstStage - 1)) - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<StaffingCandidate> active = prune();
+            while (!active.isEmpty()) {
+                runRound(pool, active);
+                for (StaffingCandidate candidate : active) {
+                    decide(candidate);
+                }
+                active = prune();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return winner;
+    }
+
+    /**
+     * Set the winner to the cheapest feasible candidate, prune the
+     * candidates after it, and return the undecided candidates to simulate
+     * next.
+     * @return at most threads of the cheapest undecided candidates.
+     */
+    private List<StaffingCandidate> prune() {
+        List<StaffingCandidate> active = new ArrayList<>();
+        winner = null;
+        for (StaffingCandidate candidate : candidates) {
+            if (winner != null) {
+                if (candidate.getStatus() == CandidateStatus.UNDECIDED) {
+                    candidate.setStatus(CandidateStatus.PRUNED);
+                }
+            } else if (candidate.getStatus() == CandidateStatus.FEASIBLE) {
+                winner = candidate;
+            } else if (candidate.getStatus() == CandidateStatus.UNDECIDED
+                    && active.size() < threads) {
+                active.add(candidate);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Run the next replications of the candidates in parallel: the rest of
+     * the first stage, or one more, and add them in replication order.
+     * @param pool the worker threads.
+     * @param active the candidates to simulate.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws ExecutionException if a replication failed.
+     */
+    private void runRound(ExecutorService pool, List<StaffingCandidate> active)
+            throws InterruptedException, ExecutionException {
+        List<Callable<double[]>> batch = new ArrayList<>();
+        List<StaffingCandidate> owners = new ArrayList<>();
+        for (StaffingCandidate candidate : active) {
+            int done = candidate.getReplications();
+            int next = done < firstStage ? firstStage : done + 1;
+            for (int r = done; r < next; r++) {
+                String[] replicationArgs = candidate.args(args, r);
+                batch.add(() -> replicate(replicationArgs));
+                owners.add(candidate);
+            }
+        }
+        List<Future<double[]>> futures = pool.invokeAll(batch);
+        for (int i = 0; i < futures.size(); i++) {
+            double[] result = futures.get(i).get();
+            owners.get(i).add(result[0], result[1], firstStage);
+        }
+        replications += batch.size();
+    }
+
+    /**
+     * Run one replication without printing its events.
+     * @param replicationArgs the simulation parameters of the replication.
+     * @return the average waiting time and the leave rate.
+     */
+    private static double[] replicate(String[] replicationArgs) {
+        Simulation simulation = new Simulation(replicationArgs);
+        simulation.setOutput(event -> { });
+        simulation.simulate();
+        return new double[] {simulation.averageWaitTime(),
+            ReplicationController.leaveRate(simulation)};
+    }
+
+    /**
+     * Decide the constraints of the candidate that the replications so far
+     * settle, and the candidate once one is violated or both are met.
+     * @param candidate the candidate.
+     */
+    private void decide(StaffingCandidate candidate) {
+        int r = candidate.getReplications();
+        if (r < firstStage) {
+            return;
+        }
+        boolean last = r >= maxReplications;
+        if (candidate.getWaitStatus() == CandidateStatus.UNDECIDED) {
+            candidate.setWaitStatus(check(candidate.getWaits(),
+                    candidate.getWaitVariance(), maxWait, last));
+        }
+        if (candidate.getLeaveStatus() == CandidateStatus.UNDECIDED) {
+            candidate.setLeaveStatus(check(candidate.getLeaveRates(),
+                    candidate.getLeaveVariance(), maxLeaveRate, last));
+        }
+        if (last) {
+            candidate.truncate();
+        }
+        if (candidate.getWaitStatus() == CandidateStatus.INFEASIBLE
+                || candidate.getLeaveStatus() == CandidateStatus.INFEASIBLE) {
+            candidate.setStatus(CandidateStatus.INFEASIBLE);
+        } else if (candidate.getWaitStatus() == CandidateStatus.FEASIBLE
+                && candidate.getLeaveStatus() == CandidateStatus.FEASIBLE) {
+            candidate.setStatus(CandidateStatus.FEASIBLE);
+        }
+    }
+
+    /**
+     * Return the decision of one constraint: whether the sum of the
+     * deviations of the replications from the threshold has left the
+     * triangular continuation region, or the sign of the deviation of the
+     * sample mean once the replications are used up.
+     * @param stat the statistics of the replications.
+     * @param variance the variance of the first stage.
+     * @param threshold the threshold of the constraint.
+     * @param last whether the replications are used up.
+     * @return the decision, which may be UNDECIDED.
+     */
+    private CandidateStatus check(RunningStat stat, double variance,
+                                  double threshold, boolean last) {
+        double epsilon = tolerance * threshold;
+        int r = stat.getCount();
+        double sum = r * (stat.getMean() - threshold);
+        double boundary = Math.max(0,
+                hSquared * variance / (2 * epsilon) - epsilon * r / 2);
+        if (sum <= -boundary || (last && sum <= 0)) {
+            return CandidateStatus.FEASIBLE;
+        } else if (sum >= boundary || last) {
+            return CandidateStatus.INFEASIBLE;
+        }
+        return CandidateStatus.UNDECIDED;
+    }
+
+    /**
+     * Retrieve the candidates, in order of cost once the search has run.
+     * @return candidates.
+     */
+    public List<StaffingCandidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Retrieve the winner of the search.
+     * @return winner, or null if no candidate is feasible.
+     */
+    public StaffingCandidate getWinner() {
+        return winner;
+    }
+
+    /**
+     * Retrieve the number of replications run by the search.
+     * @return replications.
+     */
+    public long getReplications() {
+        return replications;
+    }
+
+    /**
+     * Return the confidence statement of the search: with the confidence
+     * level, the winner meets each threshold up to its tolerance and every
+     * cheaper candidate misses one of them by more than its tolerance.
+     * @return the statement.
+     */
+    public String statement() {
+        double waitTolerance = tolerance * maxWait;
+        double leaveTolerance = tolerance * maxLeaveRate;
+        boolean truncated = false;
+        for (StaffingCandidate candidate : candidates) {
+            truncated |= candidate.isTruncated();
+        }
+        String cheaper = String.format("every %scandidate has an average "
+                + "waiting time above %.3f or a leave rate above %.3f",
+                winner == null ? "" : "cheaper ", maxWait - waitTolerance,
+                maxLeaveRate - leaveTolerance);
+        String statement;
+        if (winner == null) {
+            statement = String.format("with confidence %.3f, %s", confidence,
+                    cheaper);
+        } else {
+            statement = String.format("with confidence %.3f, [%d %d %d] has an "
+                    + "average waiting time of at most %.3f and a leave rate "
+                    + "of at most %.3f, and %s", confidence,
+                    winner.getNumServers(), winner.getNumSelfCheckout(),
+                    winner.getMaxQueueLength(), maxWait + waitTolerance,
+                    maxLeaveRate + leaveTolerance, cheaper);
+        }
+        return truncated ? statement + ", except for the candidates whose "
+                + "replications ran out" : statement;
+    }
+}
@@ -0,0 +1,115 @@
+import cs2030.simulator.StaffingCandidate;
+import cs2030.simulator.StaffingOptimiser;
+
+import java.util.Arrays;
+
+/**
+ * Search for the cheapest staffing of a scenario that meets a service
+ * level on the average waiting time and the leave rate. Every combination
+ * of a number of servers, a number of self-checkouts and a maximum queue
+ * length in the given ranges is a candidate, except those without any
+ * server, and costs the sum of its numbers weighted by the given costs. The
+ * candidates are printed one per line in order of cost, followed by the
+ * winner, the confidence statement, and the number of replications used
+ * against the number a search of every candidate with the maximum number
+ * of replications would use.
+ * Usage: [--servers a:b] [--selfcheckouts a:b] [--queues q1,q2,...]
+ * [--costs server,selfcheckout,queue] [--max-wait w] [--max-leave-rate l]
+ * [--confidence c] [--tolerance t] [--initial n] [--max-replications n]
+ * [--threads n] [the arguments of Main].
+ */
+public class StaffingSearch {
+
+    /**
+     * Main method to search the staffing of the scenario given as argument.
+     * @param args command line arguments.
+     */
+    public static void main(String[] args) {
+        int[] servers = {1, 4};
+        int[] selfCheckouts = {0, 2};
+        int[] queues = {1, 2, 5};
+        double[] costs = {1, 0.5, 0.05};
+        double maxWait = 1.0;
+        double maxLeaveRate = 0.05;
+        double confidence = 0.95;
+        double tolerance = 0.1;
+        int initial = 10;
+        int maxReplications = 500;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int i = 0;
+        while (i + 1 < args.length && args[i].startsWith("--")) {
+            String value = args[i + 1];
+            if (args[i].equals("--servers")) {
+                servers = range(value);
+            } else if (args[i].equals("--selfcheckouts")) {
+                selfCheckouts = range(value);
+            } else if (args[i].equals("--queues")) {
+                queues = Arrays.stream(value.split(","))
+                        .mapToInt(Integer::parseInt).toArray();
+            } else if (args[i].equals("--costs")) {
+                costs = Arrays.stream(value.split(","))
+                        .mapToDouble(Double::parseDouble).toArray();
+                if (costs.length != 3) {
+                    throw new IllegalArgumentException("three costs expected");
+                }
+            } else if (args[i].equals("--max-wait")) {
+                maxWait = Double.parseDouble(value);
+            } else if (args[i].equals("--max-leave-rate")) {
+                maxLeaveRate = Double.parseDouble(value);
+            } else if (args[i].equals("--confidence")) {
+                confidence = Double.parseDouble(value);
+            } else if (args[i].equals("--tolerance")) {
+                tolerance = Double.parseDouble(value);
+            } else if (args[i].equals("--initial")) {
+                initial = Integer.parseInt(value);
+            } else if (args[i].equals("--max-replications")) {
+                maxReplications = Integer.parseInt(value);
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(value);
+            } else {
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+            i += 2;
+        }
+        String[] scenario = Main.normalise(Arrays.copyOfRange(args, i,
+                args.length));
+        StaffingOptimiser optimiser = new StaffingOptimiser(scenario, maxWait,
+                maxLeaveRate, confidence, tolerance, initial, maxReplications,
+                threads);
+        int count = 0;
+        for (int s = servers[0]; s <= servers[1]; s++) {
+            for (int c = selfCheckouts[0]; c <= selfCheckouts[1]; c++) {
+                if (s + c == 0) {
+                    continue;
+                }
+                for (int q : queues) {
+                    optimiser.add(new StaffingCandidate(s, c, q,
+                            costs[0] * s + costs[1] * c + costs[2] * q));
+                    count++;
+                }
+            }
+        }
+        StaffingCandidate winner = optimiser.run();
+        for (StaffingCandidate candidate : optimiser.getCandidates()) {
+            System.out.println(candidate);
+        }
+        System.out.println(winner == null ? "no feasible candidate"
+                : "winner " + winner);
+        System.out.println(optimiser.statement());
+        System.out.printf("%d replications, %d for every candidate%n",
+                optimiser.getReplications(),
+                (long) count * Math.max(initial, maxReplications));
+    }
+
+    /**
+     * Parse an inclusive range of the form a:b, or a single number.
+     * @param value the range.
+     * @return the first and the last number of the range.
+     */
+    private static int[] range(String value) {
+        String[] bounds = value.split(":");
+        int first = Integer.parseInt(bounds[0]);
+        int last = Integer.parseInt(bounds[bounds.length - 1]);
+        return new int[] {first, last};
+    }
+}
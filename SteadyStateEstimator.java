@@ -0,0 +1,174 @@
+package cs2030.simulator;
+
+import java.util.Arrays;
+
+/**
+ * SteadyStateEstimator of the average waiting time of a single long run. The
+ * 'SteadyStateEstimator' class supports operators that includes: (i) Adding
+ * the waiting time of a served customer. (ii) Retrieve the number of
+ * observations deleted as warm-up. (iii) Retrieve the steady-state mean.
+ * (iv) Retrieve the half-width of its confidence interval. (v) Retrieve the
+ * boolean of whether the target precision is reached.
+ * The warm-up is deleted with MSER-5: the waiting times are averaged in
+ * batches of 5, and the truncation point minimising the squared standard
+ * error of the remaining batches is chosen among the first half of the
+ * series. The confidence interval is computed with the method of batch means
+ * on the remaining observations.
+ * SteadyStateEstimator contains double[] waits, int size, double precision,
+ * double confidence and int batches.
+ */
+public class SteadyStateEstimator {
+    private static final int MSER_BATCH = 5;
+    private double[] waits = new double[1024];
+    private int size = 0;
+    private final double precision;
+    private final double confidence;
+    private final int batches;
+
+    /**
+     * Constructs a SteadyStateEstimator.
+     * @param precision target half-width of the confidence interval,
+     *                  relative to the mean.
+     * @param confidence confidence level, such as 0.95.
+     * @param batches number of batches of the batch means, at least 2.
+     */
+    public SteadyStateEstimator(double precision, double confidence,
+                                int batches) {
+        this.precision = precision;
+        this.confidence = confidence;
+        this.batches = batches;
+    }
+
+    /**
+     * Add the waiting time of the next customer served.
+     * @param wait waiting time of the customer.
+     */
+    public void add(double wait) {
+        if (size == waits.length) {
+            waits = Arrays.copyOf(waits, size * 2);
+        }
+        waits[size++] = wait;
+    }
+
+    /**
+     * Retrieve the number of waiting times added.
+     * @return size.
+     */
+    public int getObservations() {
+        return size;
+    }
+
+    /**
+     * Return the number of observations deleted as warm-up using MSER-5.
+     * If the minimum is at the end of the first half of the series, the run
+     * is too short to tell where the warm-up ends and the whole first half
+     * is deleted.
+     * @return number of observations deleted, a multiple of 5.
+     */
+    public int truncation() {
+        int n = size / MSER_BATCH;
+        if (n < 2) {
+            return 0;
+        }
+        double[] means = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            for (int j = i * MSER_BATCH; j < (i + 1) * MSER_BATCH; j++) {
+                sum += waits[j];
+            }
+            means[i] = sum / MSER_BATCH;
+        }
+        double sum = 0;
+        double sumSquares = 0;
+        double best = Double.POSITIVE_INFINITY;
+        int bestD = 0;
+        for (int d = n - 1; d >= 0; d--) {
+            sum += means[d];
+            sumSquares += means[d] * means[d];
+            int remaining = n - d;
+            if (d <= n / 2) {
+                double mser = (sumSquares - sum * sum / remaining)
+                        / ((double) remaining * remaining);
+                if (mser <= best) {
+                    best = mser;
+                    bestD = d;
+                }
+            }
+        }
+        return bestD * MSER_BATCH;
+    }
+
+    /**
+     * Return the mean waiting time after deleting the warm-up.
+     * @return steady-state mean waiting time, or 0 if there are no
+     *     observations.
+     */
+    public double mean() {
+        int start = truncation();
+        if (start == size) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = start; i < size; i++) {
+            sum += waits[i];
+        }
+        return sum / (size - start);
+    }
+
+    /**
+     * Return the half-width of the confidence interval of the steady-state
+     * mean using the method of batch means. The observations after the
+     * warm-up are split into equal batches, dropping the remainder at the
+     * start.
+     * @return half-width, or positive infinity if there are fewer than
+     *     MSER_BATCH observations per batch.
+     */
+    public double halfWidth() {
+        int start = truncation();
+        int batchSize = (size - start) / batches;
+        if (batchSize < MSER_BATCH) {
+            return Double.POSITIVE_INFINITY;
+        }
+        start = size - batchSize * batches;
+        double[] means = new double[batches];
+        double grand = 0;
+        for (int b = 0; b < batches; b++) {
+            double sum = 0;
+            for (int i = start + b * batchSize; i < start + (b + 1) * batchSize;
+                    i++) {
+                sum += waits[i];
+            }
+            means[b] = sum / batchSize;
+            grand += means[b];
+        }
+        grand /= batches;
+        double variance = 0;
+        for (double mean : means) {
+            variance += (mean - grand) * (mean - grand);
+        }
+        variance /= batches - 1;
+        return StudentT.halfWidth(variance, batches, confidence);
+    }
+
+    /**
+     * Return the boolean of whether the confidence interval is as narrow as
+     * the target precision.
+     * @return true if the half-width is at most the precision times the
+     *     mean, else false.
+     */
+    public boolean isPrecise() {
+        return halfWidth() <= precision * mean();
+    }
+
+    /**
+     * Return String representation of the estimate.
+     * @return the steady-state mean waiting time, the half-width of its
+     *     confidence interval, the number of observations deleted as warm-up
+     *     and the number of observations.
+     */
+    @Override
+    public String toString() {
+        return String.format("[%.3f %.3f %d %d]", mean(), halfWidth(),
+                truncation(), size);
+    }
+}
@@ -0,0 +1,80 @@
+package cs2030.simulator;
+
+/**
+ * StudentT computes quantiles of the Student's t distribution, used for the
+ * half-width of confidence intervals. The normal quantile uses Acklam's
+ * rational approximation, and the t quantile the Cornish-Fisher expansion
+ * around it, with the exact forms for 1 and 2 degrees of freedom.
+ */
+final class StudentT {
+    private static final double[] A = {-3.969683028665376e+01,
+        2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02,
+        -3.066479806614716e+01, 2.506628277459239e+00};
+    private static final double[] B = {-5.447609879822406e+01,
+        1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01,
+        -1.328068155288572e+01};
+    private static final double[] C = {-7.784894002430293e-03,
+        -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00,
+        4.374664141464968e+00, 2.938163982698783e+00};
+    private static final double[] D = {7.784695709041462e-03,
+        3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+
+    private StudentT() {
+    }
+
+    /**
+     * Return the quantile of the standard normal distribution.
+     * @param p probability between 0 and 1 exclusive.
+     * @return the value below which the probability is p.
+     */
+    static double normalQuantile(double p) {
+        if (p < 0.02425) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q
+                    + C[5]) / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        } else if (p > 1 - 0.02425) {
+            return -normalQuantile(1 - p);
+        } else {
+            double q = p - 0.5;
+            double r = q * q;
+            return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r
+                    + A[5]) * q / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3])
+                    * r + B[4]) * r + 1);
+        }
+    }
+
+    /**
+     * Return the quantile of the Student's t distribution.
+     * @param p probability between 0 and 1 exclusive.
+     * @param df degrees of freedom, at least 1.
+     * @return the value below which the probability is p.
+     */
+    static double quantile(double p, int df) {
+        if (df == 1) {
+            return Math.tan(Math.PI * (p - 0.5));
+        } else if (df == 2) {
+            return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+        }
+        double z = normalQuantile(p);
+        double z2 = z * z;
+        double g1 = (z2 + 1) * z / 4;
+        double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+        double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+        double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945)
+                * z / 92160;
+        return z + g1 / df + g2 / Math.pow(df, 2) + g3 / Math.pow(df, 3)
+                + g4 / Math.pow(df, 4);
+    }
+
+    /**
+     * Return the half-width of the two-sided confidence interval of a mean.
+     * @param variance sample variance of the observations.
+     * @param n number of observations, at least 2.
+     * @param confidence confidence level, such as 0.95.
+     * @return the half-width of the confidence interval.
+     */
+    static double halfWidth(double variance, int n, double confidence) {
+        return quantile(1 - (1 - confidence) / 2, n - 1)
+                * Math.sqrt(variance / n);
+    }
+}
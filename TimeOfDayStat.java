@@ -0,0 +1,176 @@
+package cs2030.simulator;
+
+/**
+ * TimeOfDayStat collects the statistics of the customers by the time of day
+ * of their arrival, in bins of equal width over the period of a
+ * RateSchedule. The 'TimeOfDayStat' class supports operators that includes:
+ * (i) Observing an event handled by a Simulation. (ii) Retrieve the number
+ * of arrivals, of customers served and of customers who left in a bin.
+ * (iii) Retrieve the average waiting time of a bin. (iv) Retrieve the
+ * observed and the scheduled arrival rate of a bin.
+ * A customer is counted in the bin of its arrival even if it is served or
+ * leaves in a later bin. The observed rate of a bin is its number of
+ * arrivals over the time the run spent in it, from time 0 to the last
+ * arrival, so it can be compared with the scheduled rate.
+ * TimeOfDayStat contains RateSchedule schedule, double width, long[]
+ * arrivals, long[] served, long[] left, double[] totalWaitTime and double
+ * lastArrival.
+ */
+public class TimeOfDayStat {
+    private final RateSchedule schedule;
+    private final double width;
+    private final long[] arrivals;
+    private final long[] served;
+    private final long[] left;
+    private final double[] totalWaitTime;
+    private double lastArrival = 0;
+
+    /**
+     * Constructs a TimeOfDayStat.
+     * @param schedule the schedule whose period is divided into bins.
+     * @param bins number of bins, at least 1.
+     * @throws IllegalArgumentException if there are fewer than 1 bin.
+     */
+    public TimeOfDayStat(RateSchedule schedule, int bins) {
+        if (bins < 1) {
+            throw new IllegalArgumentException(
+                    "time of day needs at least 1 bin, not " + bins);
+        }
+        this.schedule = schedule;
+        this.width = schedule.getPeriod() / bins;
+        this.arrivals = new long[bins];
+        this.served = new long[bins];
+        this.left = new long[bins];
+        this.totalWaitTime = new double[bins];
+    }
+
+    /**
+     * Count the event in the bin of the arrival time of its customer: an
+     * ArriveEvent as an arrival, a ServeEvent as a customer served with its
+     * waiting time, and a LeaveEvent or RenegeEvent as a customer who left.
+     * @param event the event handled.
+     */
+    void observe(Event event) {
+        double arrival = event.getCustomer().getArrivalTime();
+        int bin = bin(arrival);
+        switch (event.getStatus()) {
+            case ARRIVE:
+                arrivals[bin]++;
+                lastArrival = Math.max(lastArrival, arrival);
+                break;
+
+            case SERVE:
+                served[bin]++;
+                totalWaitTime[bin] += event.getStartTime() - arrival;
+                break;
+
+            case LEAVE:
+            case RENEGE:
+                left[bin]++;
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Return the bin of the time.
+     * @param time the time, which may be after the first period.
+     * @return the bin.
+     */
+    private int bin(double time) {
+        double period = schedule.getPeriod();
+        double t = time - Math.floor(time / period) * period;
+        return Math.min((int) (t / width), arrivals.length - 1);
+    }
+
+    /**
+     * Retrieve the number of bins.
+     * @return number of bins.
+     */
+    public int getBins() {
+        return arrivals.length;
+    }
+
+    /**
+     * Retrieve the number of arrivals in the bin.
+     * @param bin the bin.
+     * @return number of arrivals.
+     */
+    public long getArrivals(int bin) {
+        return arrivals[bin];
+    }
+
+    /**
+     * Retrieve the number of customers of the bin who were served.
+     * @param bin the bin.
+     * @return number of customers served.
+     */
+    public long getServed(int bin) {
+        return served[bin];
+    }
+
+    /**
+     * Retrieve the number of customers of the bin who left.
+     * @param bin the bin.
+     * @return number of customers who left.
+     */
+    public long getLeft(int bin) {
+        return left[bin];
+    }
+
+    /**
+     * Return the average waiting time of the customers of the bin who were
+     * served.
+     * @param bin the bin.
+     * @return average waiting time, or 0 if no customer was served.
+     */
+    public double averageWaitTime(int bin) {
+        return served[bin] == 0 ? 0 : totalWaitTime[bin] / served[bin];
+    }
+
+    /**
+     * Return the observed arrival rate of the bin: its number of arrivals
+     * over the time spent in the bin up to the last arrival.
+     * @param bin the bin.
+     * @return observed rate, or 0 if no time was spent in the bin.
+     */
+    public double observedRate(int bin) {
+        double period = schedule.getPeriod();
+        double periods = Math.floor(lastArrival / period);
+        double rest = lastArrival - periods * period;
+        double exposure = periods * width
+                + Math.min(Math.max(rest - bin * width, 0), width);
+        return exposure == 0 ? 0 : arrivals[bin] / exposure;
+    }
+
+    /**
+     * Return the mean scheduled arrival rate of the bin.
+     * @param bin the bin.
+     * @return scheduled rate.
+     */
+    public double scheduledRate(int bin) {
+        return schedule.integral(bin * width, (bin + 1) * width) / width;
+    }
+
+    /**
+     * Return String representation of the statistics, one line per bin:
+     * the start and end of the bin, the number of arrivals, of customers
+     * served and of customers who left, the average waiting time, and the
+     * observed and scheduled arrival rates.
+     * @return the statistics of every bin.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int bin = 0; bin < arrivals.length; bin++) {
+            builder.append(bin == 0 ? "" : System.lineSeparator())
+                    .append(String.format("[%.3f %.3f) %d %d %d %.3f %.3f %.3f",
+                    bin * width, (bin + 1) * width, arrivals[bin], served[bin],
+                    left[bin], averageWaitTime(bin), observedRate(bin),
+                    scheduledRate(bin)));
+        }
+        return builder.toString();
+    }
+}
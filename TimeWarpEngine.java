@@ -0,0 +1,149 @@
+package cs2030.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * TimeWarpEngine runs the shops of a ShopNetwork in parallel optimistically.
+ * Each shop is a LogicalProcess that executes up to batch events per round
+ * without waiting for the other shops, and rolls back when a customer is
+ * transferred into its past. After every round the messages are exchanged
+ * until none are left, the global virtual time (GVT) is the time of the
+ * earliest event of the network, and the logs before the GVT are discarded.
+ * Once the GVT is positive infinity, every shop is in the same state as
+ * under SequentialEngine.
+ * TimeWarpEngine contains int threads, int batch, long rollbacks and long
+ * rolledBack.
+ */
+public class TimeWarpEngine implements EngineI {
+    private final int threads;
+    private final int batch;
+    private long rollbacks = 0;
+    private long rolledBack = 0;
+
+    /**
+     * Constructs a TimeWarpEngine running the shops on the given number of
+     * threads.
+     * @param threads number of worker threads.
+     * @param batch maximum number of events a shop executes per round.
+     */
+    public TimeWarpEngine(int threads, int batch) {
+        this.threads = threads;
+        this.batch = batch;
+    }
+
+    /**
+     * Run the network until every shop is done, one round at a time.
+     * @param network the network to run.
+     */
+    public void run(ShopNetwork network) {
+        List<LogicalProcess> processes = new ArrayList<>();
+        for (int k = 0; k < network.size(); k++) {
+            processes.add(new LogicalProcess(network.getShop(k), network));
+        }
+        for (int k = 0; k < network.size(); k++) {
+            processes.get(k).setNext(processes.get(network.nextShop(k)));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            while (true) {
+                List<Callable<Void>> rounds = new ArrayList<>();
+                for (LogicalProcess process : processes) {
+                    rounds.add(() -> {
+                        process.runAhead(batch);
+                        return null;
+                    });
+                }
+                await(pool.invokeAll(rounds));
+                settle(pool, processes);
+                double gvt = Double.POSITIVE_INFINITY;
+                for (LogicalProcess process : processes) {
+                    gvt = Math.min(gvt, process.nextEventTime());
+                }
+                if (gvt == Double.POSITIVE_INFINITY) {
+                    break;
+                }
+                for (LogicalProcess process : processes) {
+                    process.fossilCollect(gvt);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } finally {
+            pool.shutdown();
+        }
+        rollbacks = 0;
+        rolledBack = 0;
+        for (LogicalProcess process : processes) {
+            rollbacks += process.getRollbacks();
+            rolledBack += process.getRolledBack();
+        }
+    }
+
+    /**
+     * Receive messages in every shop until no message is in transit, as a
+     * rollback while receiving can send anti-messages.
+     * @param pool the worker threads.
+     * @param processes the shops of the network.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void settle(ExecutorService pool,
+                               List<LogicalProcess> processes)
+            throws InterruptedException {
+        boolean inTransit = true;
+        while (inTransit) {
+            List<Callable<Void>> receives = new ArrayList<>();
+            for (LogicalProcess process : processes) {
+                if (process.hasMail()) {
+                    receives.add(() -> {
+                        process.receive();
+                        return null;
+                    });
+                }
+            }
+            await(pool.invokeAll(receives));
+            inTransit = false;
+            for (LogicalProcess process : processes) {
+                inTransit |= process.hasMail();
+            }
+        }
+    }
+
+    /**
+     * Wait for every task to finish, rethrowing the first failure.
+     * @param futures the tasks submitted to the pool.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void await(List<Future<Void>> futures)
+            throws InterruptedException {
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of rollbacks of the last run.
+     * @return rollbacks.
+     */
+    public long getRollbacks() {
+        return rollbacks;
+    }
+
+    /**
+     * Retrieve the number of events undone by rollbacks in the last run.
+     * @return rolledBack.
+     */
+    public long getRolledBack() {
+        return rolledBack;
+    }
+}
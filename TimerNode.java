@@ -0,0 +1,36 @@
+package cs2030.simulator;
+
+/**
+ * TimerNode of a TimingWheel. A node is either linked into a slot of the
+ * wheel, or in the queue of due timers once its tick has been reached.
+ * TimerNode contains int id, double deadline, long tick, T payload,
+ * TimerNode prev, TimerNode next, int level, int slot, boolean linked and
+ * boolean cancelled.
+ * @param <T> type of the payload.
+ */
+class TimerNode<T> {
+    final int id;
+    final double deadline;
+    final long tick;
+    final T payload;
+    TimerNode<T> prev = null;
+    TimerNode<T> next = null;
+    int level = -1;
+    int slot = -1;
+    boolean linked = false;
+    boolean cancelled = false;
+
+    /**
+     * Constructs a TimerNode.
+     * @param id identifier used to cancel the timer.
+     * @param deadline time the timer expires.
+     * @param tick tick of the wheel the deadline falls in.
+     * @param payload value returned when the timer expires.
+     */
+    TimerNode(int id, double deadline, long tick, T payload) {
+        this.id = id;
+        this.deadline = deadline;
+        this.tick = tick;
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,275 @@
+package cs2030.simulator;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * TimingWheel of timers that are mostly cancelled before they expire. The
+ * 'TimingWheel' class supports operators that includes: (i) Scheduling a
+ * timer. (ii) Cancelling a timer in O(1). (iii) Retrieve the earliest timer
+ * expiring before a time. (iv) Copying the wheel.
+ * Time is split into ticks of a fixed resolution. The wheel has 4 levels of
+ * 256 slots, where a slot of level l holds the timers 256^l to 256^(l+1)
+ * ticks away, and each time the current tick crosses a slot of a level, the
+ * timers of the slot are moved one level down, in the manner of the Linux
+ * kernel timers. Timers further than 256^4 ticks away wait in an overflow
+ * queue. Timers whose tick has been reached are kept in a small queue of
+ * due timers ordered by deadline, so they expire in the exact order of
+ * their deadlines. Cancelled due timers are skipped lazily. When the lower
+ * levels are empty, the current tick jumps to the next tick where a higher
+ * level cascades, so long gaps between timers are crossed quickly.
+ * TimingWheel contains double resolution, TimerNode[][] slots,
+ * PriorityQueue due, PriorityQueue overflow, Map byId, long now, int count
+ * and int[] levelCount.
+ * @param <T> type of the payload of the timers.
+ */
+class TimingWheel<T> {
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 4;
+    private final double resolution;
+    private final TimerNode<T>[][] slots;
+    private final PriorityQueue<TimerNode<T>> due = new PriorityQueue<>(
+            Comparator.<TimerNode<T>>comparingDouble(n -> n.deadline)
+                    .thenComparingInt(n -> n.id));
+    private final PriorityQueue<TimerNode<T>> overflow = new PriorityQueue<>(
+            Comparator.<TimerNode<T>>comparingLong(n -> n.tick));
+    private final Map<Integer, TimerNode<T>> byId = new HashMap<>();
+    private long now = 0;
+    private int count = 0;
+    private final int[] levelCount = new int[LEVELS];
+
+    /**
+     * Constructs an empty TimingWheel.
+     * @param resolution length of a tick.
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(double resolution) {
+        this.resolution = resolution;
+        this.slots = (TimerNode<T>[][]) new TimerNode<?>[LEVELS][SLOTS];
+    }
+
+    /**
+     * Schedule a timer. There must be no other timer with the same id.
+     * @param id identifier used to cancel the timer.
+     * @param deadline time the timer expires.
+     * @param payload value returned when the timer expires.
+     */
+    void schedule(int id, double deadline, T payload) {
+        TimerNode<T> node = new TimerNode<>(id, deadline,
+                (long) Math.floor(deadline / resolution), payload);
+        byId.put(id, node);
+        place(node);
+    }
+
+    /**
+     * Cancel the timer with the id, if it has not expired.
+     * @param id identifier of the timer.
+     */
+    void cancel(int id) {
+        TimerNode<T> node = byId.remove(id);
+        if (node == null) {
+            return;
+        }
+        node.cancelled = true;
+        if (node.linked) {
+            unlink(node);
+            count--;
+            levelCount[node.level]--;
+        }
+    }
+
+    /**
+     * Return the payload of the earliest timer expiring before the time,
+     * removing the timer.
+     * @param before the time the timer must expire before.
+     * @return the payload, or null if no timer expires before the time.
+     */
+    T poll(double before) {
+        TimerNode<T> node = peekNode(before);
+        if (node == null) {
+            return null;
+        }
+        due.poll();
+        byId.remove(node.id);
+        return node.payload;
+    }
+
+    /**
+     * Return the payload of the earliest timer expiring before the time,
+     * without removing the timer.
+     * @param before the time the timer must expire before.
+     * @return the payload, or null if no timer expires before the time.
+     */
+    T peek(double before) {
+        TimerNode<T> node = peekNode(before);
+        return node == null ? null : node.payload;
+    }
+
+    /**
+     * Return the deadline of the earliest timer expiring before the time.
+     * @param before the time the timer must expire before.
+     * @return the deadline, or positive infinity if no timer expires before
+     *     the time.
+     */
+    double peekDeadline(double before) {
+        TimerNode<T> node = peekNode(before);
+        return node == null ? Double.POSITIVE_INFINITY : node.deadline;
+    }
+
+    /**
+     * Return the earliest timer expiring before the time, advancing the
+     * wheel up to the tick of the time.
+     * @param before the time the timer must expire before.
+     * @return the timer, or null if no timer expires before the time.
+     */
+    private TimerNode<T> peekNode(double before) {
+        if (before != Double.POSITIVE_INFINITY) {
+            advance((long) Math.floor(before / resolution));
+        }
+        while (!due.isEmpty() && due.peek().cancelled) {
+            due.poll();
+        }
+        TimerNode<T> node = due.peek();
+        return node != null && node.deadline < before ? node : null;
+    }
+
+    /**
+     * Return a copy of the wheel with the same pending timers.
+     * @return the copy.
+     */
+    TimingWheel<T> copy() {
+        TimingWheel<T> copy = new TimingWheel<>(resolution);
+        copy.now = now;
+        for (TimerNode<T> node : byId.values()) {
+            copy.schedule(node.id, node.deadline, node.payload);
+        }
+        return copy;
+    }
+
+    /**
+     * Put the timer into the slot for its distance from the current tick, or
+     * into the due timers if its tick has been reached.
+     * @param node the timer.
+     */
+    private void place(TimerNode<T> node) {
+        long delta = node.tick - now;
+        if (delta <= 0) {
+            due.add(node);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (BITS * (level + 1))) {
+                int slot = (int) (node.tick >>> (BITS * level)) & (SLOTS - 1);
+                node.level = level;
+                node.slot = slot;
+                node.prev = null;
+                node.next = slots[level][slot];
+                if (node.next != null) {
+                    node.next.prev = node;
+                }
+                slots[level][slot] = node;
+                node.linked = true;
+                count++;
+                levelCount[level]++;
+                return;
+            }
+        }
+        overflow.add(node);
+    }
+
+    /**
+     * Remove the timer from its slot.
+     * @param node the timer.
+     */
+    private void unlink(TimerNode<T> node) {
+        if (node.prev == null) {
+            slots[node.level][node.slot] = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.linked = false;
+    }
+
+    /**
+     * Advance the current tick up to the target, moving the timers whose
+     * tick is reached into the due timers. If the wheel is empty, the
+     * current tick jumps to the target, and if the levels below the lowest
+     * level holding timers are empty, it jumps to the tick before that level
+     * cascades next.
+     * @param target the tick to advance to.
+     */
+    private void advance(long target) {
+        while (now < target) {
+            if (count == 0 && overflow.isEmpty()) {
+                now = target;
+                return;
+            }
+            int level = 0;
+            while (level < LEVELS && levelCount[level] == 0) {
+                level++;
+            }
+            if (level > 0) {
+                long boundary = now | ((1L << (BITS * level)) - 1);
+                if (boundary >= target) {
+                    now = target;
+                    return;
+                }
+                now = boundary;
+            }
+            now++;
+            if ((now & (SLOTS - 1)) == 0) {
+                cascade(1);
+            }
+            int slot = (int) now & (SLOTS - 1);
+            TimerNode<T> node = slots[0][slot];
+            slots[0][slot] = null;
+            while (node != null) {
+                TimerNode<T> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.linked = false;
+                count--;
+                levelCount[0]--;
+                due.add(node);
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Move the timers of the current slot of the level one level down,
+     * cascading the level above first if the current slot is its first.
+     * @param level the level to cascade.
+     */
+    private void cascade(int level) {
+        if (level == LEVELS) {
+            while (!overflow.isEmpty()
+                    && overflow.peek().tick - now < 1L << (BITS * LEVELS)) {
+                place(overflow.poll());
+            }
+            return;
+        }
+        int slot = (int) (now >>> (BITS * level)) & (SLOTS - 1);
+        if (slot == 0) {
+            cascade(level + 1);
+        }
+        TimerNode<T> node = slots[level][slot];
+        slots[level][slot] = null;
+        while (node != null) {
+            TimerNode<T> next = node.next;
+            node.linked = false;
+            count--;
+            levelCount[level]--;
+            place(node);
+            node = next;
+        }
+    }
+}
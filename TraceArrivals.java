@@ -0,0 +1,414 @@
+package cs2030.simulator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * TraceArrivals is an ArrivalSourceI that reads recorded arrivals from a
+ * memory-mapped file, one record per customer: its arrival time, its service
+ * time and its type. The 'TraceArrivals' class supports operators that
+ * includes: (i) Moving to the next record. (ii) Retrieve the arrival time,
+ * service time and type of the record. (iii) Retrieve and set the position
+ * in the file. (iv) Converting a CSV trace into a binary trace.
+ * A binary trace is a 16-byte header, the long MAGIC and the int VERSION,
+ * followed by 24-byte records: the double arrival time, the double service
+ * time and a byte that is 1 for a greedy customer, padded to 8 bytes. All
+ * values are little-endian. Any other file is read as CSV, with one record
+ * per line: arrival time, then optionally service time and type, separated
+ * by commas. A service time that is missing or empty is NaN, so that it is
+ * drawn instead, and a type starting with 'g', 'G' or '1' is greedy. A
+ * first line that does not start with a number is a header and is skipped.
+ * The file is mapped WINDOW bytes at a time and parsed in place, without
+ * copying lines into Strings, so files far larger than the heap can be
+ * replayed. Numbers of up to 15 significant digits and a decimal exponent
+ * of at most 22 are converted with one exact multiplication or division,
+ * which rounds as Double.parseDouble does, and any other number is left to
+ * Double.parseDouble.
+ * TraceArrivals contains FileChannel channel, long size, boolean binary,
+ * MappedByteBuffer window, long windowStart, long position, double
+ * arrivalTime, double serviceTime and CustomerType type.
+ */
+public class TraceArrivals implements ArrivalSourceI, AutoCloseable {
+    static final long MAGIC = 0x4353323033305452L;
+    static final int VERSION = 1;
+    static final int HEADER = 16;
+    static final int RECORD = 24;
+    private static final long WINDOW = 1L << 26;
+    private static final int MAX_DIGITS = 15;
+    private static final double[] POWERS = new double[] {1e0, 1e1, 1e2, 1e3,
+        1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+        1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private final FileChannel channel;
+    private final long size;
+    private final boolean binary;
+    private MappedByteBuffer window = null;
+    private long windowStart = 0;
+    private long position = 0;
+    private double arrivalTime = Double.NaN;
+    private double serviceTime = Double.NaN;
+    private CustomerType type = CustomerType.NORMAL;
+
+    /**
+     * Constructs a TraceArrivals over the file, positioned before its first
+     * record.
+     * @param file the binary or CSV trace.
+     * @throws IOException if the file cannot be read.
+     */
+    public TraceArrivals(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+        if (size == 0) {
+            binary = false;
+            return;
+        }
+        map(0);
+        binary = size >= HEADER && window.getLong(0) == MAGIC
+                && window.getInt(8) == VERSION;
+        if (binary) {
+            position = HEADER;
+        } else if (!isNumberStart(window.get(0))) {
+            int eol = 0;
+            while (eol < window.limit() && window.get(eol) != '\n') {
+                eol++;
+            }
+            position = eol + 1;
+        }
+    }
+
+    /**
+     * Move to the next record.
+     * @return true if there is a next record, else false.
+     */
+    public boolean next() {
+        return binary ? nextBinary() : nextLine();
+    }
+
+    /**
+     * Move to the next record of a binary trace.
+     * @return true if there is a next record, else false.
+     */
+    private boolean nextBinary() {
+        if (position + RECORD > size) {
+            return false;
+        }
+        if (position < windowStart
+                || position + RECORD > windowStart + window.limit()) {
+            map(position);
+        }
+        int i = (int) (position - windowStart);
+        arrivalTime = window.getDouble(i);
+        serviceTime = window.getDouble(i + 8);
+        type = window.get(i + 16) == 1 ? CustomerType.GREEDY
+                : CustomerType.NORMAL;
+        position += RECORD;
+        return true;
+    }
+
+    /**
+     * Move to the next non-blank line of a CSV trace. A line that runs past
+     * the end of the window is parsed again from a window starting at the
+     * line.
+     * @return true if there is a next record, else false.
+     */
+    private boolean nextLine() {
+        while (position < size) {
+            if (position < windowStart
+                    || position >= windowStart + window.limit()) {
+                map(position);
+            }
+            int start = (int) (position - windowStart);
+            int limit = window.limit();
+            int eol = start;
+            while (eol < limit && window.get(eol) != '\n') {
+                eol++;
+            }
+            if (eol == limit && windowStart + limit < size) {
+                if (start == 0) {
+                    throw new IllegalStateException("line at " + position
+                            + " is longer than " + WINDOW + " bytes");
+                }
+                map(position);
+                continue;
+            }
+            position = windowStart + Math.min(eol + 1, limit);
+            int end = eol;
+            if (end > start && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end > start) {
+                parseLine(start, end);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse the fields of a CSV line of the window.
+     * @param start index of the first byte of the line.
+     * @param end index after the last byte of the line.
+     */
+    private void parseLine(int start, int end) {
+        int comma = find(start, end);
+        arrivalTime = parseNumber(start, comma);
+        serviceTime = Double.NaN;
+        type = CustomerType.NORMAL;
+        if (comma < end) {
+            int from = comma + 1;
+            comma = find(from, end);
+            serviceTime = parseNumber(from, comma);
+            if (comma < end) {
+                from = comma + 1;
+                while (from < end && window.get(from) == ' ') {
+                    from++;
+                }
+                if (from < end) {
+                    byte first = window.get(from);
+                    if (first == 'g' || first == 'G' || first == '1') {
+                        type = CustomerType.GREEDY;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the index of the next comma of the window, or end if there is
+     * none.
+     * @param from index to search from.
+     * @param end index to search up to.
+     * @return index of the comma, or end.
+     */
+    private int find(int from, int end) {
+        while (from < end && window.get(from) != ',') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Parse the decimal number in the window, surrounded by optional spaces.
+     * @param from index of the first byte of the field.
+     * @param to index after the last byte of the field.
+     * @return the number, or NaN if the field is empty.
+     */
+    private double parseNumber(int from, int to) {
+        while (from < to && window.get(from) == ' ') {
+            from++;
+        }
+        while (to > from && window.get(to - 1) == ' ') {
+            to--;
+        }
+        if (from == to) {
+            return Double.NaN;
+        }
+        int i = from;
+        boolean negative = false;
+        byte c = window.get(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seen = false;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            c = window.get(i);
+            if (c == '.' && !fraction) {
+                fraction = true;
+                continue;
+            } else if (c < '0' || c > '9') {
+                break;
+            }
+            seen = true;
+            if (fraction) {
+                scale--;
+            }
+            if (mantissa == 0 && c == '0') {
+                continue;
+            } else if (digits == MAX_DIGITS) {
+                return parseSlowly(from, to);
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            digits++;
+        }
+        if (i < to && (c == 'e' || c == 'E')) {
+            int exponent = 0;
+            boolean negativeExponent = false;
+            i++;
+            if (i < to && (window.get(i) == '-' || window.get(i) == '+')) {
+                negativeExponent = window.get(i) == '-';
+                i++;
+            }
+            int start = i;
+            for (; i < to && exponent < 1000; i++) {
+                c = window.get(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                exponent = exponent * 10 + (c - '0');
+            }
+            if (i == start) {
+                return parseSlowly(from, to);
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i < to || !seen) {
+            return parseSlowly(from, to);
+        }
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (scale < -22 || scale > 22) {
+            return parseSlowly(from, to);
+        } else if (scale >= 0) {
+            value = mantissa * POWERS[scale];
+        } else {
+            value = mantissa / POWERS[-scale];
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse the number in the window with Double.parseDouble.
+     * @param from index of the first byte of the number.
+     * @param to index after the last byte of the number.
+     * @return the number.
+     */
+    private double parseSlowly(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        window.get(from, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Return the boolean of whether the byte can start a number.
+     * @param c the byte.
+     * @return true if it is a digit, a sign, a point or a space, else false.
+     */
+    private static boolean isNumberStart(byte c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.'
+                || c == ' ' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * Map the window of the file starting at the offset.
+     * @param start offset of the window in the file.
+     */
+    private void map(long start) {
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(WINDOW, size - start));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            windowStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retrieve the arrival time of the record.
+     * @return arrivalTime.
+     */
+    public double getArrivalTime() {
+        return arrivalTime;
+    }
+
+    /**
+     * Retrieve the service time of the record, NaN if it is not recorded.
+     * @return serviceTime.
+     */
+    public double getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * Retrieve the type of the customer of the record.
+     * @return type.
+     */
+    public CustomerType getType() {
+        return type;
+    }
+
+    /**
+     * Retrieve the offset in the file after the record.
+     * @return position.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Set the offset in the file that the next record is read from, which
+     * must have been returned by getPosition.
+     * @param position the offset.
+     */
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    /**
+     * Close the file. The windows already mapped stay valid until they are
+     * garbage collected.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Write the records of a trace, such as a CSV trace, into a binary
+     * trace, which is faster to replay.
+     * @param trace the trace to convert.
+     * @param file the binary trace to create.
+     * @return number of records written.
+     * @throws IOException if either file cannot be read or written.
+     */
+    public static long convert(Path trace, Path file) throws IOException {
+        long records = 0;
+        try (TraceArrivals in = new TraceArrivals(trace);
+             FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD << 12)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(MAGIC).putInt(VERSION).putInt(0);
+            while (in.next()) {
+                if (buffer.remaining() < RECORD) {
+                    write(out, buffer);
+                }
+                buffer.putDouble(in.getArrivalTime())
+                        .putDouble(in.getServiceTime())
+                        .putLong(in.getType() == CustomerType.GREEDY ? 1 : 0);
+                records++;
+            }
+            write(out, buffer);
+        }
+        return records;
+    }
+
+    /**
+     * Write out the buffer and clear it.
+     * @param out the channel written to.
+     * @param buffer the buffer, in write mode.
+     * @throws IOException if the buffer cannot be written.
+     */
+    private static void write(FileChannel out, ByteBuffer buffer)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,39 @@
+package cs2030.simulator;
+
+/**
+ * TransferMessage sent between the LogicalProcesses of a TimeWarpEngine. A
+ * positive message transfers a customer to the next shop, and an
+ * anti-message cancels the positive message of the same customer. Each
+ * customer is transferred at most once, so its identifier names the message.
+ * TransferMessage contains Customer customer and boolean anti.
+ */
+class TransferMessage {
+    private final Customer customer;
+    private final boolean anti;
+
+    /**
+     * Constructs a TransferMessage.
+     * @param customer customer as it arrives at the next shop.
+     * @param anti whether this is an anti-message.
+     */
+    TransferMessage(Customer customer, boolean anti) {
+        this.customer = customer;
+        this.anti = anti;
+    }
+
+    /**
+     * Retrieve the customer being transferred.
+     * @return customer.
+     */
+    Customer getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Retrieve the boolean of whether this is an anti-message.
+     * @return true if this cancels an earlier message, else false.
+     */
+    boolean isAnti() {
+        return anti;
+    }
+}
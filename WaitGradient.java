@@ -0,0 +1,131 @@
+package cs2030.simulator;
+
+/**
+ * WaitGradient estimates the derivatives of the average waiting time of a
+ * Simulation with respect to the service rate and the resting rate, by
+ * infinitesimal perturbation analysis along the sample path of the run. The
+ * 'WaitGradient' class supports operators that includes: (i) Recording a
+ * customer served by a ServerI. (ii) Recording a rest of a Server. (iii)
+ * Retrieve the derivatives of the average waiting time. (iv) Copying the
+ * gradient so that it can be saved and restored with the simulation.
+ * For each ServerI, the derivatives of its next available time are kept. A
+ * customer who waited starts when its ServerI becomes available, so its
+ * waiting time has the derivatives of that time, while a customer served on
+ * arrival has none. Serving adds the derivative of the service time, which
+ * is -S / serviceRate for an exponential service time S drawn with the
+ * service rate and 0 for one drawn from another distribution or recorded,
+ * and resting adds -R / restingRate for a rest period R. The derivatives are
+ * exact for the sample path as long as a small change of the rates changes
+ * no decision of the run, which holds almost surely when no customer leaves
+ * for a full queue or reneges. Otherwise the estimate leaves out the
+ * customers whose decisions would change, and is biased.
+ * WaitGradient contains double serviceRate, double restingRate, double[]
+ * serviceSensitivity, double[] restSensitivity, double totalServiceDerivative,
+ * double totalRestDerivative and int served.
+ */
+public class WaitGradient {
+    private final double serviceRate;
+    private final double restingRate;
+    private final double[] serviceSensitivity;
+    private final double[] restSensitivity;
+    private double totalServiceDerivative = 0;
+    private double totalRestDerivative = 0;
+    private int served = 0;
+
+    /**
+     * Constructs a WaitGradient for ServerIs numbered from 1 to numServers.
+     * @param numServers number of Servers and SelfCheckOuts.
+     * @param serviceRate service rate of the customers.
+     * @param restingRate resting rate of the Servers.
+     */
+    public WaitGradient(int numServers, double serviceRate, double restingRate) {
+        this.serviceRate = serviceRate;
+        this.restingRate = restingRate;
+        this.serviceSensitivity = new double[numServers + 1];
+        this.restSensitivity = new double[numServers + 1];
+    }
+
+    /**
+     * Copy constructor of a WaitGradient.
+     * @param other the gradient copied.
+     */
+    private WaitGradient(WaitGradient other) {
+        this.serviceRate = other.serviceRate;
+        this.restingRate = other.restingRate;
+        this.serviceSensitivity = other.serviceSensitivity.clone();
+        this.restSensitivity = other.restSensitivity.clone();
+        this.totalServiceDerivative = other.totalServiceDerivative;
+        this.totalRestDerivative = other.totalRestDerivative;
+        this.served = other.served;
+    }
+
+    /**
+     * Record a customer served by the ServerI: add the derivatives of its
+     * waiting time, then move the next available time of the ServerI to
+     * the end of the service.
+     * @param server the ServerI serving the customer.
+     * @param wait waiting time of the customer.
+     * @param serviceTime service time of the customer.
+     * @param exponential whether the service time is exponential with the
+     *     service rate.
+     */
+    void serve(ServerI server, double wait, double serviceTime,
+               boolean exponential) {
+        int id = server.getId();
+        double serviceDerivative = wait > 0 ? serviceSensitivity[id] : 0;
+        double restDerivative = wait > 0 ? restSensitivity[id] : 0;
+        totalServiceDerivative += serviceDerivative;
+        totalRestDerivative += restDerivative;
+        served++;
+        serviceSensitivity[id] = serviceDerivative
+                + (exponential ? -serviceTime / serviceRate : 0);
+        restSensitivity[id] = restDerivative;
+    }
+
+    /**
+     * Record a rest of the Server, which moves its next available time to
+     * the end of the rest.
+     * @param server the Server resting.
+     * @param restTime rest period of the Server.
+     */
+    void rest(ServerI server, double restTime) {
+        restSensitivity[server.getId()] -= restTime / restingRate;
+    }
+
+    /**
+     * Return the derivative of the average waiting time with respect to the
+     * service rate.
+     * @return the derivative, or 0 if no customer was served.
+     */
+    public double serviceRateDerivative() {
+        return served == 0 ? 0 : totalServiceDerivative / served;
+    }
+
+    /**
+     * Return the derivative of the average waiting time with respect to the
+     * resting rate.
+     * @return the derivative, or 0 if no customer was served.
+     */
+    public double restingRateDerivative() {
+        return served == 0 ? 0 : totalRestDerivative / served;
+    }
+
+    /**
+     * Return a copy of the gradient, to be restored later.
+     * @return the copy.
+     */
+    WaitGradient copy() {
+        return new WaitGradient(this);
+    }
+
+    /**
+     * Return String representation of the gradient.
+     * @return the derivatives of the average waiting time with respect to
+     *     the service rate and the resting rate.
+     */
+    @Override
+    public String toString() {
+        return String.format("[%.3f %.3f]", serviceRateDerivative(),
+                restingRateDerivative());
+    }
+}
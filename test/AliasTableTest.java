@@ -0,0 +1,77 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkClose;
+import static cs2030.simulator.TestSupport.checkThrows;
+
+/**
+ * AliasTableTest checks that an AliasTable draws each index with the
+ * frequency of its weight. The uniforms are an even grid rather than random,
+ * so each column is split between itself and its alias in proportion to
+ * its probability up to one point of the grid, and the frequencies are
+ * exact to within the number of columns over the number of points.
+ */
+public class AliasTableTest {
+    private static final int POINTS = 1 << 20;
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        checkFrequencies(new double[] {1});
+        checkFrequencies(new double[] {1, 1, 1, 1});
+        checkFrequencies(new double[] {0.1, 0.2, 0.3, 0.4});
+        checkFrequencies(new double[] {5, 0, 1, 0, 2.5});
+        checkFrequencies(new double[] {1000, 1, 1, 1, 1, 1, 1, 1, 1});
+        double[] skewed = new double[100];
+        for (int i = 0; i < skewed.length; i++) {
+            skewed[i] = Math.pow(0.9, i);
+        }
+        checkFrequencies(skewed);
+
+        AliasTable table = new AliasTable(new double[] {1, 2});
+        check(table.size() == 2, "size is the number of weights");
+        check(table.sample(0) == 0 || table.sample(0) == 1,
+                "u = 0 draws an index");
+        check(table.sample(Math.nextDown(1.0)) < 2,
+                "u just below 1 draws an index");
+        checkThrows(IllegalArgumentException.class,
+                () -> new AliasTable(new double[] {0, 0}), "all zero weights");
+        checkThrows(IllegalArgumentException.class,
+                () -> new AliasTable(new double[] {1, -1}), "negative weight");
+        checkThrows(IllegalArgumentException.class,
+                () -> new AliasTable(new double[] {1, Double.NaN}),
+                "NaN weight");
+        checkThrows(IllegalArgumentException.class,
+                () -> new AliasTable(new double[] {1,
+                    Double.POSITIVE_INFINITY}), "infinite weight");
+        TestSupport.passed("AliasTableTest");
+    }
+
+    /**
+     * Check that the frequency of each index over the grid of uniforms is
+     * its share of the weights, and that indices of weight 0 are never
+     * drawn.
+     * @param weights the weights.
+     */
+    private static void checkFrequencies(double[] weights) {
+        AliasTable table = new AliasTable(weights);
+        long[] counts = new long[weights.length];
+        for (int k = 0; k < POINTS; k++) {
+            counts[table.sample((k + 0.5) / POINTS)]++;
+        }
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double share = weights[i] / total;
+            checkClose(share, (double) counts[i] / POINTS,
+                    (double) weights.length / POINTS, "frequency of index "
+                    + i + " of " + weights.length);
+            check(weights[i] > 0 || counts[i] == 0, "index " + i
+                    + " of weight 0 is never drawn");
+        }
+    }
+}
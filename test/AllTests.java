@@ -0,0 +1,36 @@
+import cs2030.simulator.AliasTableTest;
+import cs2030.simulator.ControlVariateStatTest;
+import cs2030.simulator.EngineDigestTest;
+import cs2030.simulator.LockstepEngineTest;
+import cs2030.simulator.RateScheduleTest;
+import cs2030.simulator.ReplicationControllerTest;
+import cs2030.simulator.StaffingOptimiserTest;
+import cs2030.simulator.SteadyStateEstimatorTest;
+import cs2030.simulator.WaitGradientTest;
+
+import java.io.IOException;
+
+/**
+ * Run every regression test in the test directory, stopping at the first
+ * failure with status 1.
+ */
+public class AllTests {
+
+    /**
+     * Run the tests.
+     * @param args command line arguments, which are ignored.
+     * @throws IOException if a test cannot read its input.
+     */
+    public static void main(String[] args) throws IOException {
+        SteadyStateEstimatorTest.main(args);
+        ScenarioPipelineTest.main(args);
+        ControlVariateStatTest.main(args);
+        LockstepEngineTest.main(args);
+        AliasTableTest.main(args);
+        RateScheduleTest.main(args);
+        EngineDigestTest.main(args);
+        WaitGradientTest.main(args);
+        StaffingOptimiserTest.main(args);
+        ReplicationControllerTest.main(args);
+    }
+}
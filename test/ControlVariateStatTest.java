@@ -0,0 +1,73 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkClose;
+
+/**
+ * ControlVariateStatTest checks the controlled mean and the variance of
+ * ControlVariateStat against the intercept of the least squares fit of the
+ * observations on the controls and its variance s^2 (X'X)^-1[0][0],
+ * computed exactly with fractions outside the simulator, and its fallbacks
+ * when the controls cannot be used.
+ */
+public class ControlVariateStatTest {
+    private static final double[] Y = {4.1, 5.3, 3.2, 6.8, 5.0, 4.4, 7.1,
+        3.9};
+    private static final double[] C1 = {-0.5, 0.4, -1.1, 1.2, 0.1, -0.3, 1.5,
+        -0.8};
+    private static final double[] C2 = {0.2, -0.1, 0.3, 0.4, -0.6, 0.1, -0.2,
+        0.5};
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        ControlVariateStat stat = new ControlVariateStat(2);
+        for (int i = 0; i < Y.length; i++) {
+            stat.add(Y[i], C1[i], C2[i]);
+        }
+        check(stat.getCount() == 8, "observations are counted");
+        checkClose(4.864769521683871, stat.getMean(), 1e-12,
+                "controlled mean is the intercept of the fit");
+        checkClose(0.0016911491039837126, stat.getMeanVariance(), 1e-15,
+                "variance of the controlled mean");
+        checkClose(0.23848214285714286, stat.getPlainMeanVariance(), 1e-14,
+                "variance of the plain mean");
+        checkClose(2.570582, StudentT.quantile(0.975, 5), 5e-3,
+                "t quantile with 8 - 2 - 1 degrees of freedom");
+        checkClose(StudentT.quantile(0.975, 5)
+                * Math.sqrt(0.0016911491039837126), stat.halfWidth(0.95),
+                1e-12, "half-width of the controlled mean");
+
+        ControlVariateStat exact = new ControlVariateStat(1);
+        for (int i = 0; i < C1.length; i++) {
+            exact.add(5 + 2 * C1[i], C1[i]);
+        }
+        checkClose(5, exact.getMean(), 1e-12,
+                "an exact linear control removes all the error");
+        checkClose(0, exact.getMeanVariance(), 1e-24,
+                "an exact linear control leaves no variance");
+        checkClose(0, exact.relativeHalfWidth(0.95), 1e-12,
+                "an exact linear control is perfectly precise");
+
+        ControlVariateStat few = new ControlVariateStat(2);
+        few.add(1, 0.5, 0.1);
+        few.add(3, -0.5, 0.2);
+        few.add(2, 0.1, -0.3);
+        checkClose(2, few.getMean(), 1e-12,
+                "plain mean without more observations than controls plus 1");
+        check(few.getMeanVariance() == Double.POSITIVE_INFINITY,
+                "no variance without more observations than controls plus 1");
+
+        ControlVariateStat collinear = new ControlVariateStat(2);
+        for (int i = 0; i < Y.length; i++) {
+            collinear.add(Y[i], C1[i], 2 * C1[i]);
+        }
+        checkClose(4.975, collinear.getMean(), 1e-12,
+                "plain mean with collinear controls");
+        check(collinear.halfWidth(0.95) == Double.POSITIVE_INFINITY,
+                "no half-width with collinear controls");
+        TestSupport.passed("ControlVariateStatTest");
+    }
+}
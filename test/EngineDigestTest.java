@@ -0,0 +1,90 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+
+/**
+ * EngineDigestTest checks that ConservativeEngine and TimeWarpEngine handle
+ * exactly the events of SequentialEngine in every shop of a ShopNetwork, by
+ * comparing an EventDigest per shop, that the digests do tell apart runs
+ * that differ, and that a customer transferred to the next shop keeps its
+ * type and its recorded service time. The scenarios mix servers,
+ * self-checkouts, rests, greedy customers, reneging and transfers, and
+ * TimeWarpEngine runs with a large batch so that it rolls back.
+ */
+public class EngineDigestTest {
+    private static final long INTERVAL = 100;
+    private static final String[][] SCENARIOS = {
+        {"1", "2", "1", "2", "2000", "3.2", "1.0", "1.0", "0.1", "0.2"},
+        {"5", "1", "2", "1", "1500", "2.5", "1.0", "0.5", "0.3", "0.5"},
+        {"9", "3", "0", "4", "1500", "3.5", "1.0", "1.0", "0.2", "0.1",
+            "0.4"}};
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        long rollbacks = 0;
+        for (String[] scenario : SCENARIOS) {
+            for (int numShops : new int[] {1, 3, 5}) {
+                String name = numShops + " shops of "
+                        + String.join(" ", scenario);
+                EventDigest[] sequential = run(new SequentialEngine(),
+                        scenario, numShops);
+                EventDigest[] conservative = run(new ConservativeEngine(3),
+                        scenario, numShops);
+                TimeWarpEngine timeWarp = new TimeWarpEngine(3, 256);
+                EventDigest[] optimistic = run(timeWarp, scenario, numShops);
+                rollbacks += timeWarp.getRollbacks();
+                for (int k = 0; k < numShops; k++) {
+                    check(sequential[k].getEvents() > 0, "shop " + k + " of "
+                            + name + " handles events");
+                    check(sequential[k].firstDivergence(conservative[k]) < 0,
+                            "conservative matches sequential in shop " + k
+                            + " of " + name);
+                    check(sequential[k].firstDivergence(optimistic[k]) < 0,
+                            "timewarp matches sequential in shop " + k
+                            + " of " + name);
+                }
+            }
+        }
+        check(rollbacks > 0, "timewarp rolled back at least once");
+
+        String[] other = SCENARIOS[0].clone();
+        other[0] = "2";
+        check(run(new SequentialEngine(), SCENARIOS[0], 3)[1]
+                .firstDivergence(run(new SequentialEngine(), other, 3)[1])
+                >= 0, "runs with other seeds diverge");
+
+        ShopNetwork network = new ShopNetwork(SCENARIOS[0], 3, 0.5);
+        Customer traced = network.transfer(new Customer(7, 2.0,
+                CustomerType.GREEDY, 0.75));
+        check(traced.getId() == 7 && traced.getArrivalTime() == 2.5
+                && traced.getType() == CustomerType.GREEDY
+                && traced.getServiceTime() == 0.75,
+                "a transfer keeps the type and recorded service time");
+        check(Double.isNaN(network.transfer(new Customer(8, 1.0))
+                .getServiceTime()),
+                "a drawn service time stays drawn after a transfer");
+        TestSupport.passed("EngineDigestTest");
+    }
+
+    /**
+     * Run a fresh network with the engine, with a digest in every shop.
+     * @param engine the engine.
+     * @param scenario the simulation parameters of each shop.
+     * @param numShops number of shops.
+     * @return the digest of every shop.
+     */
+    private static EventDigest[] run(EngineI engine, String[] scenario,
+                                     int numShops) {
+        ShopNetwork network = new ShopNetwork(scenario, numShops, 0.5);
+        EventDigest[] digests = new EventDigest[numShops];
+        for (int k = 0; k < numShops; k++) {
+            digests[k] = new EventDigest(INTERVAL);
+            network.getShop(k).setDigest(digests[k]);
+        }
+        engine.run(network);
+        return digests;
+    }
+}
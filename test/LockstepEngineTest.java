@@ -0,0 +1,58 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkThrows;
+
+/**
+ * LockstepEngineTest checks that every lane of a LockstepEngine has the
+ * statistics of a Simulation with the same seed, bit for bit, on the
+ * Vector API path when LaneMinimum is compiled and the
+ * jdk.incubator.vector module is added, and on the scalar path otherwise,
+ * and that scenarios it cannot run are refused.
+ */
+public class LockstepEngineTest {
+    private static final int LANES = 21;
+    private static final String[][] SCENARIOS = {
+        {"3", "2", "0", "1", "500", "1.8", "1.0", "0", "0", "0"},
+        {"5", "4", "0", "3", "800", "3.5", "1.0", "0", "0", "0"},
+        {"7", "13", "0", "2", "600", "12", "1.0", "0", "0", "0"},
+        {"9", "1", "0", "0", "300", "1.0", "1.2", "0", "0", "0"}};
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        for (String[] scenario : SCENARIOS) {
+            check(LockstepEngine.applies(scenario), "scenario "
+                    + String.join(" ", scenario) + " runs in lockstep");
+            LockstepEngine engine = new LockstepEngine(scenario, LANES);
+            engine.run(0);
+            for (int r = 0; r < LANES; r++) {
+                String[] replication = scenario.clone();
+                replication[0] = String.valueOf(Integer.parseInt(scenario[0])
+                        + 6 * r);
+                Simulation simulation = new Simulation(replication);
+                String summary = simulation.runQuietly();
+                check(engine.summary(r).equals(summary)
+                        && engine.averageWaitTime(r)
+                        == simulation.averageWaitTime(), "lane " + r
+                        + " of " + String.join(" ", scenario)
+                        + " matches Simulation, vectorised "
+                        + LockstepEngine.VECTORISED);
+            }
+        }
+        check(!LockstepEngine.applies(new String[] {"1", "2", "1", "1", "10",
+            "1", "1", "0", "0", "0"}), "self-checkouts are refused");
+        check(!LockstepEngine.applies(new String[] {"1", "2", "0", "1", "10",
+            "1", "1", "1", "0.5", "0"}), "rests are refused");
+        check(!LockstepEngine.applies(new String[] {"1", "2", "0", "1", "10",
+            "1", "1", "0", "0", "0.5"}), "greedy customers are refused");
+        check(!LockstepEngine.applies(new String[] {"1", "2", "0", "1", "10",
+            "1", "1", "0", "0", "0", "0.3"}), "reneging is refused");
+        checkThrows(IllegalArgumentException.class, () -> new LockstepEngine(
+                new String[] {"1", "2", "1", "1", "10", "1", "1", "0", "0",
+                    "0"}, LANES), "a refused scenario cannot be run");
+        TestSupport.passed("LockstepEngineTest");
+    }
+}
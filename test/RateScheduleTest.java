@@ -0,0 +1,91 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkClose;
+import static cs2030.simulator.TestSupport.checkThrows;
+
+/**
+ * RateScheduleTest checks the rates and integrals of RateSchedule, and that
+ * the arrivals drawn by thinning fall in each hour of the period as often
+ * as the integral of the rate over the hour says. The arrivals are drawn
+ * from a seeded RandomStream, so the counts are the same on every run, and
+ * each is allowed five standard deviations of its Poisson count.
+ */
+public class RateScheduleTest {
+    private static final int PERIODS = 2000;
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        RateSchedule constant = RateSchedule.parse(
+                "constant:0:2,6:0,12:3,24:0");
+        checkClose(2, constant.rate(5.9), 0, "constant rate in a segment");
+        checkClose(0, constant.rate(7), 0, "constant rate of 0");
+        checkClose(3, constant.rate(24 + 12), 0, "rate repeats every period");
+        checkClose(12 + 36, constant.integral(0, 24), 1e-12,
+                "integral of a constant schedule");
+        checkClose(2, constant.getMeanRate(), 1e-12, "mean rate");
+        RateSchedule linear = RateSchedule.parse("linear:0:1,8:10,17:2,24:1");
+        checkClose(5.5, linear.rate(4), 1e-12, "linear rate between knots");
+        checkClose(44 + 54 + 10.5, linear.integral(0, 24), 1e-12,
+                "integral of a linear schedule");
+        checkClose((1 + 3.25) / 2 * 2, linear.integral(0, 2), 1e-12,
+                "integral over part of a segment");
+        check(RateSchedule.parse(linear.toString()).toString()
+                .equals(linear.toString()), "toString is parsed back");
+
+        int uniforms = checkCounts(constant, 1);
+        int arrivals = (int) Math.round(constant.integral(0, 24) * PERIODS);
+        check(uniforms < arrivals * 1.05 + 3 * PERIODS,
+                "a constant segment keeps every candidate without a coin");
+        checkCounts(linear, 2);
+        checkCounts(RateSchedule.parse("linear:0:0,12:20,24:0"), 3);
+        checkCounts(RateSchedule.parse("constant:0:0.5,1:40,2:0.5,24:0"), 4);
+
+        checkThrows(IllegalArgumentException.class,
+                () -> RateSchedule.parse("cubic:0:1,24:1"), "unknown kind");
+        checkThrows(IllegalArgumentException.class,
+                () -> RateSchedule.parse("linear:0:1,24"), "knot without rate");
+        checkThrows(IllegalArgumentException.class,
+                () -> RateSchedule.parse("linear:1:1,24:1"),
+                "schedule not starting at 0");
+        checkThrows(IllegalArgumentException.class,
+                () -> RateSchedule.parse("constant:0:0,24:5"),
+                "constant schedule whose only rate is 0");
+        TestSupport.passed("RateScheduleTest");
+    }
+
+    /**
+     * Draw the arrivals of PERIODS periods of the schedule and check the
+     * number that falls in each hour.
+     * @param schedule the schedule, whose period is a whole number of hours.
+     * @param seed seed of the uniforms.
+     * @return number of uniforms drawn.
+     */
+    private static int checkCounts(RateSchedule schedule, long seed) {
+        RandomStream stream = new RandomStream(seed);
+        int[] drawn = new int[1];
+        int hours = (int) schedule.getPeriod();
+        long[] counts = new long[hours];
+        double end = PERIODS * schedule.getPeriod();
+        double time = schedule.next(0, () -> {
+            drawn[0]++;
+            return stream.nextDouble();
+        });
+        while (time < end) {
+            counts[(int) (time % schedule.getPeriod())]++;
+            time = schedule.next(time, () -> {
+                drawn[0]++;
+                return stream.nextDouble();
+            });
+        }
+        for (int h = 0; h < hours; h++) {
+            double expected = schedule.integral(h, h + 1) * PERIODS;
+            checkClose(expected, counts[h], 5 * Math.sqrt(expected) + 1e-9,
+                    "arrivals in hour " + h + " of " + schedule);
+        }
+        return drawn[0];
+    }
+}
@@ -0,0 +1,81 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkClose;
+
+/**
+ * ReplicationControllerTest checks that the estimates of a
+ * ReplicationController are those of separate Simulations with the seeds of
+ * the replications, whether the replications run one by one or in lockstep,
+ * that they do not depend on the number of threads, and that it stops at
+ * the budget or once the estimates are precise enough, relative to their
+ * means or within the absolute tolerance.
+ */
+public class ReplicationControllerTest {
+    private static final String[] MIXED = {"2", "2", "1", "2", "300", "2.5",
+        "1.0", "1.0", "0.1", "0.2"};
+    private static final String[] PLAIN = {"4", "2", "0", "2", "300", "1.8",
+        "1.0", "0", "0", "0"};
+    private static final String[] LOW_LOSS = {"1", "3", "0", "2", "500",
+        "1.5", "1.0", "0", "0", "0"};
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        check(!LockstepEngine.applies(MIXED), "mixed scenario runs one by one");
+        check(LockstepEngine.applies(PLAIN), "plain scenario runs in lockstep");
+        for (String[] scenario : new String[][] {MIXED, PLAIN}) {
+            String name = String.join(" ", scenario);
+            ReplicationController one = new ReplicationController(scenario,
+                    0, 0.95, 7, 30, 1);
+            ReplicationController four = new ReplicationController(scenario,
+                    0, 0.95, 7, 30, 4);
+            check(one.run() == 30 && four.run() == 30,
+                    "an unreachable precision uses the whole budget of "
+                    + name);
+            check(one.toString().equals(four.toString()),
+                    "the estimates of " + name
+                    + " do not depend on the number of threads");
+            RunningStat waits = new RunningStat();
+            RunningStat leaveRates = new RunningStat();
+            for (int r = 0; r < 30; r++) {
+                String[] replication = scenario.clone();
+                replication[0] = String.valueOf(Integer.parseInt(scenario[0])
+                        + 6 * r);
+                Simulation simulation = new Simulation(replication);
+                simulation.runQuietly();
+                waits.add(simulation.averageWaitTime());
+                leaveRates.add(ReplicationController.leaveRate(simulation));
+            }
+            checkClose(waits.getMean(), one.getWaits().getMean(), 0,
+                    "mean waiting time of " + name + " is that of the "
+                    + "Simulations");
+            checkClose(waits.getVariance(), one.getWaits().getVariance(), 0,
+                    "variance of the waiting times of " + name);
+            checkClose(leaveRates.getMean(), one.getLeaveRates().getMean(), 0,
+                    "mean leave rate of " + name);
+        }
+        ReplicationController loose = new ReplicationController(MIXED, 10,
+                0.95, 4, 1000, 2);
+        check(loose.run() == 4 && loose.isPrecise(),
+                "a loose precision stops after the first batch");
+        ReplicationController relative = new ReplicationController(LOW_LOSS,
+                0.1, 0, 0.95, 10, 400, 2, false);
+        check(relative.run() == 400 && !relative.isPrecise(),
+                "a leave rate near 0 uses the budget without a tolerance");
+        ReplicationController floor = new ReplicationController(LOW_LOSS,
+                0.1, 0.95, 10, 400, 2);
+        RunningStat lowLeaveRates = floor.getLeaveRates();
+        check(floor.run() < 400 && floor.isPrecise(),
+                "the default tolerance stops a leave rate near 0 early");
+        check(lowLeaveRates.getMean() > 0
+                && lowLeaveRates.halfWidth(0.95)
+                > 0.1 * lowLeaveRates.getMean()
+                && lowLeaveRates.halfWidth(0.95)
+                <= ReplicationController.DEFAULT_TOLERANCE,
+                "the leave rate is precise by the tolerance, not the mean");
+        TestSupport.passed("ReplicationControllerTest");
+    }
+}
@@ -0,0 +1,79 @@
+import cs2030.simulator.Simulation;
+import cs2030.simulator.TestSupport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static cs2030.simulator.TestSupport.check;
+
+/**
+ * ScenarioPipelineTest checks that ScenarioPipeline answers valid scenarios
+ * as Main would, answers invalid ones with an error instead of running the
+ * default scenario, and writes the replies in the order of the scenarios.
+ */
+public class ScenarioPipelineTest {
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     * @throws IOException never, as the scenarios are read from a string.
+     */
+    public static void main(String[] args) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            ScenarioPipeline pipeline = new ScenarioPipeline(workers, 2, null);
+            String valid = "2 3 2 50 1.5 1.0";
+            String expected = new Simulation(Main.normalise(
+                    valid.split(" "))).runQuietly();
+            check(pipeline.handle(valid).equals(expected),
+                    "valid scenario is answered as Main would");
+            check(pipeline.handle("  " + valid + "  ").equals(expected),
+                    "surrounding whitespace is ignored");
+            checkError(pipeline, "1 2 3 4 5 6 7",
+                    "error expected 5, 6, 8, 9, 10 or 11 arguments but got 7");
+            checkError(pipeline, "foo bar",
+                    "error expected 5, 6, 8, 9, 10 or 11 arguments but got 2");
+            checkError(pipeline, "1 x 5 1.0 1.0", "error not an integer: x");
+            checkError(pipeline, "1 1 5 1.0 y", "error not a number: y");
+            checkError(pipeline, "1 1 0 1 5 1.0 1.0 0 0 0 z",
+                    "error not a number: z");
+
+            StringWriter out = new StringWriter();
+            pipeline.run(new BufferedReader(new StringReader(String.join("\n",
+                    "# comment", valid, "", "foo bar", "1 1 5 1.0 1.0",
+                    "1 x 5 1.0 1.0"))), new PrintWriter(out));
+            String[] replies = out.toString().split("\\R");
+            check(replies.length == 4, "one reply per scenario, got "
+                    + replies.length);
+            check(replies[0].equals(expected), "first reply in order");
+            check(replies[1].startsWith("error expected"),
+                    "second reply in order");
+            check(replies[2].equals(new Simulation(Main.normalise(
+                    "1 1 5 1.0 1.0".split(" "))).runQuietly()),
+                    "third reply in order");
+            check(replies[3].equals("error not an integer: x"),
+                    "fourth reply in order");
+        } finally {
+            workers.shutdown();
+        }
+        TestSupport.passed("ScenarioPipelineTest");
+    }
+
+    /**
+     * Check that the scenario is answered with the error.
+     * @param pipeline the pipeline.
+     * @param request the scenario.
+     * @param error the expected reply.
+     */
+    private static void checkError(ScenarioPipeline pipeline, String request,
+                                   String error) {
+        String reply = pipeline.handle(request);
+        check(reply.equals(error), "'" + request + "' is answered with '"
+                + error + "', not '" + reply + "'");
+    }
+}
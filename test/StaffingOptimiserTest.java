@@ -0,0 +1,86 @@
+package cs2030.simulator;
+
+import java.util.List;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkThrows;
+
+/**
+ * StaffingOptimiserTest checks that StaffingOptimiser returns the cheapest
+ * feasible candidate whatever the number of threads, that every cheaper
+ * candidate was found infeasible and every dearer one pruned or decided,
+ * and that the search uses fewer replications than the whole grid.
+ */
+public class StaffingOptimiserTest {
+    private static final String[] SCENARIO = {"1", "1", "0", "1", "500",
+        "1.5", "1.0", "0", "0", "0"};
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        StaffingOptimiser one = search(1);
+        StaffingOptimiser four = search(4);
+        StaffingCandidate winner = one.getWinner();
+        check(winner != null, "a feasible candidate is found");
+        check(four.getWinner() != null
+                && four.getWinner().toString().equals(winner.toString()),
+                "the winner does not depend on the number of threads");
+        check(winner.getWaits().getMean() <= 1.0 * 1.1
+                && winner.getLeaveRates().getMean() <= 0.05 * 1.1,
+                "the winner meets the thresholds up to the tolerance");
+        List<StaffingCandidate> candidates = one.getCandidates();
+        int index = candidates.indexOf(winner);
+        for (int i = 0; i < candidates.size(); i++) {
+            StaffingCandidate candidate = candidates.get(i);
+            check(i == 0 || candidates.get(i - 1).getCost()
+                    <= candidate.getCost(), "candidates are sorted by cost");
+            if (i < index) {
+                check(candidate.getStatus() == CandidateStatus.INFEASIBLE,
+                        "cheaper candidate " + candidate + " is infeasible");
+            } else if (i > index) {
+                check(candidate.getStatus() != CandidateStatus.UNDECIDED,
+                        "dearer candidate " + candidate + " is not left "
+                        + "undecided");
+            }
+        }
+        check(candidates.get(candidates.size() - 1).getStatus()
+                == CandidateStatus.PRUNED, "the dearest candidate is pruned");
+        check(one.getReplications() < 200L * candidates.size(),
+                "fewer replications than the whole grid");
+        check(one.statement().contains("[" + winner.getNumServers() + " "
+                + winner.getNumSelfCheckout() + " "
+                + winner.getMaxQueueLength() + "]"),
+                "the statement names the winner");
+        checkThrows(IllegalArgumentException.class,
+                () -> new StaffingOptimiser(SCENARIO, 0, 0.05, 0.95, 0.1, 10,
+                        200, 1), "a threshold of 0 is refused");
+        checkThrows(IllegalArgumentException.class,
+                () -> new StaffingOptimiser(SCENARIO, 1, 0.05, 0.95, 0.1, 1,
+                        200, 1), "a first stage of 1 is refused");
+        TestSupport.passed("StaffingOptimiserTest");
+    }
+
+    /**
+     * Search a grid of up to 3 servers, 2 self-checkouts and queues of 1
+     * and 3 for an average waiting time of at most 1 and a leave rate of
+     * at most 0.05.
+     * @param threads number of threads.
+     * @return the optimiser after the search.
+     */
+    private static StaffingOptimiser search(int threads) {
+        StaffingOptimiser optimiser = new StaffingOptimiser(SCENARIO, 1.0,
+                0.05, 0.95, 0.1, 10, 200, threads);
+        for (int s = 1; s <= 3; s++) {
+            for (int c = 0; c <= 2; c++) {
+                for (int q : new int[] {1, 3}) {
+                    optimiser.add(new StaffingCandidate(s, c, q,
+                            s + 0.5 * c + 0.05 * q));
+                }
+            }
+        }
+        optimiser.run();
+        return optimiser;
+    }
+}
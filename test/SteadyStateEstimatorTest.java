@@ -0,0 +1,65 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkClose;
+
+/**
+ * SteadyStateEstimatorTest checks the MSER-5 truncation and the batch means
+ * of SteadyStateEstimator on series whose answers are worked out by hand.
+ */
+public class SteadyStateEstimatorTest {
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        SteadyStateEstimator empty = new SteadyStateEstimator(0.1, 0.95, 8);
+        check(empty.truncation() == 0, "empty series deletes nothing");
+        checkClose(0, empty.mean(), 0, "empty series has mean 0");
+        check(empty.halfWidth() == Double.POSITIVE_INFINITY,
+                "empty series has no confidence interval");
+
+        SteadyStateEstimator constant = new SteadyStateEstimator(0.1, 0.95,
+                4);
+        for (int i = 0; i < 100; i++) {
+            constant.add(3);
+        }
+        check(constant.truncation() == 0, "constant series deletes nothing");
+        checkClose(3, constant.mean(), 1e-12, "mean of constant series");
+        checkClose(0, constant.halfWidth(), 1e-12,
+                "constant series has no spread");
+
+        // two batches of 5 at 100, then batches of 5 alternating 1 and 2:
+        // the batch means after d = 2 have the least squared standard error
+        // 2 / 8^2, against 1.714 / 7^2 for d = 3 and more for the others.
+        SteadyStateEstimator warm = new SteadyStateEstimator(0.5, 0.95, 8);
+        for (int i = 0; i < 10; i++) {
+            warm.add(100);
+        }
+        for (int b = 0; b < 8; b++) {
+            for (int i = 0; i < 5; i++) {
+                warm.add(b % 2 == 0 ? 1 : 2);
+            }
+        }
+        check(warm.getObservations() == 50, "observations are counted");
+        check(warm.truncation() == 10, "warm-up of 10 observations is deleted");
+        checkClose(1.5, warm.mean(), 1e-12, "mean after the warm-up");
+        // 8 batches of 5 with means 1, 2, 1, 2, ... have variance 2 / 7, and
+        // the 97.5% quantile of t with 7 degrees of freedom is 2.364624.
+        checkClose(2.364624 * Math.sqrt(2.0 / 7 / 8), warm.halfWidth(), 1e-3,
+                "half-width of the batch means");
+        check(warm.isPrecise(), "half-width 0.447 is within 0.5 of 1.5");
+        SteadyStateEstimator strict = new SteadyStateEstimator(0.2, 0.95, 8);
+        for (int i = 0; i < 10; i++) {
+            strict.add(100);
+        }
+        for (int b = 0; b < 8; b++) {
+            for (int i = 0; i < 5; i++) {
+                strict.add(b % 2 == 0 ? 1 : 2);
+            }
+        }
+        check(!strict.isPrecise(), "half-width 0.447 is not within 0.2 of 1.5");
+        TestSupport.passed("SteadyStateEstimatorTest");
+    }
+}
@@ -0,0 +1,82 @@
+package cs2030.simulator;
+
+/**
+ * TestSupport of the regression tests in the test directory, which are
+ * plain classes with a main method, as the tree has no build file or test
+ * framework. The 'TestSupport' class supports operators that includes: (i)
+ * Checking a condition. (ii) Checking that a number is close to the
+ * expected one. (iii) Checking that an operation throws an exception. (iv)
+ * Reporting that a test passed.
+ * A failed check throws an AssertionError with its message, so a test stops
+ * at its first failure and exits with status 1. The tests are compiled
+ * along with the sources and run one by one, or all with AllTests:
+ * javac -d out *.java test/*.java, then java -cp out AllTests. Compiling
+ * vector/*.java as well and adding --add-modules jdk.incubator.vector to
+ * both commands also tests the Vector API path of LockstepEngine. Each
+ * test reports the number of checks it passed.
+ */
+public final class TestSupport {
+    private static int checks = 0;
+
+    private TestSupport() {
+    }
+
+    /**
+     * Check a condition.
+     * @param condition the condition.
+     * @param message what is checked.
+     * @throws AssertionError if the condition does not hold.
+     */
+    public static void check(boolean condition, String message) {
+        checks++;
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Check that a number is within a tolerance of the expected one.
+     * @param expected the expected number.
+     * @param actual the number computed.
+     * @param tolerance the largest difference allowed.
+     * @param message what is checked.
+     * @throws AssertionError if the difference is larger, or the number is
+     *     NaN.
+     */
+    public static void checkClose(double expected, double actual,
+                                  double tolerance, String message) {
+        check(Math.abs(expected - actual) <= tolerance, String.format(
+                "%s: expected %s+-%s but got %s", message, expected,
+                tolerance, actual));
+    }
+
+    /**
+     * Check that an operation throws an exception of the type.
+     * @param type the type of the exception.
+     * @param operation the operation.
+     * @param message what is checked.
+     * @throws AssertionError if the operation throws nothing, or an
+     *     exception of another type.
+     */
+    public static void checkThrows(Class<? extends Throwable> type,
+                                   Runnable operation, String message) {
+        Throwable thrown = null;
+        try {
+            operation.run();
+        } catch (RuntimeException | Error e) {
+            thrown = e;
+        }
+        check(type.isInstance(thrown), message + ": expected "
+                + type.getSimpleName() + " but got " + thrown);
+    }
+
+    /**
+     * Print that the test passed with the number of checks made since the
+     * last test, and start counting again.
+     * @param test the name of the test.
+     */
+    public static void passed(String test) {
+        System.out.println(test + " passed " + checks + " checks");
+        checks = 0;
+    }
+}
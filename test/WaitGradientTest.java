@@ -0,0 +1,79 @@
+package cs2030.simulator;
+
+import static cs2030.simulator.TestSupport.check;
+import static cs2030.simulator.TestSupport.checkClose;
+
+/**
+ * WaitGradientTest checks the derivatives of the average waiting time that
+ * WaitGradient estimates along a run against central finite differences of
+ * runs with the same seed at slightly perturbed rates. With the same seed,
+ * every service time and rest period scales with its rate, and with queues
+ * too long to fill and no reneging, a small perturbation changes no
+ * decision of the run, so the two must agree closely.
+ */
+public class WaitGradientTest {
+    private static final double STEP = 1e-6;
+    private static final String[][] SCENARIOS = {
+        {"3", "2", "0", "100000", "400", "1.8", "1.0", "1.0", "0.2", "0"},
+        {"8", "1", "0", "100000", "300", "0.8", "1.0", "0.5", "0.4", "0"},
+        {"4", "3", "0", "100000", "600", "2.7", "1.0", "2.0", "0.1", "0"}};
+
+    /**
+     * Run the test.
+     * @param args command line arguments, which are ignored.
+     */
+    public static void main(String[] args) {
+        for (String[] scenario : SCENARIOS) {
+            String name = String.join(" ", scenario);
+            double serviceRate = Double.parseDouble(scenario[6]);
+            double restingRate = Double.parseDouble(scenario[7]);
+            Simulation simulation = new Simulation(scenario);
+            simulation.setGradient(new WaitGradient(Integer.parseInt(
+                    scenario[1]), serviceRate, restingRate));
+            simulation.runQuietly();
+            WaitGradient gradient = simulation.getGradient();
+            check(simulation.getLeft() == 0, "no customer leaves in " + name);
+            double service = difference(scenario, 6, serviceRate);
+            double rest = difference(scenario, 7, restingRate);
+            check(service < 0, "faster service shortens the wait in " + name);
+            checkClose(service, gradient.serviceRateDerivative(),
+                    1e-4 * Math.abs(service), "service rate derivative in "
+                    + name);
+            checkClose(rest, gradient.restingRateDerivative(),
+                    1e-4 * Math.abs(rest) + 1e-9,
+                    "resting rate derivative in " + name);
+        }
+        TestSupport.passed("WaitGradientTest");
+    }
+
+    /**
+     * Return the central finite difference of the average waiting time
+     * with respect to a rate.
+     * @param scenario the simulation parameters.
+     * @param index index of the rate in the parameters.
+     * @param rate the rate.
+     * @return the finite difference.
+     */
+    private static double difference(String[] scenario, int index,
+                                     double rate) {
+        double h = STEP * rate;
+        return (averageWaitTime(scenario, index, rate + h)
+                - averageWaitTime(scenario, index, rate - h)) / (2 * h);
+    }
+
+    /**
+     * Return the average waiting time of the scenario with a rate changed.
+     * @param scenario the simulation parameters.
+     * @param index index of the rate in the parameters.
+     * @param rate the new rate.
+     * @return the average waiting time.
+     */
+    private static double averageWaitTime(String[] scenario, int index,
+                                          double rate) {
+        String[] perturbed = scenario.clone();
+        perturbed[index] = String.valueOf(rate);
+        Simulation simulation = new Simulation(perturbed);
+        simulation.runQuietly();
+        return simulation.averageWaitTime();
+    }
+}
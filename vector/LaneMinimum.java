@@ -0,0 +1,55 @@
+package cs2030.simulator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * LaneMinimum is the pass of a LockstepEngine that finds the earliest
+ * departure of every lane, written with the Vector API so that a vector of
+ * lanes is compared and blended at a time. Comparing and blending are
+ * exact, so the result is the same, bit for bit, as that of the scalar
+ * loop. The class is in the vector source directory, as it needs the
+ * jdk.incubator.vector module to compile, and is only loaded by
+ * LockstepEngine when the module is in the boot layer.
+ */
+class LaneMinimum implements LaneMinimumI {
+    private static final VectorSpecies<Double> SPECIES =
+            DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Lower the earliest departure of each lane to the departure of the
+     * server if it is earlier, and record the server.
+     * @param busyUntil the departures of every server, lanes contiguous.
+     * @param base index of lane 0 of the server in busyUntil.
+     * @param earliest the earliest departure of each lane.
+     * @param earliestServer the server of the earliest departure of each
+     *     lane.
+     * @param server the server.
+     * @param lanes number of lanes.
+     */
+    @Override
+    public void update(double[] busyUntil, int base, double[] earliest,
+                       double[] earliestServer, int server, int lanes) {
+        DoubleVector id = DoubleVector.broadcast(SPECIES, server);
+        int bound = SPECIES.loopBound(lanes);
+        int r = 0;
+        for (; r < bound; r += SPECIES.length()) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, busyUntil,
+                    base + r);
+            DoubleVector e = DoubleVector.fromArray(SPECIES, earliest, r);
+            VectorMask<Double> earlier = d.compare(VectorOperators.LT, e);
+            e.blend(d, earlier).intoArray(earliest, r);
+            DoubleVector.fromArray(SPECIES, earliestServer, r)
+                    .blend(id, earlier).intoArray(earliestServer, r);
+        }
+        for (; r < lanes; r++) {
+            double d = busyUntil[base + r];
+            if (d < earliest[r]) {
+                earliest[r] = d;
+                earliestServer[r] = server;
+            }
+        }
+    }
+}